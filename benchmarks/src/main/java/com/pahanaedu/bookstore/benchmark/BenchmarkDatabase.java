@@ -0,0 +1,325 @@
+package com.pahanaedu.bookstore.benchmark;
+
+import ch.vorburger.mariadb4j.DB;
+import ch.vorburger.mariadb4j.DBConfigurationBuilder;
+import com.pahanaedu.bookstore.util.DataSourceSingleton;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Embedded MariaDB seeded with a synthetic, deterministic dataset.
+ * One database is started per benchmark fork; the application's DataSourceSingleton is pointed
+ * at it through the pahana.db.* overrides before any service touches the pool.
+ * Dataset size is set with JMH parameters, e.g. -p customers=100000 -p items=20000 -p bills=50000.
+ */
+@State(Scope.Benchmark)
+public class BenchmarkDatabase {
+    
+    private static final String DATABASE = "pahana_edu";
+    private static final long SEED = 20240601L;
+    
+    private static final String[] FIRST_NAMES = {
+        "Amal", "Kasun", "Nimal", "Saman", "Dilani", "Tharushi", "Ruwan", "Chamari", "Isuru", "Harsha",
+        "Nadeesha", "Pradeep", "Sachini", "Dinesh", "Malith", "Shanika", "Lahiru", "Anjali", "Kavinda", "Nuwan"
+    };
+    private static final String[] LAST_NAMES = {
+        "Perera", "Fernando", "Silva", "Jayasinghe", "Bandara", "Wickramasinghe", "Gunawardena", "Rathnayake",
+        "Dissanayake", "Kumara", "Herath", "Senanayake", "Abeysekara", "Karunaratne", "Weerasinghe", "Liyanage"
+    };
+    private static final String[] CITIES = {
+        "Colombo", "Kandy", "Galle", "Matara", "Negombo", "Kurunegala", "Jaffna", "Anuradhapura"
+    };
+    private static final String[] TITLE_WORDS = {
+        "Advanced", "Basic", "Complete", "Modern", "Practical", "Essential", "Illustrated", "Concise",
+        "Mathematics", "Physics", "Chemistry", "Biology", "English", "Sinhala", "Tamil", "History",
+        "Geography", "Accounting", "Economics", "Programming", "Grammar", "Literature", "Workbook", "Guide"
+    };
+    private static final String[] SKU_PREFIXES = { "BK", "ST", "EX", "RF", "NB" };
+    
+    @Param({"20000"})
+    public int customers;
+    
+    @Param({"5000"})
+    public int items;
+    
+    @Param({"20000"})
+    public int bills;
+    
+    private DB db;
+    private Path dataDir;
+    
+    private final List<String> accountNumbers = new ArrayList<>();
+    private final List<String> customerNames = new ArrayList<>();
+    private final List<String> accountsWithBills = new ArrayList<>();
+    private final List<Integer> itemIds = new ArrayList<>();
+    private final List<String> itemNames = new ArrayList<>();
+    private final List<String> skus = new ArrayList<>();
+    private final List<String> billNumbers = new ArrayList<>();
+    
+    @Setup(Level.Trial)
+    public void start() throws Exception {
+        dataDir = Files.createTempDirectory("pahana-bench-db");
+        
+        DBConfigurationBuilder config = DBConfigurationBuilder.newBuilder();
+        config.setPort(0);
+        config.setDataDir(dataDir.toString());
+        config.setDeletingTemporaryBaseAndDataDirsOnShutdown(true);
+        if ("root".equals(System.getProperty("user.name"))) {
+            // mariadbd refuses to start as root unless told to, which matters in containers and CI
+            config.addArg("--user=root");
+        }
+        db = DB.newEmbeddedDB(config.build());
+        db.start();
+        
+        // Created over JDBC rather than DB.createDB, which needs the mariadb command line client
+        String server = "jdbc:mysql://localhost:" + db.getConfiguration().getPort() + "/";
+        String options = "?useSSL=false&serverTimezone=UTC&rewriteBatchedStatements=true&allowPublicKeyRetrieval=true";
+        try (Connection conn = DriverManager.getConnection(server + options, "root", "");
+             Statement stmt = conn.createStatement()) {
+            stmt.executeUpdate("CREATE DATABASE " + DATABASE);
+        }
+        
+        String url = server + DATABASE + options;
+        System.setProperty("pahana.db.url", url);
+        System.setProperty("pahana.db.username", "root");
+        System.setProperty("pahana.db.password", "");
+        
+        try (Connection conn = DriverManager.getConnection(url, "root", "")) {
+            createSchema(conn);
+            seed(conn);
+        }
+    }
+    
+    @TearDown(Level.Trial)
+    public void stop() throws Exception {
+        DataSourceSingleton.close();
+        if (db != null) {
+            db.stop();
+        }
+        if (dataDir != null && Files.exists(dataDir)) {
+            try (var paths = Files.walk(dataDir)) {
+                paths.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+            }
+        }
+    }
+    
+    private void createSchema(Connection conn) throws IOException, SQLException {
+        String script;
+        try (InputStream in = BenchmarkDatabase.class.getResourceAsStream("/benchmark-schema.sql")) {
+            if (in == null) {
+                throw new IllegalStateException("benchmark-schema.sql not found on classpath");
+            }
+            script = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+        
+        try (Statement stmt = conn.createStatement()) {
+            for (String sql : script.replaceAll("(?m)^--.*$", "").split(";")) {
+                if (!sql.isBlank()) {
+                    stmt.execute(sql);
+                }
+            }
+        }
+    }
+    
+    private void seed(Connection conn) throws SQLException {
+        Random random = new Random(SEED);
+        conn.setAutoCommit(false);
+        
+        String customerSql = "INSERT INTO customers (id, account_number, name, address, phone) VALUES (?, ?, ?, ?, ?)";
+        try (PreparedStatement stmt = conn.prepareStatement(customerSql)) {
+            for (int id = 1; id <= customers; id++) {
+                String accountNumber = "ACC" + String.format("%06d", id);
+                String name = FIRST_NAMES[random.nextInt(FIRST_NAMES.length)] + " " +
+                        LAST_NAMES[random.nextInt(LAST_NAMES.length)];
+                stmt.setInt(1, id);
+                stmt.setString(2, accountNumber);
+                stmt.setString(3, name);
+                stmt.setString(4, (1 + random.nextInt(400)) + " Main Street, " + CITIES[random.nextInt(CITIES.length)]);
+                stmt.setString(5, "07" + String.format("%08d", random.nextInt(100_000_000)));
+                stmt.addBatch();
+                accountNumbers.add(accountNumber);
+                customerNames.add(name);
+                if (id % 1000 == 0) {
+                    stmt.executeBatch();
+                }
+            }
+            stmt.executeBatch();
+        }
+        
+        List<BigDecimal> prices = new ArrayList<>();
+        String itemSql = "INSERT INTO items (id, sku, name, unit_price, active) VALUES (?, ?, ?, ?, ?)";
+        try (PreparedStatement stmt = conn.prepareStatement(itemSql)) {
+            for (int id = 1; id <= items; id++) {
+                String sku = SKU_PREFIXES[random.nextInt(SKU_PREFIXES.length)] + "-" + String.format("%06d", id);
+                String name = TITLE_WORDS[random.nextInt(8)] + " " +
+                        TITLE_WORDS[8 + random.nextInt(TITLE_WORDS.length - 8)] + " Vol " + (1 + random.nextInt(12));
+                BigDecimal price = BigDecimal.valueOf(100 + random.nextInt(9900), 0).add(BigDecimal.valueOf(random.nextInt(100), 2));
+                // Roughly one item in twenty is inactive, so validation paths see both
+                boolean active = random.nextInt(20) != 0;
+                stmt.setInt(1, id);
+                stmt.setString(2, sku);
+                stmt.setString(3, name);
+                stmt.setBigDecimal(4, price);
+                stmt.setBoolean(5, active);
+                stmt.addBatch();
+                prices.add(price);
+                skus.add(sku);
+                itemNames.add(name);
+                if (active) {
+                    itemIds.add(id);
+                }
+                if (id % 1000 == 0) {
+                    stmt.executeBatch();
+                }
+            }
+            stmt.executeBatch();
+        }
+        
+        String billSql = "INSERT INTO bills (id, bill_no, customer_id, bill_date, total) VALUES (?, ?, ?, ?, ?)";
+        String lineSql = "INSERT INTO bill_items (bill_id, item_id, qty, unit_price, line_total) VALUES (?, ?, ?, ?, ?)";
+        LocalDateTime now = LocalDateTime.now();
+        try (PreparedStatement billStmt = conn.prepareStatement(billSql);
+             PreparedStatement lineStmt = conn.prepareStatement(lineSql)) {
+            for (int id = 1; id <= bills; id++) {
+                String billNo = "BILL-" + String.format("%06d", id);
+                // Skew bills towards a quarter of the customers, as repeat buyers dominate real data
+                String accountNumber = accountNumbers.get(random.nextInt(Math.max(1, customers / 4)));
+                BigDecimal total = BigDecimal.ZERO;
+                int lines = 1 + random.nextInt(10);
+                for (int line = 0; line < lines; line++) {
+                    int itemId = itemIds.get(random.nextInt(itemIds.size()));
+                    int qty = 1 + random.nextInt(5);
+                    BigDecimal unitPrice = prices.get(itemId - 1);
+                    BigDecimal lineTotal = unitPrice.multiply(BigDecimal.valueOf(qty));
+                    total = total.add(lineTotal);
+                    lineStmt.setInt(1, id);
+                    lineStmt.setInt(2, itemId);
+                    lineStmt.setInt(3, qty);
+                    lineStmt.setBigDecimal(4, unitPrice);
+                    lineStmt.setBigDecimal(5, lineTotal);
+                    lineStmt.addBatch();
+                }
+                billStmt.setInt(1, id);
+                billStmt.setString(2, billNo);
+                billStmt.setString(3, accountNumber);
+                billStmt.setTimestamp(4, Timestamp.valueOf(now.minusMinutes(random.nextInt(365 * 24 * 60))));
+                billStmt.setBigDecimal(5, total);
+                billStmt.addBatch();
+                billNumbers.add(billNo);
+                accountsWithBills.add(accountNumber);
+                if (id % 1000 == 0) {
+                    billStmt.executeBatch();
+                    lineStmt.executeBatch();
+                }
+            }
+            billStmt.executeBatch();
+            lineStmt.executeBatch();
+        }
+        
+        conn.commit();
+        conn.setAutoCommit(true);
+    }
+    
+    /**
+     * @return an account number of a seeded customer
+     */
+    public String randomAccountNumber() {
+        return accountNumbers.get(ThreadLocalRandom.current().nextInt(accountNumbers.size()));
+    }
+    
+    /**
+     * @return an account number that has at least one seeded bill
+     */
+    public String randomAccountWithBills() {
+        return accountsWithBills.get(ThreadLocalRandom.current().nextInt(accountsWithBills.size()));
+    }
+    
+    /**
+     * @return a seeded bill number
+     */
+    public String randomBillNumber() {
+        return billNumbers.get(ThreadLocalRandom.current().nextInt(billNumbers.size()));
+    }
+    
+    /**
+     * @param count number of distinct items
+     * @return IDs of distinct active items
+     */
+    public List<Integer> randomActiveItemIds(int count) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        List<Integer> ids = new ArrayList<>(count);
+        while (ids.size() < Math.min(count, itemIds.size())) {
+            Integer id = itemIds.get(random.nextInt(itemIds.size()));
+            if (!ids.contains(id)) {
+                ids.add(id);
+            }
+        }
+        return ids;
+    }
+    
+    /**
+     * Typeahead query as a cashier would type it: a short prefix of a customer name,
+     * a longer prefix, a surname fragment or an account number fragment
+     * @return customer search query
+     */
+    public String randomCustomerQuery() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        String name = customerNames.get(random.nextInt(customerNames.size()));
+        switch (random.nextInt(4)) {
+            case 0:
+                return name.substring(0, 2);
+            case 1:
+                return name.substring(0, Math.min(name.length(), 5));
+            case 2:
+                String surname = name.substring(name.indexOf(' ') + 1);
+                return surname.substring(0, Math.min(surname.length(), 4));
+            default:
+                String account = accountNumbers.get(random.nextInt(accountNumbers.size()));
+                return account.substring(0, 3 + random.nextInt(account.length() - 2));
+        }
+    }
+    
+    /**
+     * Typeahead query for items: a title prefix, a subject word or a SKU fragment
+     * @return item search query
+     */
+    public String randomItemQuery() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        String name = itemNames.get(random.nextInt(itemNames.size()));
+        switch (random.nextInt(4)) {
+            case 0:
+                return name.substring(0, 2);
+            case 1:
+                return name.substring(0, Math.min(name.length(), 6));
+            case 2:
+                String subject = name.split(" ")[1];
+                return subject.substring(0, Math.min(subject.length(), 5));
+            default:
+                String sku = skus.get(random.nextInt(skus.size()));
+                return sku.substring(0, 3 + random.nextInt(sku.length() - 2));
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package com.pahanaedu.bookstore.benchmark;
+
+import com.pahanaedu.bookstore.service.BillingService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * End-to-end checkout: customer lookup, item validation, bill number allocation and the
+ * bill + line inserts in one transaction, for carts of 1, 10 and 50 lines.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 10)
+@Fork(1)
+public class BillingBenchmark {
+    
+    @Param({"1", "10", "50"})
+    public int lines;
+    
+    private BillingService billingService;
+    
+    @Setup(Level.Trial)
+    public void setUp(BenchmarkDatabase database) {
+        billingService = new BillingService();
+    }
+    
+    @Benchmark
+    public String createBill(BenchmarkDatabase database) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        List<BillingService.BillItemRequest> cart = new ArrayList<>(lines);
+        for (Integer itemId : database.randomActiveItemIds(lines)) {
+            cart.add(new BillingService.BillItemRequest(itemId, 1 + random.nextInt(5)));
+        }
+        return billingService.createBill(database.randomAccountNumber(), cart);
+    }
+}
@@ -0,0 +1,74 @@
+package com.pahanaedu.bookstore.benchmark;
+
+import com.pahanaedu.bookstore.controller.QuickSearchServlet;
+import com.pahanaedu.bookstore.service.CustomerService;
+import com.pahanaedu.bookstore.service.ItemService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import jakarta.servlet.ServletException;
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * QuickSearchServlet request handling including JSON serialization, for each lookup type:
+ * c (customers), i (items), b (bills of a customer) and bill (bill details).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 10)
+@Fork(1)
+public class QuickSearchBenchmark {
+    
+    @Param({"c", "i", "b", "bill"})
+    public String type;
+    
+    private QuickSearchServlet servlet;
+    
+    @Setup(Level.Trial)
+    public void setUp(BenchmarkDatabase database) throws ServletException {
+        new ItemService().rebuildSearchIndex();
+        new CustomerService().rebuildSearchIndex();
+        servlet = new QuickSearchServlet();
+        servlet.init();
+    }
+    
+    @Benchmark
+    public long search(BenchmarkDatabase database) throws ServletException, IOException {
+        String query;
+        switch (type) {
+            case "c":
+                query = database.randomCustomerQuery();
+                break;
+            case "i":
+                query = database.randomItemQuery();
+                break;
+            case "b":
+                query = database.randomAccountWithBills();
+                break;
+            default:
+                query = database.randomBillNumber();
+                break;
+        }
+        
+        ServletStubs.DiscardingResponse response = new ServletStubs.DiscardingResponse();
+        servlet.service(ServletStubs.get(Map.of("t", type, "q", query)), response.response);
+        if (response.status() != 200) {
+            throw new IllegalStateException("QuickSearch returned " + response.status() + " for t=" + type + "&q=" + query);
+        }
+        return response.bytesWritten();
+    }
+}
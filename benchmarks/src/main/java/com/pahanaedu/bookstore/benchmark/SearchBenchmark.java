@@ -0,0 +1,63 @@
+package com.pahanaedu.bookstore.benchmark;
+
+import com.pahanaedu.bookstore.model.Customer;
+import com.pahanaedu.bookstore.model.Item;
+import com.pahanaedu.bookstore.service.CustomerService;
+import com.pahanaedu.bookstore.service.ItemService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Typeahead searches through the service layer.
+ * "index" serves from the in-memory search indexes, "sql" leaves them unbuilt so every
+ * search takes the database fallback; each runs in its own fork.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 10)
+@Fork(1)
+public class SearchBenchmark {
+    
+    private static final int LIMIT = 10;
+    
+    @Param({"index", "sql"})
+    public String source;
+    
+    private ItemService itemService;
+    private CustomerService customerService;
+    
+    @Setup(Level.Trial)
+    public void setUp(BenchmarkDatabase database) {
+        itemService = new ItemService();
+        customerService = new CustomerService();
+        if ("index".equals(source)) {
+            itemService.rebuildSearchIndex();
+            customerService.rebuildSearchIndex();
+        }
+    }
+    
+    @Benchmark
+    public List<Item> searchItems(BenchmarkDatabase database) {
+        return itemService.searchItems(database.randomItemQuery(), LIMIT);
+    }
+    
+    @Benchmark
+    public List<Customer> searchCustomers(BenchmarkDatabase database) {
+        return customerService.searchCustomers(database.randomCustomerQuery(), LIMIT);
+    }
+}
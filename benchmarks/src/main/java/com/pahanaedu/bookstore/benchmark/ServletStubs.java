@@ -0,0 +1,129 @@
+package com.pahanaedu.bookstore.benchmark;
+
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.WriteListener;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.lang.reflect.Proxy;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+/**
+ * Minimal request and response objects for driving a servlet outside a container.
+ * Only the calls a GET handler makes are implemented; everything else returns a default value.
+ */
+final class ServletStubs {
+    
+    private ServletStubs() {}
+    
+    static HttpServletRequest get(Map<String, String> parameters) {
+        return (HttpServletRequest) Proxy.newProxyInstance(
+                ServletStubs.class.getClassLoader(),
+                new Class<?>[] { HttpServletRequest.class },
+                (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "getMethod":
+                            return "GET";
+                        case "getProtocol":
+                            return "HTTP/1.1";
+                        case "getParameter":
+                            return parameters.get((String) args[0]);
+                        case "getHeader":
+                            return null;
+                        case "getRequestURI":
+                            return "/assets/data";
+                        case "getRequestURL":
+                            return new StringBuffer("http://localhost/assets/data");
+                        case "toString":
+                            return "BenchmarkRequest" + parameters;
+                        default:
+                            return defaultValue(method.getReturnType());
+                    }
+                });
+    }
+    
+    /**
+     * Response whose body is counted and discarded
+     */
+    static final class DiscardingResponse {
+        
+        private final CountingOutputStream body = new CountingOutputStream();
+        private final PrintWriter writer = new PrintWriter(new OutputStreamWriter(body, StandardCharsets.UTF_8));
+        private int status = HttpServletResponse.SC_OK;
+        
+        final HttpServletResponse response = (HttpServletResponse) Proxy.newProxyInstance(
+                ServletStubs.class.getClassLoader(),
+                new Class<?>[] { HttpServletResponse.class },
+                (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "getOutputStream":
+                            return body;
+                        case "getWriter":
+                            return writer;
+                        case "setStatus":
+                        case "sendError":
+                            status = (Integer) args[0];
+                            return null;
+                        case "getStatus":
+                            return status;
+                        case "getCharacterEncoding":
+                            return "UTF-8";
+                        case "isCommitted":
+                            return body.count > 0;
+                        case "toString":
+                            return "BenchmarkResponse";
+                        default:
+                            return defaultValue(method.getReturnType());
+                    }
+                });
+        
+        long bytesWritten() {
+            writer.flush();
+            return body.count;
+        }
+        
+        int status() {
+            return status;
+        }
+    }
+    
+    private static final class CountingOutputStream extends ServletOutputStream {
+        
+        private long count;
+        
+        @Override
+        public void write(int b) {
+            count++;
+        }
+        
+        @Override
+        public void write(byte[] b, int off, int len) {
+            count += len;
+        }
+        
+        @Override
+        public boolean isReady() {
+            return true;
+        }
+        
+        @Override
+        public void setWriteListener(WriteListener writeListener) {
+        }
+    }
+    
+    private static Object defaultValue(Class<?> type) {
+        if (type == boolean.class) {
+            return false;
+        }
+        if (type == int.class) {
+            return 0;
+        }
+        if (type == long.class) {
+            return 0L;
+        }
+        return null;
+    }
+}
@@ -2,6 +2,8 @@ package com.pahanaedu.bookstore.controller;
 
 import com.pahanaedu.bookstore.model.User;
 import com.pahanaedu.bookstore.service.AuthService;
+import com.pahanaedu.bookstore.util.AuthTokenManager;
+import com.pahanaedu.bookstore.util.LoginThrottle;
 
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServlet;
@@ -13,12 +15,18 @@ import java.util.Optional;
 
 public class AuthServlet extends HttpServlet {
     
+    private static final int SC_TOO_MANY_REQUESTS = 429;
+    
     private AuthService authService;
+    private LoginThrottle loginThrottle;
+    private AuthTokenManager tokenManager;
     
     @Override
     public void init() throws ServletException {
         super.init();
         this.authService = new AuthService();
+        this.loginThrottle = LoginThrottle.getInstance();
+        this.tokenManager = AuthTokenManager.getInstance();
     }
     
     @Override
@@ -53,8 +61,14 @@ public class AuthServlet extends HttpServlet {
             throws ServletException, IOException {
         
         // If user is already logged in, redirect to dashboard
-        HttpSession session = request.getSession(false);
-        if (session != null && session.getAttribute("user") != null) {
+        boolean loggedIn;
+        if (tokenManager.isEnabled()) {
+            loggedIn = tokenManager.authenticate(request, response).isPresent();
+        } else {
+            HttpSession session = request.getSession(false);
+            loggedIn = session != null && session.getAttribute("user") != null;
+        }
+        if (loggedIn) {
             response.sendRedirect(request.getContextPath() + "/app/dashboard");
             return;
         }
@@ -76,12 +90,41 @@ public class AuthServlet extends HttpServlet {
             return;
         }
         
-        Optional<User> userOpt = authService.login(username, password);
+        // Refuse before touching the database or hashing anything
+        long retryAfterSeconds = loginThrottle.tryAcquire(username, loginThrottle.clientAddress(request));
+        if (retryAfterSeconds > 0) {
+            response.setStatus(SC_TOO_MANY_REQUESTS);
+            response.setHeader("Retry-After", String.valueOf(retryAfterSeconds));
+            request.setAttribute("error", "Too many login attempts, please try again in " + retryAfterSeconds + " seconds");
+            request.setAttribute("username", username);
+            request.getRequestDispatcher("/WEB-INF/jsp/login.jsp").forward(request, response);
+            return;
+        }
+        
+        Optional<User> userOpt;
+        try {
+            userOpt = authService.login(username, password);
+        } catch (IllegalStateException e) {
+            // Password hashing is saturated (e.g. a shift-change login burst)
+            response.setStatus(HttpServletResponse.SC_SERVICE_UNAVAILABLE);
+            response.setHeader("Retry-After", "2");
+            request.setAttribute("error", e.getMessage());
+            request.setAttribute("username", username);
+            request.getRequestDispatcher("/WEB-INF/jsp/login.jsp").forward(request, response);
+            return;
+        }
         
         if (userOpt.isPresent()) {
             // Login successful
             User user = userOpt.get();
             
+            if (tokenManager.isEnabled()) {
+                // Stateless mode: any node can validate the cookie, nothing kept server-side
+                tokenManager.issue(user, request, response);
+                response.sendRedirect(request.getContextPath() + "/app/dashboard");
+                return;
+            }
+            
             HttpSession session = request.getSession(true);
             session.setAttribute("user", user);
             session.setAttribute("username", user.getUsername());
@@ -109,6 +152,9 @@ public class AuthServlet extends HttpServlet {
         if (session != null) {
             session.invalidate();
         }
+        if (tokenManager.isEnabled()) {
+            tokenManager.clear(request, response);
+        }
         
         request.setAttribute("success", "You have been logged out successfully");
         request.getRequestDispatcher("/WEB-INF/jsp/login.jsp").forward(request, response);
@@ -1,6 +1,7 @@
 package com.pahanaedu.bookstore.controller;
 
 import com.pahanaedu.bookstore.model.Bill;
+import com.pahanaedu.bookstore.model.BillView;
 import com.pahanaedu.bookstore.service.BillingService;
 import com.pahanaedu.bookstore.util.JsonUtil;
 
@@ -73,7 +74,7 @@ public class BillingServlet extends HttpServlet {
         }
         
         try {
-            Optional<Bill> billOpt = billingService.findByBillNo(billNo);
+            Optional<BillView> billOpt = billingService.findBillView(billNo);
             
             if (billOpt.isPresent()) {
                 request.setAttribute("bill", billOpt.get());
@@ -99,7 +100,7 @@ public class BillingServlet extends HttpServlet {
         }
         
         try {
-            Optional<Bill> billOpt = billingService.findByBillNo(billNo);
+            Optional<BillView> billOpt = billingService.findBillView(billNo);
             
             if (billOpt.isPresent()) {
                 request.setAttribute("bill", billOpt.get());
@@ -1,7 +1,11 @@
 package com.pahanaedu.bookstore.controller;
 
 import com.pahanaedu.bookstore.model.Customer;
+import com.pahanaedu.bookstore.model.Page;
 import com.pahanaedu.bookstore.service.CustomerService;
+import com.pahanaedu.bookstore.util.AsyncRequestExecutor;
+import com.pahanaedu.bookstore.util.ConditionalGet;
+import com.pahanaedu.bookstore.util.CsvImportRequests;
 import com.pahanaedu.bookstore.util.JsonUtil;
 
 import jakarta.servlet.ServletException;
@@ -16,11 +20,13 @@ import java.util.Optional;
 public class CustomerServlet extends HttpServlet {
     
     private CustomerService customerService;
+    private AsyncRequestExecutor asyncExecutor;
     
     @Override
     public void init() throws ServletException {
         super.init();
         this.customerService = new CustomerService();
+        this.asyncExecutor = AsyncRequestExecutor.getInstance();
     }
     
     @Override
@@ -30,7 +36,13 @@ public class CustomerServlet extends HttpServlet {
         String requestURI = request.getRequestURI();
         
         if (requestURI.endsWith("/api/customers")) {
-            handleApiSearch(request, response);
+            // Repeated queries against unchanged data are answered with 304, no lookup
+            String etag = ConditionalGet.etag(customerService.getCustomerVersion(), request.getParameter("query"));
+            if (ConditionalGet.isNotModified(request, response, etag)) {
+                return;
+            }
+            // Typeahead traffic: the search runs on a virtual thread, not a container thread
+            asyncExecutor.execute(request, response, this::handleApiSearch);
         } else if (requestURI.endsWith("/customers/edit")) {
             showEditCustomerPage(request, response);
         } else if (requestURI.endsWith("/customers")) {
@@ -50,6 +62,8 @@ public class CustomerServlet extends HttpServlet {
             handleUpdateCustomer(request, response);
         } else if (requestURI.endsWith("/customers/delete")) {
             handleDeleteCustomer(request, response);
+        } else if (requestURI.endsWith("/customers/import")) {
+            handleImportCustomers(request, response);
         } else if (requestURI.endsWith("/customers")) {
             handleCreateCustomer(request, response);
         } else {
@@ -61,8 +75,7 @@ public class CustomerServlet extends HttpServlet {
             throws ServletException, IOException {
         
         try {
-            List<Customer> customers = customerService.getAllCustomers();
-            request.setAttribute("customers", customers);
+            loadCustomersPage(request);
             request.setAttribute("pageTitle", "Customers");
             
             request.getRequestDispatcher("/WEB-INF/jsp/customers.jsp").forward(request, response);
@@ -120,8 +133,7 @@ public class CustomerServlet extends HttpServlet {
             request.setAttribute("success", "Customer created successfully with account number: " + savedCustomer.getAccountNumber());
             
             // Reload customers list
-            List<Customer> customers = customerService.getAllCustomers();
-            request.setAttribute("customers", customers);
+            loadCustomersPage(request);
             request.setAttribute("pageTitle", "Customers");
             
             request.getRequestDispatcher("/WEB-INF/jsp/customers.jsp").forward(request, response);
@@ -134,8 +146,7 @@ public class CustomerServlet extends HttpServlet {
             
             // Reload customers list
             try {
-                List<Customer> customers = customerService.getAllCustomers();
-                request.setAttribute("customers", customers);
+                loadCustomersPage(request);
             } catch (Exception ex) {
                 // Ignore error loading customers
             }
@@ -147,8 +158,7 @@ public class CustomerServlet extends HttpServlet {
             
             // Reload customers list
             try {
-                List<Customer> customers = customerService.getAllCustomers();
-                request.setAttribute("customers", customers);
+                loadCustomersPage(request);
             } catch (Exception ex) {
                 // Ignore error loading customers
             }
@@ -196,6 +206,38 @@ public class CustomerServlet extends HttpServlet {
         }
     }
     
+    /**
+     * Bulk import customers from CSV. A form upload (multipart, field "file") re-renders the customers
+     * page with a summary; any other body is read as raw CSV and answered with a JSON summary.
+     */
+    private void handleImportCustomers(HttpServletRequest request, HttpServletResponse response)
+            throws ServletException, IOException {
+        
+        if (!CsvImportRequests.isFormUpload(request)) {
+            CsvImportRequests.importBody(request, response, "customers", customerService::importCustomers);
+            return;
+        }
+        
+        CsvImportRequests.importUpload(request, "customers", customerService::importCustomers);
+        try {
+            loadCustomersPage(request);
+        } catch (Exception e) {
+            // Ignore error loading customers
+        }
+        request.setAttribute("pageTitle", "Customers");
+        request.getRequestDispatcher("/WEB-INF/jsp/customers.jsp").forward(request, response);
+    }
+    
+    /**
+     * Load the requested page of customers into the "customers" and "page" request attributes
+     */
+    private void loadCustomersPage(HttpServletRequest request) {
+        Page<Customer> page = customerService.getCustomersPage(request.getParameter("cursor"),
+                Page.parseSize(request.getParameter("size")));
+        request.setAttribute("customers", page.getItems());
+        request.setAttribute("page", page);
+    }
+    
     private void handleApiSearch(HttpServletRequest request, HttpServletResponse response)
             throws ServletException, IOException {
         
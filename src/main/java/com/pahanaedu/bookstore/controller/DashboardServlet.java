@@ -1,21 +1,72 @@
 package com.pahanaedu.bookstore.controller;
 
+import com.pahanaedu.bookstore.service.BillingService;
+import com.pahanaedu.bookstore.util.AppConfig;
+import com.pahanaedu.bookstore.util.JsonUtil;
+
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServlet;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import java.io.IOException;
+import java.io.PrintWriter;
 
+/**
+ * Dashboard page and its /api/dashboard/stats JSON. Both render the in-memory sales
+ * totals, so refreshing the dashboard never queries the database.
+ */
 public class DashboardServlet extends HttpServlet {
     
+    private static final int MAX_TOP_ITEMS = 50;
+    
+    private BillingService billingService;
+    private int defaultTopItems;
+    
+    @Override
+    public void init() throws ServletException {
+        super.init();
+        this.billingService = new BillingService();
+        this.defaultTopItems = AppConfig.getInstance().getInt("dashboard.topItems", 5);
+    }
+    
     @Override
     protected void doGet(HttpServletRequest request, HttpServletResponse response)
             throws ServletException, IOException {
         
+        String requestURI = request.getRequestURI();
+        
+        if (requestURI.endsWith("/api/dashboard/stats")) {
+            handleApiStats(request, response);
+            return;
+        }
+        
         // Set page title
         request.setAttribute("pageTitle", "Dashboard");
+        request.setAttribute("stats", billingService.getSalesStats(defaultTopItems));
         
         // Forward to dashboard JSP
         request.getRequestDispatcher("/WEB-INF/jsp/dashboard.jsp").forward(request, response);
     }
+    
+    private void handleApiStats(HttpServletRequest request, HttpServletResponse response)
+            throws IOException {
+        
+        int topN = defaultTopItems;
+        String top = request.getParameter("top");
+        if (top != null) {
+            try {
+                topN = Math.max(0, Math.min(MAX_TOP_ITEMS, Integer.parseInt(top.trim())));
+            } catch (NumberFormatException e) {
+                // Keep the default
+            }
+        }
+        
+        response.setContentType("application/json");
+        response.setCharacterEncoding("UTF-8");
+        response.setHeader("Cache-Control", "no-store");
+        
+        try (PrintWriter out = response.getWriter()) {
+            out.print(JsonUtil.toJson(billingService.getSalesStats(topN)));
+        }
+    }
 }
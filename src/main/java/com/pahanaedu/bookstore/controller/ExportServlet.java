@@ -0,0 +1,239 @@
+package com.pahanaedu.bookstore.controller;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.pahanaedu.bookstore.dao.BillDao;
+import com.pahanaedu.bookstore.model.BillExportRow;
+import com.pahanaedu.bookstore.service.BillingService;
+import com.pahanaedu.bookstore.util.JsonUtil;
+
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServlet;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+
+/**
+ * Bill line extracts for accounting: GET /api/export/bills?from=yyyy-MM-dd&to=yyyy-MM-dd&format=csv|ndjson.
+ * Both dates are inclusive. Rows are written to the response as the database returns them,
+ * so an export of any size runs as one query in constant memory.
+ */
+public class ExportServlet extends HttpServlet {
+    
+    private BillingService billingService;
+    
+    @Override
+    public void init() throws ServletException {
+        super.init();
+        this.billingService = new BillingService();
+    }
+    
+    @Override
+    protected void doGet(HttpServletRequest request, HttpServletResponse response)
+            throws ServletException, IOException {
+        
+        if (!"/bills".equals(request.getPathInfo())) {
+            writeError(response, HttpServletResponse.SC_NOT_FOUND, "Unknown export");
+            return;
+        }
+        
+        String format = request.getParameter("format");
+        boolean ndjson = "ndjson".equalsIgnoreCase(format);
+        if (!ndjson && format != null && !format.isBlank() && !"csv".equalsIgnoreCase(format)) {
+            writeError(response, HttpServletResponse.SC_BAD_REQUEST, "format must be csv or ndjson");
+            return;
+        }
+        
+        LocalDate fromDate;
+        LocalDate toDate;
+        try {
+            fromDate = parseDate(request.getParameter("from"));
+            toDate = parseDate(request.getParameter("to"));
+        } catch (DateTimeParseException e) {
+            writeError(response, HttpServletResponse.SC_BAD_REQUEST, "from and to must be dates in yyyy-MM-dd format");
+            return;
+        }
+        
+        String fileName = "bills_" + fromDate + "_" + toDate + (ndjson ? ".ndjson" : ".csv");
+        response.setContentType(ndjson ? "application/x-ndjson" : "text/csv");
+        response.setCharacterEncoding("UTF-8");
+        response.setHeader("Content-Disposition", "attachment; filename=\"" + fileName + "\"");
+        response.setHeader("Cache-Control", "no-store");
+        
+        OutputStream out = response.getOutputStream();
+        ExportFormat export = ndjson ? new NdjsonFormat(out) : new CsvFormat(out);
+        try {
+            billingService.exportBillLines(fromDate, toDate, export);
+            export.finish();
+        } catch (IllegalArgumentException e) {
+            response.reset();
+            writeError(response, HttpServletResponse.SC_BAD_REQUEST, e.getMessage());
+        } catch (RuntimeException e) {
+            System.err.println("ERROR ExportServlet: bill export " + fromDate + ".." + toDate + " failed: " + e.getMessage());
+            if (export.isStarted()) {
+                // Rows are already on the wire; the client sees a truncated body
+                throw e;
+            }
+            response.reset();
+            writeError(response, HttpServletResponse.SC_INTERNAL_SERVER_ERROR, "Error exporting bills");
+        }
+    }
+    
+    private LocalDate parseDate(String value) {
+        return value == null || value.isBlank() ? null : LocalDate.parse(value.trim());
+    }
+    
+    private void writeError(HttpServletResponse response, int status, String message) throws IOException {
+        response.setStatus(status);
+        response.setContentType("application/json");
+        response.setCharacterEncoding("UTF-8");
+        try (JsonGenerator json = JsonUtil.createGenerator(response.getOutputStream())) {
+            json.writeStartObject();
+            json.writeStringField("error", message);
+            json.writeEndObject();
+        }
+    }
+    
+    /**
+     * An output format. Nothing is written until the first row arrives, so a query that fails
+     * up front can still be answered with an error status.
+     */
+    private abstract static class ExportFormat implements BillDao.ExportRowHandler {
+        private boolean started;
+        
+        @Override
+        public void handle(BillExportRow row) throws IOException {
+            if (!started) {
+                started = true;
+                writeHeader();
+            }
+            writeRow(row);
+        }
+        
+        void finish() throws IOException {
+            if (!started) {
+                started = true;
+                writeHeader();
+            }
+            close();
+        }
+        
+        boolean isStarted() {
+            return started;
+        }
+        
+        abstract void writeHeader() throws IOException;
+        
+        abstract void writeRow(BillExportRow row) throws IOException;
+        
+        abstract void close() throws IOException;
+    }
+    
+    private static class CsvFormat extends ExportFormat {
+        private final Writer writer;
+        
+        CsvFormat(OutputStream out) {
+            this.writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), 16 * 1024);
+        }
+        
+        @Override
+        void writeHeader() throws IOException {
+            writer.write("bill_no,bill_date,customer_account,customer_name,bill_total,sku,item_name,qty,unit_price,line_total\r\n");
+        }
+        
+        @Override
+        void writeRow(BillExportRow row) throws IOException {
+            writeField(row.getBillNo());
+            writer.write(',');
+            writeField(row.getBillDate() != null ? row.getBillDate().toString() : null);
+            writer.write(',');
+            writeField(row.getCustomerAccount());
+            writer.write(',');
+            writeField(row.getCustomerName());
+            writer.write(',');
+            writeField(toPlainString(row.getBillTotal()));
+            writer.write(',');
+            writeField(row.getSku());
+            writer.write(',');
+            writeField(row.getItemName());
+            writer.write(',');
+            writer.write(Integer.toString(row.getQty()));
+            writer.write(',');
+            writeField(toPlainString(row.getUnitPrice()));
+            writer.write(',');
+            writeField(toPlainString(row.getLineTotal()));
+            writer.write("\r\n");
+        }
+        
+        @Override
+        void close() throws IOException {
+            writer.close();
+        }
+        
+        private void writeField(String value) throws IOException {
+            if (value == null) {
+                return;
+            }
+            boolean quote = false;
+            for (int i = 0; i < value.length() && !quote; i++) {
+                char c = value.charAt(i);
+                quote = c == ',' || c == '"' || c == '\n' || c == '\r';
+            }
+            if (!quote) {
+                writer.write(value);
+                return;
+            }
+            writer.write('"');
+            writer.write(value.replace("\"", "\"\""));
+            writer.write('"');
+        }
+        
+        private static String toPlainString(BigDecimal value) {
+            return value != null ? value.toPlainString() : null;
+        }
+    }
+    
+    private static class NdjsonFormat extends ExportFormat {
+        private final JsonGenerator json;
+        
+        NdjsonFormat(OutputStream out) throws IOException {
+            this.json = JsonUtil.createGenerator(out);
+            // Lines are separated explicitly below rather than by the generator's root separator
+            this.json.setRootValueSeparator(null);
+        }
+        
+        @Override
+        void writeHeader() {
+            // NDJSON has no header
+        }
+        
+        @Override
+        void writeRow(BillExportRow row) throws IOException {
+            json.writeStartObject();
+            json.writeStringField("billNo", row.getBillNo());
+            json.writeStringField("billDate", row.getBillDate() != null ? row.getBillDate().toString() : null);
+            json.writeStringField("customerAccount", row.getCustomerAccount());
+            json.writeStringField("customerName", row.getCustomerName());
+            json.writeNumberField("billTotal", row.getBillTotal());
+            json.writeStringField("sku", row.getSku());
+            json.writeStringField("itemName", row.getItemName());
+            json.writeNumberField("qty", row.getQty());
+            json.writeNumberField("unitPrice", row.getUnitPrice());
+            json.writeNumberField("lineTotal", row.getLineTotal());
+            json.writeEndObject();
+            json.writeRaw('\n');
+        }
+        
+        @Override
+        void close() throws IOException {
+            json.close();
+        }
+    }
+}
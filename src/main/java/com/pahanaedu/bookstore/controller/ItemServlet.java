@@ -1,7 +1,11 @@
 package com.pahanaedu.bookstore.controller;
 
 import com.pahanaedu.bookstore.model.Item;
+import com.pahanaedu.bookstore.model.Page;
 import com.pahanaedu.bookstore.service.ItemService;
+import com.pahanaedu.bookstore.util.AsyncRequestExecutor;
+import com.pahanaedu.bookstore.util.ConditionalGet;
+import com.pahanaedu.bookstore.util.CsvImportRequests;
 import com.pahanaedu.bookstore.util.JsonUtil;
 
 import jakarta.servlet.ServletException;
@@ -17,11 +21,13 @@ import java.util.Optional;
 public class ItemServlet extends HttpServlet {
     
     private ItemService itemService;
+    private AsyncRequestExecutor asyncExecutor;
     
     @Override
     public void init() throws ServletException {
         super.init();
         this.itemService = new ItemService();
+        this.asyncExecutor = AsyncRequestExecutor.getInstance();
     }
     
     @Override
@@ -31,7 +37,13 @@ public class ItemServlet extends HttpServlet {
         String requestURI = request.getRequestURI();
         
         if (requestURI.endsWith("/api/items")) {
-            handleApiSearch(request, response);
+            // Repeated queries against unchanged data are answered with 304, no lookup
+            String etag = ConditionalGet.etag(itemService.getCatalogVersion(), request.getParameter("query"));
+            if (ConditionalGet.isNotModified(request, response, etag)) {
+                return;
+            }
+            // Typeahead traffic: the search runs on a virtual thread, not a container thread
+            asyncExecutor.execute(request, response, this::handleApiSearch);
         } else if (requestURI.endsWith("/items/edit")) {
             showEditItemPage(request, response);
         } else if (requestURI.endsWith("/items")) {
@@ -49,6 +61,8 @@ public class ItemServlet extends HttpServlet {
         
         if (requestURI.endsWith("/items/edit")) {
             handleUpdateItem(request, response);
+        } else if (requestURI.endsWith("/items/import")) {
+            handleImportItems(request, response);
         } else if (requestURI.endsWith("/items")) {
             String action = request.getParameter("action");
             if ("delete".equals(action)) {
@@ -67,8 +81,7 @@ public class ItemServlet extends HttpServlet {
             throws ServletException, IOException {
         
         try {
-            List<Item> items = itemService.getAllItems();
-            request.setAttribute("items", items);
+            loadItemsPage(request);
             request.setAttribute("pageTitle", "Items");
             
             request.getRequestDispatcher("/WEB-INF/jsp/items.jsp").forward(request, response);
@@ -131,8 +144,7 @@ public class ItemServlet extends HttpServlet {
             request.setAttribute("success", "Item created successfully");
             
             // Reload items list
-            List<Item> items = itemService.getAllItems();
-            request.setAttribute("items", items);
+            loadItemsPage(request);
             request.setAttribute("pageTitle", "Items");
             
             request.getRequestDispatcher("/WEB-INF/jsp/items.jsp").forward(request, response);
@@ -146,8 +158,7 @@ public class ItemServlet extends HttpServlet {
             
             // Reload items list
             try {
-                List<Item> items = itemService.getAllItems();
-                request.setAttribute("items", items);
+                loadItemsPage(request);
             } catch (Exception ex) {
                 // Ignore error loading items
             }
@@ -163,8 +174,7 @@ public class ItemServlet extends HttpServlet {
             
             // Reload items list
             try {
-                List<Item> items = itemService.getAllItems();
-                request.setAttribute("items", items);
+                loadItemsPage(request);
             } catch (Exception ex) {
                 // Ignore error loading items
             }
@@ -176,8 +186,7 @@ public class ItemServlet extends HttpServlet {
             
             // Reload items list
             try {
-                List<Item> items = itemService.getAllItems();
-                request.setAttribute("items", items);
+                loadItemsPage(request);
             } catch (Exception ex) {
                 // Ignore error loading items
             }
@@ -251,8 +260,7 @@ public class ItemServlet extends HttpServlet {
         
         // Reload items page
         try {
-            List<Item> items = itemService.getAllItems();
-            request.setAttribute("items", items);
+            loadItemsPage(request);
             request.setAttribute("pageTitle", "Items");
             request.getRequestDispatcher("/WEB-INF/jsp/items.jsp").forward(request, response);
         } catch (Exception e) {
@@ -281,8 +289,7 @@ public class ItemServlet extends HttpServlet {
         
         // Reload items page
         try {
-            List<Item> items = itemService.getAllItems();
-            request.setAttribute("items", items);
+            loadItemsPage(request);
             request.setAttribute("pageTitle", "Items");
             request.getRequestDispatcher("/WEB-INF/jsp/items.jsp").forward(request, response);
         } catch (Exception e) {
@@ -291,6 +298,38 @@ public class ItemServlet extends HttpServlet {
         }
     }
     
+    /**
+     * Bulk import items from CSV. A form upload (multipart, field "file") re-renders the items
+     * page with a summary; any other body is read as raw CSV and answered with a JSON summary.
+     */
+    private void handleImportItems(HttpServletRequest request, HttpServletResponse response)
+            throws ServletException, IOException {
+        
+        if (!CsvImportRequests.isFormUpload(request)) {
+            CsvImportRequests.importBody(request, response, "items", itemService::importItems);
+            return;
+        }
+        
+        CsvImportRequests.importUpload(request, "items", itemService::importItems);
+        try {
+            loadItemsPage(request);
+        } catch (Exception e) {
+            // Ignore error loading items
+        }
+        request.setAttribute("pageTitle", "Items");
+        request.getRequestDispatcher("/WEB-INF/jsp/items.jsp").forward(request, response);
+    }
+    
+    /**
+     * Load the requested page of items into the "items" and "page" request attributes
+     */
+    private void loadItemsPage(HttpServletRequest request) {
+        Page<Item> page = itemService.getItemsPage(request.getParameter("cursor"),
+                Page.parseSize(request.getParameter("size")), false);
+        request.setAttribute("items", page.getItems());
+        request.setAttribute("page", page);
+    }
+    
     private void handleApiSearch(HttpServletRequest request, HttpServletResponse response)
             throws ServletException, IOException {
         
@@ -298,6 +337,7 @@ public class ItemServlet extends HttpServlet {
         
         response.setContentType("application/json");
         response.setCharacterEncoding("UTF-8");
+        response.setHeader("Cache-Control", "no-cache");
         response.setHeader("Access-Control-Allow-Origin", "*");
         
         try (PrintWriter out = response.getWriter()) {
@@ -0,0 +1,140 @@
+package com.pahanaedu.bookstore.controller;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.pahanaedu.bookstore.model.Bill;
+import com.pahanaedu.bookstore.model.Customer;
+import com.pahanaedu.bookstore.model.Item;
+import com.pahanaedu.bookstore.model.Page;
+import com.pahanaedu.bookstore.service.BillingService;
+import com.pahanaedu.bookstore.service.CustomerService;
+import com.pahanaedu.bookstore.service.ItemService;
+import com.pahanaedu.bookstore.util.ConditionalGet;
+import com.pahanaedu.bookstore.util.JsonUtil;
+
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServlet;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.IOException;
+
+/**
+ * Keyset-paginated JSON listings: /api/list/customers, /api/list/items and /api/list/bills.
+ * Takes optional cursor and size parameters (and active=true for items) and returns
+ * {"data":[...],"pageSize":n,"nextCursor":...,"previousCursor":...}.
+ */
+public class ListApiServlet extends HttpServlet {
+    
+    private CustomerService customerService;
+    private ItemService itemService;
+    private BillingService billingService;
+    
+    @Override
+    public void init() throws ServletException {
+        super.init();
+        this.customerService = new CustomerService();
+        this.itemService = new ItemService();
+        this.billingService = new BillingService();
+    }
+    
+    @Override
+    protected void doGet(HttpServletRequest request, HttpServletResponse response)
+            throws ServletException, IOException {
+        
+        String pathInfo = request.getPathInfo();
+        String cursor = request.getParameter("cursor");
+        Integer size = Page.parseSize(request.getParameter("size"));
+        
+        response.setContentType("application/json");
+        response.setCharacterEncoding("UTF-8");
+        
+        try {
+            // Customer and item pages can be revalidated against the shared data version, which
+            // a write on any node bumps; bills change with every sale and are never stored
+            if ("/customers".equals(pathInfo) || "/items".equals(pathInfo)) {
+                long version = "/customers".equals(pathInfo)
+                        ? customerService.getStoredCustomerVersion() : itemService.getStoredCatalogVersion();
+                String etag = ConditionalGet.etag(String.valueOf(version), pathInfo, cursor,
+                        request.getParameter("size"), request.getParameter("active"));
+                response.setHeader("Cache-Control", "private, no-cache");
+                if (ConditionalGet.isNotModified(request, response, etag)) {
+                    return;
+                }
+            } else {
+                response.setHeader("Cache-Control", "no-store");
+            }
+            
+            if ("/customers".equals(pathInfo)) {
+                writePage(response, customerService.getCustomersPage(cursor, size), this::writeCustomer);
+            } else if ("/items".equals(pathInfo)) {
+                boolean activeOnly = "true".equalsIgnoreCase(request.getParameter("active"));
+                writePage(response, itemService.getItemsPage(cursor, size, activeOnly), this::writeItem);
+            } else if ("/bills".equals(pathInfo)) {
+                writePage(response, billingService.getBillsPage(cursor, size), this::writeBill);
+            } else {
+                writeError(response, HttpServletResponse.SC_NOT_FOUND, "Unknown listing");
+            }
+        } catch (IllegalArgumentException e) {
+            writeError(response, HttpServletResponse.SC_BAD_REQUEST, e.getMessage());
+        } catch (RuntimeException e) {
+            writeError(response, HttpServletResponse.SC_INTERNAL_SERVER_ERROR, "Error loading page");
+        }
+    }
+    
+    private <T> void writePage(HttpServletResponse response, Page<T> page, RowWriter<T> rowWriter)
+            throws IOException {
+        
+        try (JsonGenerator json = JsonUtil.createGenerator(response.getOutputStream())) {
+            json.writeStartObject();
+            json.writeArrayFieldStart("data");
+            for (T row : page.getItems()) {
+                json.writeStartObject();
+                rowWriter.write(json, row);
+                json.writeEndObject();
+            }
+            json.writeEndArray();
+            json.writeNumberField("pageSize", page.getPageSize());
+            json.writeStringField("nextCursor", page.getNextCursor());
+            json.writeStringField("previousCursor", page.getPreviousCursor());
+            json.writeEndObject();
+        }
+    }
+    
+    private void writeCustomer(JsonGenerator json, Customer customer) throws IOException {
+        json.writeNumberField("id", customer.getId());
+        json.writeStringField("accountNumber", customer.getAccountNumber());
+        json.writeStringField("name", customer.getName());
+        json.writeStringField("address", customer.getAddress());
+        json.writeStringField("phone", customer.getPhone());
+    }
+    
+    private void writeItem(JsonGenerator json, Item item) throws IOException {
+        json.writeNumberField("id", item.getId());
+        json.writeStringField("sku", item.getSku());
+        json.writeStringField("name", item.getName());
+        json.writeNumberField("unitPrice", item.getUnitPrice());
+        json.writeBooleanField("active", item.isActive());
+    }
+    
+    private void writeBill(JsonGenerator json, Bill bill) throws IOException {
+        json.writeNumberField("id", bill.getId());
+        json.writeStringField("billNo", bill.getBillNo());
+        json.writeStringField("customerAccount", bill.getCustomerId());
+        json.writeStringField("customerName", bill.getCustomer() != null ? bill.getCustomer().getName() : null);
+        json.writeStringField("billDate", bill.getBillDate() != null ? bill.getBillDate().toString() : null);
+        json.writeNumberField("total", bill.getTotal());
+    }
+    
+    private void writeError(HttpServletResponse response, int status, String message) throws IOException {
+        response.setStatus(status);
+        try (JsonGenerator json = JsonUtil.createGenerator(response.getOutputStream())) {
+            json.writeStartObject();
+            json.writeStringField("error", message);
+            json.writeEndObject();
+        }
+    }
+    
+    @FunctionalInterface
+    private interface RowWriter<T> {
+        void write(JsonGenerator json, T row) throws IOException;
+    }
+}
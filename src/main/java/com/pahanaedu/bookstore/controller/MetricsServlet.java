@@ -0,0 +1,51 @@
+package com.pahanaedu.bookstore.controller;
+
+import com.pahanaedu.bookstore.util.AppConfig;
+import com.pahanaedu.bookstore.util.AsyncRequestExecutor;
+import com.pahanaedu.bookstore.util.DataSourceSingleton;
+import com.pahanaedu.bookstore.util.JsonUtil;
+import com.pahanaedu.bookstore.util.LoginThrottle;
+import com.pahanaedu.bookstore.util.PasswordHasher;
+
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServlet;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Operational metrics as JSON. Served under /api/, so AuthFilter requires a logged-in user.
+ */
+public class MetricsServlet extends HttpServlet {
+    
+    @Override
+    protected void doGet(HttpServletRequest request, HttpServletResponse response)
+            throws ServletException, IOException {
+        
+        response.setContentType("application/json");
+        response.setCharacterEncoding("UTF-8");
+        response.setHeader("Cache-Control", "no-store");
+        
+        try (PrintWriter out = response.getWriter()) {
+            out.print(JsonUtil.toJson(getPoolMetrics()));
+        }
+    }
+    
+    private Map<String, Object> getPoolMetrics() {
+        AppConfig appConfig = AppConfig.getInstance();
+        
+        // Make sure the pool exists so the counts are live rather than absent
+        DataSourceSingleton.getInstance();
+        
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        metrics.put("profile", appConfig.getProfile());
+        metrics.putAll(DataSourceSingleton.getPoolMetrics().snapshot());
+        metrics.put("async", AsyncRequestExecutor.getInstance().snapshot());
+        metrics.put("passwordHashing", PasswordHasher.getInstance().snapshot());
+        metrics.put("loginThrottle", LoginThrottle.getInstance().snapshot());
+        return metrics;
+    }
+}
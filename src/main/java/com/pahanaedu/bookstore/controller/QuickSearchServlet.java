@@ -1,6 +1,16 @@
 package com.pahanaedu.bookstore.controller;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.pahanaedu.bookstore.model.BillView;
+import com.pahanaedu.bookstore.model.Customer;
+import com.pahanaedu.bookstore.model.Item;
+import com.pahanaedu.bookstore.service.BillingService;
+import com.pahanaedu.bookstore.service.CustomerService;
+import com.pahanaedu.bookstore.service.ItemService;
+import com.pahanaedu.bookstore.util.AsyncRequestExecutor;
+import com.pahanaedu.bookstore.util.ConditionalGet;
 import com.pahanaedu.bookstore.util.DataSourceSingleton;
+import com.pahanaedu.bookstore.util.JsonUtil;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServlet;
 import jakarta.servlet.http.HttpServletRequest;
@@ -8,26 +18,58 @@ import jakarta.servlet.http.HttpServletResponse;
 
 import javax.sql.DataSource;
 import java.io.IOException;
-import java.io.PrintWriter;
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.util.List;
+import java.util.Optional;
 
+/**
+ * Typeahead and bill lookup endpoint. Responses are streamed straight to the response
+ * output stream through a JSON generator rather than assembled in memory first.
+ */
 public class QuickSearchServlet extends HttpServlet {
     
     private DataSource dataSource;
+    private ItemService itemService;
+    private CustomerService customerService;
+    private BillingService billingService;
+    private AsyncRequestExecutor asyncExecutor;
     
     @Override
     public void init() throws ServletException {
         super.init();
         this.dataSource = DataSourceSingleton.getInstance();
+        this.itemService = new ItemService();
+        this.customerService = new CustomerService();
+        this.billingService = new BillingService();
+        this.asyncExecutor = AsyncRequestExecutor.getInstance();
     }
     
     @Override
     protected void doGet(HttpServletRequest request, HttpServletResponse response)
             throws ServletException, IOException {
         
+        // Customer and item results only change with the data, so repeated keystrokes
+        // against an unchanged catalog are answered with 304 without any lookup
+        String type = request.getParameter("t");
+        String version = "c".equals(type) ? customerService.getCustomerVersion()
+                : "i".equals(type) ? itemService.getCatalogVersion() : null;
+        if (version != null) {
+            String etag = ConditionalGet.etag(version, type, request.getParameter("q"));
+            if (ConditionalGet.isNotModified(request, response, etag)) {
+                return;
+            }
+        }
+        
+        // Typeahead traffic: lookups run on a virtual thread, not a container thread
+        asyncExecutor.execute(request, response, this::handleSearch);
+    }
+    
+    private void handleSearch(HttpServletRequest request, HttpServletResponse response)
+            throws IOException {
+        
         String type = request.getParameter("t");
         String query = request.getParameter("q");
         
@@ -35,129 +77,80 @@ public class QuickSearchServlet extends HttpServlet {
         response.setCharacterEncoding("UTF-8");
         response.setHeader("Cache-Control", "no-cache");
         
-        try (PrintWriter out = response.getWriter()) {
+        try (JsonGenerator json = JsonUtil.createGenerator(response.getOutputStream())) {
             if (query == null || query.trim().isEmpty()) {
-                out.print("[]");
+                writeEmptyArray(json);
                 return;
             }
             
-            String result = "";
-            if ("c".equals(type)) {
-                result = searchCustomers(query.trim());
-            } else if ("i".equals(type)) {
-                result = searchItems(query.trim());
-            } else if ("b".equals(type)) {
-                result = searchBills(query.trim());
-            } else if ("bill".equals(type)) {
-                result = getBillDetails(query.trim());
-            } else {
-                out.print("[]");
-                return;
-            }
-            
-            out.print(result);
-            out.flush();
-            
-        } catch (Exception e) {
-            response.setStatus(HttpServletResponse.SC_INTERNAL_SERVER_ERROR);
-            try (PrintWriter out = response.getWriter()) {
-                out.print("[]");
+            try {
+                if ("c".equals(type)) {
+                    searchCustomers(json, query.trim());
+                } else if ("i".equals(type)) {
+                    searchItems(json, query.trim());
+                } else if ("b".equals(type)) {
+                    searchBills(json, query.trim());
+                } else if ("bill".equals(type)) {
+                    getBillDetails(json, query.trim());
+                } else {
+                    writeEmptyArray(json);
+                }
+            } catch (RuntimeException e) {
+                System.err.println("ERROR QuickSearchServlet: search '" + type + "' failed: " + e.getMessage());
+                if (json.getOutputContext().inRoot() && json.getOutputContext().getEntryCount() == 0) {
+                    // Failed before anything was written, so the status can still be set
+                    response.setStatus(HttpServletResponse.SC_INTERNAL_SERVER_ERROR);
+                    writeEmptyArray(json);
+                } else {
+                    // Failed part way through a streamed result: keep the rows written so far
+                    closeNestedContexts(json);
+                    endTopLevel(json);
+                }
             }
         }
     }
     
-    private String searchCustomers(String query) {
-        StringBuilder json = new StringBuilder("[");
-        boolean first = true;
-        
-        String sql = "SELECT id, account_number, name, address, phone FROM customers " +
-                    "WHERE account_number LIKE ? OR name LIKE ? " +
-                    "ORDER BY CASE " +
-                    "  WHEN account_number LIKE ? THEN 1 " +
-                    "  WHEN name LIKE ? THEN 2 " +
-                    "  ELSE 3 END " +
-                    "LIMIT 10";
+    private void writeEmptyArray(JsonGenerator json) throws IOException {
+        json.writeStartArray();
+        json.writeEndArray();
+    }
+    
+    private void searchCustomers(JsonGenerator json, String query) throws IOException {
+        // Served from the in-memory customer search index (SQL fallback while it warms up)
+        List<Customer> customers = customerService.searchCustomers(query, 10);
         
-        try (Connection conn = dataSource.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
-            
-            String prefix = query + "%";
-            String contains = "%" + query + "%";
-            
-            stmt.setString(1, prefix);
-            stmt.setString(2, contains);
-            stmt.setString(3, prefix);
-            stmt.setString(4, prefix);
-            
-            try (ResultSet rs = stmt.executeQuery()) {
-                while (rs.next()) {
-                    if (!first) json.append(",");
-                    first = false;
-                    
-                    json.append("{");
-                    json.append("\"id\":").append(rs.getInt("id")).append(",");
-                    json.append("\"accountNumber\":\"").append(escapeJson(rs.getString("account_number"))).append("\",");
-                    json.append("\"name\":\"").append(escapeJson(rs.getString("name"))).append("\",");
-                    json.append("\"address\":\"").append(escapeJson(rs.getString("address"))).append("\",");
-                    json.append("\"phone\":\"").append(escapeJson(rs.getString("phone"))).append("\"");
-                    json.append("}");
-                }
-            }
-        } catch (SQLException e) {
-            // Silent fail
+        json.writeStartArray();
+        for (Customer customer : customers) {
+            json.writeStartObject();
+            json.writeNumberField("id", customer.getId());
+            json.writeStringField("accountNumber", orEmpty(customer.getAccountNumber()));
+            json.writeStringField("name", orEmpty(customer.getName()));
+            json.writeStringField("address", orEmpty(customer.getAddress()));
+            json.writeStringField("phone", orEmpty(customer.getPhone()));
+            json.writeEndObject();
         }
-        
-        json.append("]");
-        return json.toString();
+        json.writeEndArray();
     }
     
-    private String searchItems(String query) {
-        StringBuilder json = new StringBuilder("[");
-        boolean first = true;
-        
-        // Simple direct query based on what we see in the database
-        String sql = "SELECT id, sku, name, unit_price, active FROM items " +
-                    "WHERE active = 1 AND (sku LIKE ? OR name LIKE ?) " +
-                    "ORDER BY sku " +
-                    "LIMIT 10";
+    private void searchItems(JsonGenerator json, String query) throws IOException {
+        // Served from the in-memory item search index (SQL fallback while it warms up)
+        List<Item> items = itemService.searchItems(query, 10);
         
-        try (Connection conn = dataSource.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
-            
-            String searchPattern = "%" + query + "%";
-            
-            stmt.setString(1, searchPattern);
-            stmt.setString(2, searchPattern);
-            
-            try (ResultSet rs = stmt.executeQuery()) {
-                while (rs.next()) {
-                    if (!first) json.append(",");
-                    first = false;
-                    
-                    json.append("{");
-                    json.append("\"id\":").append(rs.getInt("id")).append(",");
-                    json.append("\"sku\":\"").append(escapeJson(rs.getString("sku"))).append("\",");
-                    json.append("\"name\":\"").append(escapeJson(rs.getString("name"))).append("\",");
-                    json.append("\"price\":").append(rs.getBigDecimal("unit_price")).append(",");
-                    json.append("\"stockQuantity\":10,"); // Default stock value
-                    json.append("\"active\":").append(rs.getBoolean("active"));
-                    json.append("}");
-                }
-            }
-        } catch (SQLException e) {
-            // Add basic logging to see what's wrong
-            System.err.println("Item search error for query '" + query + "': " + e.getMessage());
-            e.printStackTrace();
+        json.writeStartArray();
+        for (Item item : items) {
+            json.writeStartObject();
+            json.writeNumberField("id", item.getId());
+            json.writeStringField("sku", orEmpty(item.getSku()));
+            json.writeStringField("name", orEmpty(item.getName()));
+            json.writeNumberField("price", item.getUnitPrice());
+            json.writeNumberField("stockQuantity", 10); // Default stock value
+            json.writeBooleanField("active", item.isActive());
+            json.writeEndObject();
         }
-        
-        json.append("]");
-        return json.toString();
+        json.writeEndArray();
     }
     
-    private String searchBills(String customerAccount) {
-        StringBuilder json = new StringBuilder("[");
-        boolean first = true;
-        
+    private void searchBills(JsonGenerator json, String customerAccount) throws IOException {
         String sql = "SELECT b.id, b.bill_no, b.bill_date, b.total, b.created_at, " +
                     "       c.name as customer_name, c.account_number " +
                     "FROM bills b " +
@@ -166,6 +159,7 @@ public class QuickSearchServlet extends HttpServlet {
                     "ORDER BY b.bill_date DESC, b.created_at DESC " +
                     "LIMIT 50";
         
+        json.writeStartArray();
         try (Connection conn = dataSource.getConnection();
              PreparedStatement stmt = conn.prepareStatement(sql)) {
             
@@ -173,132 +167,100 @@ public class QuickSearchServlet extends HttpServlet {
             
             try (ResultSet rs = stmt.executeQuery()) {
                 while (rs.next()) {
-                    if (!first) json.append(",");
-                    first = false;
-                    
-                    json.append("{");
-                    json.append("\"id\":").append(rs.getInt("id")).append(",");
-                    json.append("\"billNo\":\"").append(escapeJson(rs.getString("bill_no"))).append("\",");
-                    json.append("\"billDate\":\"").append(rs.getDate("bill_date")).append("\",");
-                    json.append("\"total\":").append(rs.getBigDecimal("total")).append(",");
-                    json.append("\"createdAt\":\"").append(rs.getTimestamp("created_at")).append("\",");
-                    json.append("\"customerName\":\"").append(escapeJson(rs.getString("customer_name"))).append("\",");
-                    json.append("\"accountNumber\":\"").append(escapeJson(rs.getString("account_number"))).append("\"");
-                    json.append("}");
+                    json.writeStartObject();
+                    json.writeNumberField("id", rs.getInt("id"));
+                    json.writeStringField("billNo", orEmpty(rs.getString("bill_no")));
+                    json.writeStringField("billDate", String.valueOf(rs.getDate("bill_date")));
+                    json.writeNumberField("total", rs.getBigDecimal("total"));
+                    json.writeStringField("createdAt", String.valueOf(rs.getTimestamp("created_at")));
+                    json.writeStringField("customerName", orEmpty(rs.getString("customer_name")));
+                    json.writeStringField("accountNumber", orEmpty(rs.getString("account_number")));
+                    json.writeEndObject();
                 }
             }
         } catch (SQLException e) {
-            // Silent fail
+            // Silent fail, rows written so far are kept
+            closeNestedContexts(json);
         }
-        
-        json.append("]");
-        return json.toString();
+        json.writeEndArray();
     }
     
-    private String getBillDetails(String billNo) {
-        StringBuilder json = new StringBuilder("{");
-        
-        System.out.println("DEBUG: Getting bill details for billNo: " + billNo);
-        
-        // Step 1: Get bill basic info
-        String billSql = "SELECT id, bill_no, customer_id, bill_date, total FROM bills WHERE bill_no = ?";
+    private void getBillDetails(JsonGenerator json, String billNo) throws IOException {
+        // Bill, customer and lines come back from one joined query, before anything is written
+        Optional<BillView> billOpt;
+        try {
+            billOpt = billingService.findBillView(billNo);
+        } catch (RuntimeException e) {
+            Throwable cause = e.getCause() != null ? e.getCause() : e;
+            System.err.println("ERROR QuickSearchServlet: error loading bill '" + billNo + "': " + cause.getMessage());
+            json.writeStartObject();
+            json.writeStringField("error", "Database error: " + orEmpty(cause.getMessage()));
+            json.writeEndObject();
+            return;
+        }
         
-        try (Connection conn = dataSource.getConnection()) {
+        json.writeStartObject();
+        if (billOpt.isPresent()) {
+            BillView bill = billOpt.get();
+            json.writeStringField("billNo", orEmpty(bill.getBillNo()));
+            json.writeStringField("billDate", String.valueOf(bill.getBillDate() != null ? bill.getBillDate().toLocalDate() : null));
+            json.writeNumberField("total", bill.getTotal());
             
-            // Get bill info first
-            try (PreparedStatement stmt = conn.prepareStatement(billSql)) {
-                stmt.setString(1, billNo);
-                
-                try (ResultSet rs = stmt.executeQuery()) {
-                    if (rs.next()) {
-                        int billId = rs.getInt("id");
-                        String customerId = rs.getString("customer_id");
-                        
-                        System.out.println("DEBUG: Found bill with ID: " + billId + ", Customer ID: " + customerId);
-                        
-                        json.append("\"billNo\":\"").append(escapeJson(rs.getString("bill_no"))).append("\",");
-                        json.append("\"billDate\":\"").append(rs.getDate("bill_date")).append("\",");
-                        json.append("\"total\":").append(rs.getBigDecimal("total")).append(",");
-                        
-                        // Step 2: Get customer info
-                        String customerSql = "SELECT name, account_number, phone, address FROM customers WHERE account_number = ?";
-                        try (PreparedStatement custStmt = conn.prepareStatement(customerSql)) {
-                            custStmt.setString(1, customerId);
-                            
-                            try (ResultSet custRs = custStmt.executeQuery()) {
-                                if (custRs.next()) {
-                                    System.out.println("DEBUG: Found customer: " + custRs.getString("name"));
-                                    json.append("\"customerName\":\"").append(escapeJson(custRs.getString("name"))).append("\",");
-                                    json.append("\"customerAccount\":\"").append(escapeJson(custRs.getString("account_number"))).append("\",");
-                                    json.append("\"customerPhone\":\"").append(escapeJson(custRs.getString("phone") != null ? custRs.getString("phone") : "")).append("\",");
-                                    json.append("\"customerAddress\":\"").append(escapeJson(custRs.getString("address") != null ? custRs.getString("address") : "")).append("\",");
-                                } else {
-                                    System.out.println("DEBUG: Customer not found for ID: " + customerId);
-                                    json.append("\"customerName\":\"Customer Not Found\",");
-                                    json.append("\"customerAccount\":\"").append(escapeJson(customerId)).append("\",");
-                                    json.append("\"customerPhone\":\"\",");
-                                    json.append("\"customerAddress\":\"\",");
-                                }
-                            }
-                        }
-                        
-                        // Step 3: Get bill items
-                        String itemsSql = "SELECT bi.qty, bi.unit_price, bi.line_total, " +
-                                         "       i.sku, i.name as item_name " +
-                                         "FROM bill_items bi " +
-                                         "JOIN items i ON bi.item_id = i.id " +
-                                         "WHERE bi.bill_id = ? " +
-                                         "ORDER BY bi.id";
-                        
-                        json.append("\"items\":[");
-                        try (PreparedStatement itemStmt = conn.prepareStatement(itemsSql)) {
-                            itemStmt.setInt(1, billId);
-                            
-                            try (ResultSet itemRs = itemStmt.executeQuery()) {
-                                boolean firstItem = true;
-                                int itemCount = 0;
-                                while (itemRs.next()) {
-                                    if (!firstItem) json.append(",");
-                                    firstItem = false;
-                                    itemCount++;
-                                    
-                                    json.append("{");
-                                    json.append("\"sku\":\"").append(escapeJson(itemRs.getString("sku"))).append("\",");
-                                    json.append("\"name\":\"").append(escapeJson(itemRs.getString("item_name"))).append("\",");
-                                    json.append("\"qty\":").append(itemRs.getInt("qty")).append(",");
-                                    json.append("\"unitPrice\":").append(itemRs.getBigDecimal("unit_price")).append(",");
-                                    json.append("\"lineTotal\":").append(itemRs.getBigDecimal("line_total"));
-                                    json.append("}");
-                                }
-                                System.out.println("DEBUG: Found " + itemCount + " items for bill");
-                            }
-                        }
-                        json.append("]");
-                        
-                    } else {
-                        System.out.println("DEBUG: Bill not found in database for billNo: " + billNo);
-                        json.append("\"error\":\"Bill not found in database\"");
-                    }
-                }
+            BillView.CustomerSnapshot customer = bill.getCustomer();
+            if (customer.isFound()) {
+                json.writeStringField("customerName", orEmpty(customer.getName()));
+                json.writeStringField("customerAccount", orEmpty(customer.getAccountNumber()));
+                json.writeStringField("customerPhone", orEmpty(customer.getPhone()));
+                json.writeStringField("customerAddress", orEmpty(customer.getAddress()));
+            } else {
+                json.writeStringField("customerName", "Customer Not Found");
+                json.writeStringField("customerAccount", orEmpty(customer.getAccountNumber()));
+                json.writeStringField("customerPhone", "");
+                json.writeStringField("customerAddress", "");
             }
-        } catch (SQLException e) {
-            System.err.println("DEBUG: SQL Error in getBillDetails for bill '" + billNo + "': " + e.getMessage());
-            e.printStackTrace();
-            json.append("\"error\":\"Database error: ").append(escapeJson(e.getMessage())).append("\"");
+            
+            json.writeArrayFieldStart("items");
+            for (BillView.Line line : bill.getLines()) {
+                json.writeStartObject();
+                json.writeStringField("sku", orEmpty(line.getSku()));
+                json.writeStringField("name", orEmpty(line.getName()));
+                json.writeNumberField("qty", line.getQty());
+                json.writeNumberField("unitPrice", line.getUnitPrice());
+                json.writeNumberField("lineTotal", line.getLineTotal());
+                json.writeEndObject();
+            }
+            json.writeEndArray();
+        } else {
+            json.writeStringField("error", "Bill not found in database");
+        }
+        json.writeEndObject();
+    }
+    
+    /**
+     * Close any objects or arrays left open by a failure, returning to the top-level value
+     */
+    private void closeNestedContexts(JsonGenerator json) throws IOException {
+        while (json.getOutputContext().getParent() != null && !json.getOutputContext().getParent().inRoot()) {
+            if (json.getOutputContext().inArray()) {
+                json.writeEndArray();
+            } else {
+                json.writeEndObject();
+            }
+        }
+    }
+    
+    /**
+     * End the top-level object or array, if one is still open
+     */
+    private void endTopLevel(JsonGenerator json) throws IOException {
+        if (json.getOutputContext().inArray()) {
+            json.writeEndArray();
+        } else if (json.getOutputContext().inObject()) {
+            json.writeEndObject();
         }
-        
-        json.append("}");
-        String result = json.toString();
-        System.out.println("DEBUG: Final JSON response: " + result);
-        return result;
     }
     
-    private String escapeJson(String str) {
-        if (str == null) return "";
-        return str.replace("\\", "\\\\")
-                  .replace("\"", "\\\"")
-                  .replace("\n", "\\n")
-                  .replace("\r", "\\r")
-                  .replace("\t", "\\t");
+    private static String orEmpty(String value) {
+        return value != null ? value : "";
     }
 }
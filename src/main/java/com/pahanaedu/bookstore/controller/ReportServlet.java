@@ -0,0 +1,131 @@
+package com.pahanaedu.bookstore.controller;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.pahanaedu.bookstore.model.CustomerSalesSummary;
+import com.pahanaedu.bookstore.model.ItemSalesSummary;
+import com.pahanaedu.bookstore.service.SalesSummaryService;
+import com.pahanaedu.bookstore.util.JsonUtil;
+
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServlet;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.List;
+
+/**
+ * Sales reports over history, read from the daily summary tables:
+ * GET /api/reports/items and /api/reports/customers with from=yyyy-MM-dd, to=yyyy-MM-dd
+ * (both inclusive) and an optional limit. summarizedThroughBillId tells how far the
+ * summaries are complete; bills created since are picked up by the next aggregation run.
+ */
+public class ReportServlet extends HttpServlet {
+    
+    private SalesSummaryService salesSummaryService;
+    
+    @Override
+    public void init() throws ServletException {
+        super.init();
+        this.salesSummaryService = new SalesSummaryService();
+    }
+    
+    @Override
+    protected void doGet(HttpServletRequest request, HttpServletResponse response)
+            throws ServletException, IOException {
+        
+        String report = request.getPathInfo();
+        if (!"/items".equals(report) && !"/customers".equals(report)) {
+            writeError(response, HttpServletResponse.SC_NOT_FOUND, "Unknown report");
+            return;
+        }
+        
+        LocalDate fromDate;
+        LocalDate toDate;
+        Integer limit;
+        try {
+            fromDate = parseDate(request.getParameter("from"));
+            toDate = parseDate(request.getParameter("to"));
+            limit = parseLimit(request.getParameter("limit"));
+        } catch (DateTimeParseException | NumberFormatException e) {
+            writeError(response, HttpServletResponse.SC_BAD_REQUEST,
+                    "from and to must be dates in yyyy-MM-dd format and limit a number");
+            return;
+        }
+        
+        // Run the queries before writing so a failure can still be answered with an error status
+        List<ItemSalesSummary> items = null;
+        List<CustomerSalesSummary> customers = null;
+        int summarizedThrough;
+        try {
+            if ("/items".equals(report)) {
+                items = salesSummaryService.getItemSales(fromDate, toDate, limit);
+            } else {
+                customers = salesSummaryService.getCustomerSales(fromDate, toDate, limit);
+            }
+            summarizedThrough = salesSummaryService.getSummarizedThroughBillId();
+        } catch (IllegalArgumentException e) {
+            writeError(response, HttpServletResponse.SC_BAD_REQUEST, e.getMessage());
+            return;
+        } catch (RuntimeException e) {
+            System.err.println("ERROR ReportServlet: report " + report + " " + fromDate + ".." + toDate + " failed: " + e.getMessage());
+            writeError(response, HttpServletResponse.SC_INTERNAL_SERVER_ERROR, "Error loading report");
+            return;
+        }
+        
+        response.setContentType("application/json");
+        response.setCharacterEncoding("UTF-8");
+        response.setHeader("Cache-Control", "no-store");
+        
+        try (JsonGenerator json = JsonUtil.createGenerator(response.getOutputStream())) {
+            json.writeStartObject();
+            json.writeStringField("from", fromDate.toString());
+            json.writeStringField("to", toDate.toString());
+            json.writeNumberField("summarizedThroughBillId", summarizedThrough);
+            json.writeArrayFieldStart("data");
+            if (items != null) {
+                for (ItemSalesSummary item : items) {
+                    json.writeStartObject();
+                    json.writeNumberField("itemId", item.getItemId());
+                    json.writeStringField("sku", item.getSku());
+                    json.writeStringField("name", item.getName());
+                    json.writeNumberField("qty", item.getQty());
+                    json.writeNumberField("revenue", item.getRevenue());
+                    json.writeNumberField("lineCount", item.getLineCount());
+                    json.writeEndObject();
+                }
+            } else {
+                for (CustomerSalesSummary customer : customers) {
+                    json.writeStartObject();
+                    json.writeStringField("accountNumber", customer.getAccountNumber());
+                    json.writeStringField("name", customer.getName());
+                    json.writeNumberField("billCount", customer.getBillCount());
+                    json.writeNumberField("revenue", customer.getRevenue());
+                    json.writeEndObject();
+                }
+            }
+            json.writeEndArray();
+            json.writeEndObject();
+        }
+    }
+    
+    private LocalDate parseDate(String value) {
+        return value == null || value.isBlank() ? null : LocalDate.parse(value.trim());
+    }
+    
+    private Integer parseLimit(String value) {
+        return value == null || value.isBlank() ? null : Integer.valueOf(value.trim());
+    }
+    
+    private void writeError(HttpServletResponse response, int status, String message) throws IOException {
+        response.setStatus(status);
+        response.setContentType("application/json");
+        response.setCharacterEncoding("UTF-8");
+        try (JsonGenerator json = JsonUtil.createGenerator(response.getOutputStream())) {
+            json.writeStartObject();
+            json.writeStringField("error", message);
+            json.writeEndObject();
+        }
+    }
+}
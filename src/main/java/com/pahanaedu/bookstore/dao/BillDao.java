@@ -1,7 +1,13 @@
 package com.pahanaedu.bookstore.dao;
 
 import com.pahanaedu.bookstore.model.Bill;
+import com.pahanaedu.bookstore.model.BillExportRow;
 import com.pahanaedu.bookstore.model.BillItem;
+import com.pahanaedu.bookstore.model.BillView;
+import com.pahanaedu.bookstore.util.PageCursor;
+import java.io.IOException;
+import java.sql.Connection;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
@@ -13,6 +19,14 @@ public interface BillDao {
      */
     Bill save(Bill bill);
     
+    /**
+     * Save a new bill on a caller-managed connection (joins the caller's transaction)
+     * @param conn the connection to use; it is not closed
+     * @param bill the bill to save
+     * @return the saved bill with generated ID
+     */
+    Bill save(Connection conn, Bill bill);
+    
     /**
      * Find a bill by ID
      * @param id the bill ID
@@ -27,6 +41,13 @@ public interface BillDao {
      */
     Optional<Bill> findByBillNo(String billNo);
     
+    /**
+     * Load a bill with its customer and lines in a single joined query
+     * @param billNo the bill number
+     * @return Optional containing the bill view if found
+     */
+    Optional<BillView> findBillWithItems(String billNo);
+    
     /**
      * Find bills by customer account number
      * @param customerAccountNumber the customer account number (e.g., ACC000005)
@@ -41,14 +62,52 @@ public interface BillDao {
     List<Bill> findAll();
     
     /**
-     * Update an existing bill
+     * Get one keyset page of bills, newest first by (bill_date, id)
+     * @param cursor position to seek from, or null for the first page
+     * @param limit maximum number of rows to return
+     * @return bills in scan order (oldest first for a backward cursor)
+     */
+    List<Bill> findPage(PageCursor cursor, int limit);
+    
+    /**
+     * Stream every bill line with its bill header for a date range, in bill date order.
+     * Rows are read from a forward-only result set and handed over one at a time, so
+     * memory use does not grow with the size of the range.
+     * @param from start of the range (inclusive)
+     * @param to end of the range (exclusive)
+     * @param handler receives each row as it is read
+     * @throws IOException if the handler fails to write a row
+     */
+    void streamBillLines(LocalDateTime from, LocalDateTime to, ExportRowHandler handler) throws IOException;
+    
+    /**
+     * Stream every bill line with its bill header for a range of bill IDs, in ID order
+     * @param afterId bills with a greater ID are included
+     * @param upToId bills with this ID or less are included
+     * @param handler receives each row as it is read
+     * @throws IOException if the handler fails
+     */
+    void streamBillLinesById(int afterId, int upToId, ExportRowHandler handler) throws IOException;
+    
+    /**
+     * Find the newest bill that is old enough for every bill with a lower ID to have
+     * committed, by the database clock
+     * @param lagSeconds bills created less than this many seconds ago are not considered
+     * @return the bill ID, or 0 if there is none
+     */
+    int findLastSettledBillId(int lagSeconds);
+    
+    /**
+     * Update an existing bill. Finalized bills are cached by bill number in
+     * BillingService, so application code should go through BillingService.updateBill.
      * @param bill the bill to update
      * @return the updated bill
      */
     Bill update(Bill bill);
     
     /**
-     * Delete a bill by ID
+     * Delete a bill by ID. Application code should go through BillingService.deleteBill
+     * so the cached bill is dropped.
      * @param id the bill ID to delete
      */
     void deleteById(int id);
@@ -60,6 +119,13 @@ public interface BillDao {
      */
     BillItem saveBillItem(BillItem billItem);
     
+    /**
+     * Save all items of a bill in a single JDBC batch on a caller-managed connection
+     * @param conn the connection to use; it is not closed
+     * @param billItems the bill items to save; generated IDs are set on each item
+     */
+    void saveBillItems(Connection conn, List<BillItem> billItems);
+    
     /**
      * Find bill items by bill ID
      * @param billId the bill ID
@@ -74,8 +140,17 @@ public interface BillDao {
     void deleteBillItemsByBillId(int billId);
     
     /**
-     * Generate next bill number
+     * Generate next bill number from the block-reserving allocator.
+     * Does not touch the bills table and never returns the same number twice.
      * @return the next bill number
      */
     String generateBillNumber();
+    
+    /**
+     * Receives rows from {@link #streamBillLines}
+     */
+    @FunctionalInterface
+    interface ExportRowHandler {
+        void handle(BillExportRow row) throws IOException;
+    }
 }
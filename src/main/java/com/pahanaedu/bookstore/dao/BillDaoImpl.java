@@ -1,13 +1,20 @@
 package com.pahanaedu.bookstore.dao;
 
 import com.pahanaedu.bookstore.model.Bill;
+import com.pahanaedu.bookstore.model.BillExportRow;
 import com.pahanaedu.bookstore.model.BillItem;
+import com.pahanaedu.bookstore.model.BillView;
 import com.pahanaedu.bookstore.model.Customer;
 import com.pahanaedu.bookstore.model.Item;
 import com.pahanaedu.bookstore.util.DataSourceSingleton;
+import com.pahanaedu.bookstore.util.PageCursor;
 
 import javax.sql.DataSource;
+import java.io.IOException;
+import java.math.BigDecimal;
 import java.sql.*;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
@@ -22,10 +29,18 @@ public class BillDaoImpl implements BillDao {
     
     @Override
     public Bill save(Bill bill) {
+        try (Connection conn = dataSource.getConnection()) {
+            return save(conn, bill);
+        } catch (SQLException e) {
+            throw new RuntimeException("Error saving bill: " + bill.getBillNo(), e);
+        }
+    }
+    
+    @Override
+    public Bill save(Connection conn, Bill bill) {
         String sql = "INSERT INTO bills (bill_no, customer_id, bill_date, total) VALUES (?, ?, ?, ?)";
         
-        try (Connection conn = dataSource.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
+        try (PreparedStatement stmt = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
             
             stmt.setString(1, bill.getBillNo());
             stmt.setString(2, bill.getCustomerId());  // Now stores account number
@@ -105,6 +120,62 @@ public class BillDaoImpl implements BillDao {
         return Optional.empty();
     }
     
+    @Override
+    public Optional<BillView> findBillWithItems(String billNo) {
+        // One row per line; the bill and customer columns repeat on each
+        String sql = "SELECT b.id, b.bill_no, b.customer_id, b.bill_date, b.total, " +
+                    "c.account_number, c.name as customer_name, c.address, c.phone, " +
+                    "bi.id as line_id, bi.item_id, bi.qty, bi.unit_price, bi.line_total, i.sku, i.name as item_name " +
+                    "FROM bills b " +
+                    "LEFT JOIN customers c ON b.customer_id = c.account_number " +
+                    "LEFT JOIN bill_items bi ON bi.bill_id = b.id " +
+                    "LEFT JOIN items i ON bi.item_id = i.id " +
+                    "WHERE b.bill_no = ? " +
+                    "ORDER BY bi.id";
+        
+        try (Connection conn = dataSource.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+            
+            stmt.setString(1, billNo);
+            
+            try (ResultSet rs = stmt.executeQuery()) {
+                if (!rs.next()) {
+                    return Optional.empty();
+                }
+                
+                int id = rs.getInt("id");
+                String number = rs.getString("bill_no");
+                Timestamp billDate = rs.getTimestamp("bill_date");
+                BigDecimal total = rs.getBigDecimal("total");
+                
+                String accountNumber = rs.getString("account_number");
+                BillView.CustomerSnapshot customer = accountNumber != null
+                        ? new BillView.CustomerSnapshot(accountNumber, rs.getString("customer_name"),
+                                rs.getString("address"), rs.getString("phone"), true)
+                        : new BillView.CustomerSnapshot(rs.getString("customer_id"), null, null, null, false);
+                
+                List<BillView.Line> lines = new ArrayList<>();
+                do {
+                    rs.getInt("line_id");
+                    if (!rs.wasNull()) {
+                        lines.add(new BillView.Line(
+                                rs.getInt("item_id"),
+                                rs.getString("sku"),
+                                rs.getString("item_name"),
+                                rs.getInt("qty"),
+                                rs.getBigDecimal("unit_price"),
+                                rs.getBigDecimal("line_total")));
+                    }
+                } while (rs.next());
+                
+                return Optional.of(new BillView(id, number,
+                        billDate != null ? billDate.toLocalDateTime() : null, total, customer, lines));
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException("Error finding bill with items: " + billNo, e);
+        }
+    }
+    
     @Override
     public List<Bill> findByCustomerId(String customerAccountNumber) {
         List<Bill> bills = new ArrayList<>();
@@ -155,6 +226,129 @@ public class BillDaoImpl implements BillDao {
         return bills;
     }
     
+    /**
+     * Keyset page ordered newest first by (bill_date, id). Rows come back in scan order:
+     * newest first for a forward cursor, oldest first for a backward one.
+     */
+    @Override
+    public List<Bill> findPage(PageCursor cursor, int limit) {
+        List<Bill> bills = new ArrayList<>();
+        boolean backward = cursor != null && cursor.isBackward();
+        String op = backward ? ">" : "<";
+        String sql = "SELECT b.id, b.bill_no, b.customer_id, b.bill_date, b.total, b.created_at, " +
+                    "c.account_number, c.name as customer_name, c.address, c.phone " +
+                    "FROM bills b " +
+                    "LEFT JOIN customers c ON b.customer_id = c.account_number " +
+                    (cursor != null ? "WHERE b.bill_date " + op + " ? OR (b.bill_date = ? AND b.id " + op + " ?) " : "") +
+                    (backward ? "ORDER BY b.bill_date, b.id " : "ORDER BY b.bill_date DESC, b.id DESC ") +
+                    "LIMIT ?";
+        
+        try (Connection conn = dataSource.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+            
+            int index = 1;
+            if (cursor != null) {
+                Timestamp billDate = parseCursorDate(cursor.get(0));
+                stmt.setTimestamp(index++, billDate);
+                stmt.setTimestamp(index++, billDate);
+                stmt.setInt(index++, cursor.getInt(1));
+            }
+            stmt.setInt(index, limit);
+            
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    bills.add(mapResultSetToBill(rs));
+                }
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException("Error finding bills page", e);
+        }
+        
+        return bills;
+    }
+    
+    private Timestamp parseCursorDate(String value) {
+        try {
+            return Timestamp.valueOf(LocalDateTime.parse(value));
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("Invalid page cursor");
+        }
+    }
+    
+    @Override
+    public void streamBillLines(LocalDateTime from, LocalDateTime to, ExportRowHandler handler) throws IOException {
+        streamBillLines("WHERE b.bill_date >= ? AND b.bill_date < ? ORDER BY b.bill_date, b.id, bi.id",
+                stmt -> {
+                    stmt.setTimestamp(1, Timestamp.valueOf(from));
+                    stmt.setTimestamp(2, Timestamp.valueOf(to));
+                }, handler);
+    }
+    
+    @Override
+    public void streamBillLinesById(int afterId, int upToId, ExportRowHandler handler) throws IOException {
+        streamBillLines("WHERE b.id > ? AND b.id <= ? ORDER BY b.id, bi.id",
+                stmt -> {
+                    stmt.setInt(1, afterId);
+                    stmt.setInt(2, upToId);
+                }, handler);
+    }
+    
+    @Override
+    public int findLastSettledBillId(int lagSeconds) {
+        String sql = "SELECT COALESCE(MAX(id), 0) FROM bills WHERE created_at < NOW() - INTERVAL ? SECOND";
+        
+        try (Connection conn = dataSource.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+            
+            stmt.setInt(1, Math.max(0, lagSeconds));
+            try (ResultSet rs = stmt.executeQuery()) {
+                return rs.next() ? rs.getInt(1) : 0;
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException("Error finding last settled bill", e);
+        }
+    }
+    
+    private void streamBillLines(String whereAndOrder, ParameterSetter parameters, ExportRowHandler handler)
+            throws IOException {
+        String sql = "SELECT b.id, b.bill_no, b.bill_date, b.customer_id, b.total, c.name as customer_name, " +
+                    "i.sku, i.name as item_name, bi.qty, bi.unit_price, bi.line_total " +
+                    "FROM bills b " +
+                    "JOIN bill_items bi ON bi.bill_id = b.id " +
+                    "LEFT JOIN items i ON bi.item_id = i.id " +
+                    "LEFT JOIN customers c ON b.customer_id = c.account_number " +
+                    whereAndOrder;
+        
+        try (Connection conn = dataSource.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+            
+            // Connector/J streams a forward-only, read-only result row by row only with this fetch size;
+            // any other value buffers the whole result set in memory first
+            stmt.setFetchSize(Integer.MIN_VALUE);
+            parameters.set(stmt);
+            
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    Timestamp billDate = rs.getTimestamp("bill_date");
+                    handler.handle(new BillExportRow(
+                            rs.getInt("id"),
+                            rs.getString("bill_no"),
+                            billDate != null ? billDate.toLocalDateTime() : null,
+                            rs.getString("customer_id"),
+                            rs.getString("customer_name"),
+                            rs.getBigDecimal("total"),
+                            rs.getString("sku"),
+                            rs.getString("item_name"),
+                            rs.getInt("qty"),
+                            rs.getBigDecimal("unit_price"),
+                            rs.getBigDecimal("line_total")));
+                }
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException("Error exporting bills", e);
+        }
+    }
+    
     @Override
     public Bill update(Bill bill) {
         String sql = "UPDATE bills SET bill_no = ?, customer_id = ?, bill_date = ?, total = ? WHERE id = ?";
@@ -225,6 +419,43 @@ public class BillDaoImpl implements BillDao {
         }
     }
     
+    @Override
+    public void saveBillItems(Connection conn, List<BillItem> billItems) {
+        if (billItems == null || billItems.isEmpty()) {
+            return;
+        }
+        
+        String sql = "INSERT INTO bill_items (bill_id, item_id, qty, unit_price, line_total) VALUES (?, ?, ?, ?, ?)";
+        
+        try (PreparedStatement stmt = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
+            
+            for (BillItem billItem : billItems) {
+                stmt.setInt(1, billItem.getBillId());
+                stmt.setInt(2, billItem.getItemId());
+                stmt.setInt(3, billItem.getQty());
+                stmt.setBigDecimal(4, billItem.getUnitPrice());
+                stmt.setBigDecimal(5, billItem.getLineTotal());
+                stmt.addBatch();
+            }
+            
+            // With rewriteBatchedStatements the driver sends this as one multi-row INSERT
+            int[] results = stmt.executeBatch();
+            if (results.length != billItems.size()) {
+                throw new SQLException("Creating bill items failed, expected " + billItems.size() +
+                                       " rows but batch reported " + results.length + ".");
+            }
+            
+            try (ResultSet generatedKeys = stmt.getGeneratedKeys()) {
+                int index = 0;
+                while (generatedKeys.next() && index < billItems.size()) {
+                    billItems.get(index++).setId(generatedKeys.getInt(1));
+                }
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException("Error saving bill items for bill: " + billItems.get(0).getBillId(), e);
+        }
+    }
+    
     @Override
     public List<BillItem> findBillItemsByBillId(int billId) {
         List<BillItem> billItems = new ArrayList<>();
@@ -268,22 +499,7 @@ public class BillDaoImpl implements BillDao {
     
     @Override
     public String generateBillNumber() {
-        String sql = "SELECT COALESCE(MAX(CAST(SUBSTRING(bill_no, 6) AS UNSIGNED)), 0) + 1 as next_number " +
-                    "FROM bills WHERE bill_no LIKE 'BILL-%'";
-        
-        try (Connection conn = dataSource.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql);
-             ResultSet rs = stmt.executeQuery()) {
-            
-            if (rs.next()) {
-                int nextNumber = rs.getInt("next_number");
-                return String.format("BILL-%06d", nextNumber);
-            }
-        } catch (SQLException e) {
-            throw new RuntimeException("Error generating bill number", e);
-        }
-        
-        return "BILL-000001"; // Fallback
+        return SequenceAllocator.billNumbers().next();
     }
     
     private Bill mapResultSetToBill(ResultSet rs) throws SQLException {
@@ -341,4 +557,9 @@ public class BillDaoImpl implements BillDao {
         
         return billItem;
     }
+    
+    @FunctionalInterface
+    private interface ParameterSetter {
+        void set(PreparedStatement stmt) throws SQLException;
+    }
 }
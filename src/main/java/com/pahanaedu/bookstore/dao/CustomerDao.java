@@ -1,6 +1,8 @@
 package com.pahanaedu.bookstore.dao;
 
 import com.pahanaedu.bookstore.model.Customer;
+import com.pahanaedu.bookstore.util.PageCursor;
+import java.sql.Connection;
 import java.util.List;
 import java.util.Optional;
 
@@ -12,6 +14,23 @@ public interface CustomerDao {
      */
     Customer save(Customer customer);
     
+    /**
+     * Reserve account numbers for customers that will be saved with saveBatch.
+     * Call this before taking the batch connection: a fresh block is reserved on a
+     * connection of its own.
+     * @param count how many numbers to reserve
+     * @return the account numbers, in order
+     */
+    String[] generateAccountNumbers(int count);
+    
+    /**
+     * Save new customers in a single JDBC batch on a caller-managed connection.
+     * Each customer must already carry an account number from generateAccountNumbers.
+     * @param conn the connection to use; it is not closed
+     * @param customers the customers to save; generated IDs are set on each
+     */
+    void saveBatch(Connection conn, List<Customer> customers);
+    
     /**
      * Find a customer by ID
      * @param id the customer ID
@@ -26,6 +45,14 @@ public interface CustomerDao {
      */
     Optional<Customer> findByAccountNumber(String accountNumber);
     
+    /**
+     * Find a customer by account number on a caller-managed connection
+     * @param conn the connection to use; it is not closed
+     * @param accountNumber the account number
+     * @return Optional containing the customer if found
+     */
+    Optional<Customer> findByAccountNumber(Connection conn, String accountNumber);
+    
     /**
      * Search customers by query (account number or name)
      * @param query the search query
@@ -39,6 +66,14 @@ public interface CustomerDao {
      */
     List<Customer> findAll();
     
+    /**
+     * Get one keyset page of customers ordered by (name, id)
+     * @param cursor position to seek from, or null for the first page
+     * @param limit maximum number of rows to return
+     * @return customers in scan order (descending for a backward cursor)
+     */
+    List<Customer> findPage(PageCursor cursor, int limit);
+    
     /**
      * Update an existing customer
      * @param customer the customer to update
@@ -2,6 +2,7 @@ package com.pahanaedu.bookstore.dao;
 
 import com.pahanaedu.bookstore.model.Customer;
 import com.pahanaedu.bookstore.util.DataSourceSingleton;
+import com.pahanaedu.bookstore.util.PageCursor;
 
 import javax.sql.DataSource;
 import java.sql.*;
@@ -19,14 +20,18 @@ public class CustomerDaoImpl implements CustomerDao {
     
     @Override
     public Customer save(Customer customer) {
-        String sql = "INSERT INTO customers (name, address, phone) VALUES (?, ?, ?)";
+        // The account number is allocated up front and written by the INSERT itself, so the
+        // row never exists without one and saving takes a single statement
+        String accountNumber = SequenceAllocator.accountNumbers().next();
+        String sql = "INSERT INTO customers (account_number, name, address, phone) VALUES (?, ?, ?, ?)";
         
         try (Connection conn = dataSource.getConnection();
              PreparedStatement stmt = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
             
-            stmt.setString(1, customer.getName());
-            stmt.setString(2, customer.getAddress());
-            stmt.setString(3, customer.getPhone());
+            stmt.setString(1, accountNumber);
+            stmt.setString(2, customer.getName());
+            stmt.setString(3, customer.getAddress());
+            stmt.setString(4, customer.getPhone());
             
             int affectedRows = stmt.executeUpdate();
             if (affectedRows == 0) {
@@ -36,12 +41,7 @@ public class CustomerDaoImpl implements CustomerDao {
             try (ResultSet generatedKeys = stmt.getGeneratedKeys()) {
                 if (generatedKeys.next()) {
                     customer.setId(generatedKeys.getInt(1));
-                    // Generate account number
-                    String accountNumber = "ACC" + String.format("%06d", customer.getId());
                     customer.setAccountNumber(accountNumber);
-                    
-                    // Update with account number
-                    updateAccountNumber(customer.getId(), accountNumber);
                 } else {
                     throw new SQLException("Creating customer failed, no ID obtained.");
                 }
@@ -53,15 +53,50 @@ public class CustomerDaoImpl implements CustomerDao {
         }
     }
     
-    private void updateAccountNumber(int customerId, String accountNumber) throws SQLException {
-        String sql = "UPDATE customers SET account_number = ? WHERE id = ?";
+    @Override
+    public String[] generateAccountNumbers(int count) {
+        return SequenceAllocator.accountNumbers().next(count);
+    }
+    
+    @Override
+    public void saveBatch(Connection conn, List<Customer> customers) {
+        if (customers == null || customers.isEmpty()) {
+            return;
+        }
+        for (Customer customer : customers) {
+            if (customer.getAccountNumber() == null) {
+                throw new IllegalArgumentException("Account number not assigned for customer: " + customer.getName());
+            }
+        }
         
-        try (Connection conn = dataSource.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
+        String sql = "INSERT INTO customers (account_number, name, address, phone) VALUES (?, ?, ?, ?)";
+        
+        try (PreparedStatement stmt = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
             
-            stmt.setString(1, accountNumber);
-            stmt.setInt(2, customerId);
-            stmt.executeUpdate();
+            for (int i = 0; i < customers.size(); i++) {
+                Customer customer = customers.get(i);
+                stmt.setString(1, customer.getAccountNumber());
+                stmt.setString(2, customer.getName());
+                stmt.setString(3, customer.getAddress());
+                stmt.setString(4, customer.getPhone());
+                stmt.addBatch();
+            }
+            
+            // With rewriteBatchedStatements the driver sends this as one multi-row INSERT
+            int[] results = stmt.executeBatch();
+            if (results.length != customers.size()) {
+                throw new SQLException("Creating customers failed, expected " + customers.size() +
+                                       " rows but batch reported " + results.length + ".");
+            }
+            
+            try (ResultSet generatedKeys = stmt.getGeneratedKeys()) {
+                int index = 0;
+                while (generatedKeys.next() && index < customers.size()) {
+                    customers.get(index++).setId(generatedKeys.getInt(1));
+                }
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException("Error saving customers starting at: " + customers.get(0).getName(), e);
         }
     }
     
@@ -88,10 +123,18 @@ public class CustomerDaoImpl implements CustomerDao {
     
     @Override
     public Optional<Customer> findByAccountNumber(String accountNumber) {
+        try (Connection conn = dataSource.getConnection()) {
+            return findByAccountNumber(conn, accountNumber);
+        } catch (SQLException e) {
+            throw new RuntimeException("Error finding customer by account number: " + accountNumber, e);
+        }
+    }
+    
+    @Override
+    public Optional<Customer> findByAccountNumber(Connection conn, String accountNumber) {
         String sql = "SELECT id, account_number, name, address, phone, created_at, updated_at FROM customers WHERE account_number = ?";
         
-        try (Connection conn = dataSource.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
             
             stmt.setString(1, accountNumber);
             
@@ -175,6 +218,43 @@ public class CustomerDaoImpl implements CustomerDao {
         return customers;
     }
     
+    /**
+     * Keyset page ordered by (name, id). Rows come back in scan order: ascending for a
+     * forward cursor, descending for a backward one.
+     */
+    @Override
+    public List<Customer> findPage(PageCursor cursor, int limit) {
+        List<Customer> customers = new ArrayList<>();
+        boolean backward = cursor != null && cursor.isBackward();
+        String op = backward ? "<" : ">";
+        String sql = "SELECT id, account_number, name, address, phone, created_at, updated_at FROM customers " +
+                    (cursor != null ? "WHERE name " + op + " ? OR (name = ? AND id " + op + " ?) " : "") +
+                    (backward ? "ORDER BY name DESC, id DESC " : "ORDER BY name, id ") +
+                    "LIMIT ?";
+        
+        try (Connection conn = dataSource.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+            
+            int index = 1;
+            if (cursor != null) {
+                stmt.setString(index++, cursor.get(0));
+                stmt.setString(index++, cursor.get(0));
+                stmt.setInt(index++, cursor.getInt(1));
+            }
+            stmt.setInt(index, limit);
+            
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    customers.add(mapResultSetToCustomer(rs));
+                }
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException("Error finding customers page", e);
+        }
+        
+        return customers;
+    }
+    
     @Override
     public Customer update(Customer customer) {
         String sql = "UPDATE customers SET name = ?, address = ?, phone = ? WHERE id = ?";
@@ -0,0 +1,19 @@
+package com.pahanaedu.bookstore.dao;
+
+public interface DataVersionDao {
+    
+    /**
+     * Record a committed write to a kind of data. Call it after the write commits, so a
+     * node that sees the new version also sees the write.
+     * @param name the kind of data (e.g., ITEMS, CUSTOMERS)
+     * @return the new version
+     */
+    long increment(String name);
+    
+    /**
+     * Get the current version of a kind of data
+     * @param name the kind of data
+     * @return the version, or 0 if it has never been written
+     */
+    long get(String name);
+}
@@ -0,0 +1,74 @@
+package com.pahanaedu.bookstore.dao;
+
+import com.pahanaedu.bookstore.util.DataSourceSingleton;
+
+import javax.sql.DataSource;
+import java.sql.*;
+
+/**
+ * Change counters in the data_version table, one row per kind of data, shared by every node
+ * on the database. Nodes compare them with the version their in-memory copies were loaded
+ * at. The table is created on first use.
+ */
+public class DataVersionDaoImpl implements DataVersionDao {
+    
+    private static volatile boolean tableReady;
+    
+    private final DataSource dataSource;
+    
+    public DataVersionDaoImpl() {
+        this.dataSource = DataSourceSingleton.getInstance();
+    }
+    
+    @Override
+    public long increment(String name) {
+        String sql = "INSERT INTO data_version (name, version) VALUES (?, LAST_INSERT_ID(1)) " +
+                    "ON DUPLICATE KEY UPDATE version = LAST_INSERT_ID(version + 1)";
+        
+        try (Connection conn = dataSource.getConnection()) {
+            ensureTable(conn);
+            try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+                stmt.setString(1, name);
+                stmt.executeUpdate();
+            }
+            
+            try (Statement stmt = conn.createStatement();
+                 ResultSet rs = stmt.executeQuery("SELECT LAST_INSERT_ID()")) {
+                if (!rs.next()) {
+                    throw new SQLException("Incrementing " + name + " version failed, no value returned.");
+                }
+                return rs.getLong(1);
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException("Error incrementing data version: " + name, e);
+        }
+    }
+    
+    @Override
+    public long get(String name) {
+        try (Connection conn = dataSource.getConnection()) {
+            ensureTable(conn);
+            try (PreparedStatement stmt = conn.prepareStatement("SELECT version FROM data_version WHERE name = ?")) {
+                stmt.setString(1, name);
+                try (ResultSet rs = stmt.executeQuery()) {
+                    return rs.next() ? rs.getLong(1) : 0;
+                }
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException("Error reading data version: " + name, e);
+        }
+    }
+    
+    private static void ensureTable(Connection conn) throws SQLException {
+        if (tableReady) {
+            return;
+        }
+        
+        try (Statement stmt = conn.createStatement()) {
+            stmt.executeUpdate("CREATE TABLE IF NOT EXISTS data_version (" +
+                              "name VARCHAR(32) PRIMARY KEY, " +
+                              "version BIGINT NOT NULL)");
+        }
+        tableReady = true;
+    }
+}
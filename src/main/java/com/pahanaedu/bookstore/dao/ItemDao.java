@@ -1,6 +1,9 @@
 package com.pahanaedu.bookstore.dao;
 
 import com.pahanaedu.bookstore.model.Item;
+import com.pahanaedu.bookstore.util.PageCursor;
+import java.sql.Connection;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -19,6 +22,29 @@ public interface ItemDao {
      */
     Optional<Item> findById(int id);
     
+    /**
+     * Find an item by ID on a caller-managed connection
+     * @param conn the connection to use; it is not closed
+     * @param id the item ID
+     * @return Optional containing the item if found
+     */
+    Optional<Item> findById(Connection conn, int id);
+    
+    /**
+     * Find all items with the given IDs in a single query
+     * @param ids the item IDs; duplicates are ignored
+     * @return list of the items found (missing IDs are simply absent)
+     */
+    List<Item> findByIds(Collection<Integer> ids);
+    
+    /**
+     * Find all items with the given IDs in a single query on a caller-managed connection
+     * @param conn the connection to use; it is not closed
+     * @param ids the item IDs; duplicates are ignored
+     * @return list of the items found (missing IDs are simply absent)
+     */
+    List<Item> findByIds(Connection conn, Collection<Integer> ids);
+    
     /**
      * Find an item by SKU
      * @param sku the item SKU
@@ -45,6 +71,23 @@ public interface ItemDao {
      */
     List<Item> findAll();
     
+    /**
+     * Get one keyset page of items ordered by (name, id)
+     * @param cursor position to seek from, or null for the first page
+     * @param limit maximum number of rows to return
+     * @param activeOnly whether to leave out inactive items
+     * @return items in scan order (descending for a backward cursor)
+     */
+    List<Item> findPage(PageCursor cursor, int limit, boolean activeOnly);
+    
+    /**
+     * Insert or update items by SKU in a single JDBC batch on a caller-managed connection.
+     * Existing SKUs get the row's name, unit price and active flag.
+     * @param conn the connection to use; it is not closed
+     * @param items the items to write
+     */
+    void upsertBatch(Connection conn, List<Item> items);
+    
     /**
      * Update an existing item
      * @param item the item to update
@@ -2,10 +2,13 @@ package com.pahanaedu.bookstore.dao;
 
 import com.pahanaedu.bookstore.model.Item;
 import com.pahanaedu.bookstore.util.DataSourceSingleton;
+import com.pahanaedu.bookstore.util.PageCursor;
 
 import javax.sql.DataSource;
 import java.sql.*;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Optional;
 
@@ -50,10 +53,18 @@ public class ItemDaoImpl implements ItemDao {
     
     @Override
     public Optional<Item> findById(int id) {
+        try (Connection conn = dataSource.getConnection()) {
+            return findById(conn, id);
+        } catch (SQLException e) {
+            throw new RuntimeException("Error finding item by ID: " + id, e);
+        }
+    }
+    
+    @Override
+    public Optional<Item> findById(Connection conn, int id) {
         String sql = "SELECT id, sku, name, unit_price, active, created_at, updated_at FROM items WHERE id = ?";
         
-        try (Connection conn = dataSource.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
             
             stmt.setInt(1, id);
             
@@ -69,6 +80,52 @@ public class ItemDaoImpl implements ItemDao {
         return Optional.empty();
     }
     
+    @Override
+    public List<Item> findByIds(Collection<Integer> ids) {
+        if (ids == null || ids.isEmpty()) {
+            return new ArrayList<>();
+        }
+        
+        try (Connection conn = dataSource.getConnection()) {
+            return findByIds(conn, ids);
+        } catch (SQLException e) {
+            throw new RuntimeException("Error finding items by IDs: " + ids, e);
+        }
+    }
+    
+    @Override
+    public List<Item> findByIds(Connection conn, Collection<Integer> ids) {
+        List<Item> items = new ArrayList<>();
+        if (ids == null || ids.isEmpty()) {
+            return items;
+        }
+        
+        List<Integer> distinctIds = new ArrayList<>(new LinkedHashSet<>(ids));
+        StringBuilder sql = new StringBuilder(
+                "SELECT id, sku, name, unit_price, active, created_at, updated_at FROM items WHERE id IN (");
+        for (int i = 0; i < distinctIds.size(); i++) {
+            sql.append(i == 0 ? "?" : ", ?");
+        }
+        sql.append(")");
+        
+        try (PreparedStatement stmt = conn.prepareStatement(sql.toString())) {
+            
+            for (int i = 0; i < distinctIds.size(); i++) {
+                stmt.setInt(i + 1, distinctIds.get(i));
+            }
+            
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    items.add(mapResultSetToItem(rs));
+                }
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException("Error finding items by IDs: " + distinctIds, e);
+        }
+        
+        return items;
+    }
+    
     @Override
     public Optional<Item> findBySku(String sku) {
         String sql = "SELECT id, sku, name, unit_price, active, created_at, updated_at FROM items WHERE sku = ?";
@@ -195,6 +252,73 @@ public class ItemDaoImpl implements ItemDao {
         return items;
     }
     
+    /**
+     * Keyset page ordered by (name, id). Rows come back in scan order: ascending for a
+     * forward cursor, descending for a backward one.
+     */
+    @Override
+    public List<Item> findPage(PageCursor cursor, int limit, boolean activeOnly) {
+        List<Item> items = new ArrayList<>();
+        boolean backward = cursor != null && cursor.isBackward();
+        String op = backward ? "<" : ">";
+        String where = activeOnly ? "active = true" : "";
+        if (cursor != null) {
+            where += (where.isEmpty() ? "" : " AND ") + "(name " + op + " ? OR (name = ? AND id " + op + " ?))";
+        }
+        String sql = "SELECT id, sku, name, unit_price, active, created_at, updated_at FROM items " +
+                    (where.isEmpty() ? "" : "WHERE " + where + " ") +
+                    (backward ? "ORDER BY name DESC, id DESC " : "ORDER BY name, id ") +
+                    "LIMIT ?";
+        
+        try (Connection conn = dataSource.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+            
+            int index = 1;
+            if (cursor != null) {
+                stmt.setString(index++, cursor.get(0));
+                stmt.setString(index++, cursor.get(0));
+                stmt.setInt(index++, cursor.getInt(1));
+            }
+            stmt.setInt(index, limit);
+            
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    items.add(mapResultSetToItem(rs));
+                }
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException("Error finding items page", e);
+        }
+        
+        return items;
+    }
+    
+    @Override
+    public void upsertBatch(Connection conn, List<Item> items) {
+        if (items == null || items.isEmpty()) {
+            return;
+        }
+        
+        String sql = "INSERT INTO items (sku, name, unit_price, active) VALUES (?, ?, ?, ?) " +
+                    "ON DUPLICATE KEY UPDATE name = VALUES(name), unit_price = VALUES(unit_price), active = VALUES(active)";
+        
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+            
+            for (Item item : items) {
+                stmt.setString(1, item.getSku());
+                stmt.setString(2, item.getName());
+                stmt.setBigDecimal(3, item.getUnitPrice());
+                stmt.setBoolean(4, item.isActive());
+                stmt.addBatch();
+            }
+            
+            // With rewriteBatchedStatements the driver sends this as one multi-row INSERT
+            stmt.executeBatch();
+        } catch (SQLException e) {
+            throw new RuntimeException("Error importing items starting at SKU: " + items.get(0).getSku(), e);
+        }
+    }
+    
     @Override
     public Item update(Item item) {
         String sql = "UPDATE items SET sku = ?, name = ?, unit_price = ?, active = ? WHERE id = ?";
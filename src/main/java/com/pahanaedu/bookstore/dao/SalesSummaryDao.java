@@ -0,0 +1,44 @@
+package com.pahanaedu.bookstore.dao;
+
+import com.pahanaedu.bookstore.model.CustomerSalesSummary;
+import com.pahanaedu.bookstore.model.ItemSalesSummary;
+
+import java.time.LocalDate;
+import java.util.List;
+
+public interface SalesSummaryDao {
+    
+    /**
+     * Fold the next bills past the watermark into the daily summary tables. The summary rows
+     * and the new watermark are written in one transaction, so a batch that fails or is
+     * interrupted is simply redone on the next run and no bill is ever counted twice.
+     * @param maxBills the most bills to fold in
+     * @param lagSeconds bills created less than this many seconds ago are left for a later
+     *                   run, so a bill whose transaction has not committed yet is not skipped
+     * @return the number of bills folded in; less than maxBills once caught up
+     */
+    int aggregateNextBatch(int maxBills, int lagSeconds);
+    
+    /**
+     * @return ID of the last bill included in the summary tables, or 0 if none
+     */
+    int getWatermark();
+    
+    /**
+     * Per-item totals over a range of bill dates, best sellers first
+     * @param from first bill date to include
+     * @param to last bill date to include
+     * @param limit the most items to return
+     * @return the item totals
+     */
+    List<ItemSalesSummary> findItemSales(LocalDate from, LocalDate to, int limit);
+    
+    /**
+     * Per-customer totals over a range of bill dates, highest revenue first
+     * @param from first bill date to include
+     * @param to last bill date to include
+     * @param limit the most customers to return
+     * @return the customer totals
+     */
+    List<CustomerSalesSummary> findCustomerSales(LocalDate from, LocalDate to, int limit);
+}
@@ -0,0 +1,249 @@
+package com.pahanaedu.bookstore.dao;
+
+import com.pahanaedu.bookstore.model.CustomerSalesSummary;
+import com.pahanaedu.bookstore.model.ItemSalesSummary;
+import com.pahanaedu.bookstore.util.DataSourceSingleton;
+
+import javax.sql.DataSource;
+import java.sql.*;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Daily summary tables: sales_daily_item (day x item) and sales_daily_customer
+ * (day x customer), plus the bill ID watermark that records how far they are complete.
+ * The tables are created on first use.
+ */
+public class SalesSummaryDaoImpl implements SalesSummaryDao {
+    
+    private static final String WATERMARK_NAME = "DAILY";
+    
+    private static volatile boolean tablesReady;
+    
+    private final DataSource dataSource;
+    
+    public SalesSummaryDaoImpl() {
+        this.dataSource = DataSourceSingleton.getInstance();
+    }
+    
+    @Override
+    public int aggregateNextBatch(int maxBills, int lagSeconds) {
+        Connection conn = null;
+        try {
+            conn = dataSource.getConnection();
+            ensureTables(conn);
+            conn.setAutoCommit(false);
+            
+            // Locking the watermark row keeps two nodes from folding in the same bills
+            int watermark;
+            try (PreparedStatement stmt = conn.prepareStatement(
+                    "SELECT last_bill_id FROM sales_summary_watermark WHERE name = ? FOR UPDATE")) {
+                stmt.setString(1, WATERMARK_NAME);
+                try (ResultSet rs = stmt.executeQuery()) {
+                    if (!rs.next()) {
+                        throw new SQLException("Sales summary watermark row missing.");
+                    }
+                    watermark = rs.getInt(1);
+                }
+            }
+            
+            int upTo;
+            int billCount;
+            String rangeSql = "SELECT MAX(id), COUNT(*) FROM (" +
+                             "SELECT id FROM bills WHERE id > ? AND created_at < NOW() - INTERVAL ? SECOND " +
+                             "ORDER BY id LIMIT ?) batch";
+            try (PreparedStatement stmt = conn.prepareStatement(rangeSql)) {
+                stmt.setInt(1, watermark);
+                stmt.setInt(2, Math.max(0, lagSeconds));
+                stmt.setInt(3, maxBills);
+                try (ResultSet rs = stmt.executeQuery()) {
+                    rs.next();
+                    upTo = rs.getInt(1);
+                    billCount = rs.getInt(2);
+                }
+            }
+            
+            if (billCount == 0) {
+                conn.rollback();
+                return 0;
+            }
+            
+            String itemSql = "INSERT INTO sales_daily_item (sale_date, item_id, qty, revenue, line_count) " +
+                            "SELECT DATE(b.bill_date), bi.item_id, SUM(bi.qty), SUM(bi.line_total), COUNT(*) " +
+                            "FROM bills b JOIN bill_items bi ON bi.bill_id = b.id " +
+                            "WHERE b.id > ? AND b.id <= ? " +
+                            "GROUP BY DATE(b.bill_date), bi.item_id " +
+                            "ON DUPLICATE KEY UPDATE qty = qty + VALUES(qty), revenue = revenue + VALUES(revenue), " +
+                            "line_count = line_count + VALUES(line_count)";
+            try (PreparedStatement stmt = conn.prepareStatement(itemSql)) {
+                stmt.setInt(1, watermark);
+                stmt.setInt(2, upTo);
+                stmt.executeUpdate();
+            }
+            
+            String customerSql = "INSERT INTO sales_daily_customer (sale_date, customer_id, bill_count, revenue) " +
+                                "SELECT DATE(bill_date), customer_id, COUNT(*), SUM(total) " +
+                                "FROM bills WHERE id > ? AND id <= ? " +
+                                "GROUP BY DATE(bill_date), customer_id " +
+                                "ON DUPLICATE KEY UPDATE bill_count = bill_count + VALUES(bill_count), " +
+                                "revenue = revenue + VALUES(revenue)";
+            try (PreparedStatement stmt = conn.prepareStatement(customerSql)) {
+                stmt.setInt(1, watermark);
+                stmt.setInt(2, upTo);
+                stmt.executeUpdate();
+            }
+            
+            try (PreparedStatement stmt = conn.prepareStatement(
+                    "UPDATE sales_summary_watermark SET last_bill_id = ? WHERE name = ?")) {
+                stmt.setInt(1, upTo);
+                stmt.setString(2, WATERMARK_NAME);
+                stmt.executeUpdate();
+            }
+            
+            conn.commit();
+            return billCount;
+        
+        } catch (SQLException e) {
+            if (conn != null) {
+                try {
+                    conn.rollback();
+                } catch (SQLException rollbackEx) {
+                    // The original error is more useful
+                }
+            }
+            throw new RuntimeException("Error aggregating daily sales summaries", e);
+        } finally {
+            if (conn != null) {
+                try {
+                    conn.setAutoCommit(true);
+                    conn.close();
+                } catch (SQLException e) {
+                    // Log error but don't throw
+                }
+            }
+        }
+    }
+    
+    @Override
+    public int getWatermark() {
+        try (Connection conn = dataSource.getConnection()) {
+            ensureTables(conn);
+            try (PreparedStatement stmt = conn.prepareStatement(
+                    "SELECT last_bill_id FROM sales_summary_watermark WHERE name = ?")) {
+                stmt.setString(1, WATERMARK_NAME);
+                try (ResultSet rs = stmt.executeQuery()) {
+                    return rs.next() ? rs.getInt(1) : 0;
+                }
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException("Error reading sales summary watermark", e);
+        }
+    }
+    
+    @Override
+    public List<ItemSalesSummary> findItemSales(LocalDate from, LocalDate to, int limit) {
+        String sql = "SELECT s.item_id, i.sku, i.name, SUM(s.qty) as qty, SUM(s.revenue) as revenue, " +
+                    "SUM(s.line_count) as line_count " +
+                    "FROM sales_daily_item s " +
+                    "LEFT JOIN items i ON s.item_id = i.id " +
+                    "WHERE s.sale_date >= ? AND s.sale_date <= ? " +
+                    "GROUP BY s.item_id, i.sku, i.name " +
+                    "ORDER BY qty DESC, revenue DESC, s.item_id " +
+                    "LIMIT ?";
+        
+        List<ItemSalesSummary> rows = new ArrayList<>();
+        try (Connection conn = dataSource.getConnection()) {
+            ensureTables(conn);
+            try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+                stmt.setDate(1, Date.valueOf(from));
+                stmt.setDate(2, Date.valueOf(to));
+                stmt.setInt(3, limit);
+                
+                try (ResultSet rs = stmt.executeQuery()) {
+                    while (rs.next()) {
+                        rows.add(new ItemSalesSummary(
+                                rs.getInt("item_id"),
+                                rs.getString("sku"),
+                                rs.getString("name"),
+                                rs.getLong("qty"),
+                                rs.getBigDecimal("revenue"),
+                                rs.getLong("line_count")));
+                    }
+                }
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException("Error reading item sales summaries", e);
+        }
+        return rows;
+    }
+    
+    @Override
+    public List<CustomerSalesSummary> findCustomerSales(LocalDate from, LocalDate to, int limit) {
+        String sql = "SELECT s.customer_id, c.name, SUM(s.bill_count) as bill_count, SUM(s.revenue) as revenue " +
+                    "FROM sales_daily_customer s " +
+                    "LEFT JOIN customers c ON s.customer_id = c.account_number " +
+                    "WHERE s.sale_date >= ? AND s.sale_date <= ? " +
+                    "GROUP BY s.customer_id, c.name " +
+                    "ORDER BY revenue DESC, s.customer_id " +
+                    "LIMIT ?";
+        
+        List<CustomerSalesSummary> rows = new ArrayList<>();
+        try (Connection conn = dataSource.getConnection()) {
+            ensureTables(conn);
+            try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+                stmt.setDate(1, Date.valueOf(from));
+                stmt.setDate(2, Date.valueOf(to));
+                stmt.setInt(3, limit);
+                
+                try (ResultSet rs = stmt.executeQuery()) {
+                    while (rs.next()) {
+                        rows.add(new CustomerSalesSummary(
+                                rs.getString("customer_id"),
+                                rs.getString("name"),
+                                rs.getLong("bill_count"),
+                                rs.getBigDecimal("revenue")));
+                    }
+                }
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException("Error reading customer sales summaries", e);
+        }
+        return rows;
+    }
+    
+    /**
+     * Create the summary tables and the watermark row on first use
+     */
+    private static void ensureTables(Connection conn) throws SQLException {
+        if (tablesReady) {
+            return;
+        }
+        
+        try (Statement stmt = conn.createStatement()) {
+            stmt.executeUpdate("CREATE TABLE IF NOT EXISTS sales_daily_item (" +
+                              "sale_date DATE NOT NULL, " +
+                              "item_id INT NOT NULL, " +
+                              "qty BIGINT NOT NULL, " +
+                              "revenue DECIMAL(16, 2) NOT NULL, " +
+                              "line_count INT NOT NULL, " +
+                              "PRIMARY KEY (sale_date, item_id))");
+            stmt.executeUpdate("CREATE TABLE IF NOT EXISTS sales_daily_customer (" +
+                              "sale_date DATE NOT NULL, " +
+                              "customer_id VARCHAR(20) NOT NULL, " +
+                              "bill_count INT NOT NULL, " +
+                              "revenue DECIMAL(16, 2) NOT NULL, " +
+                              "PRIMARY KEY (sale_date, customer_id))");
+            stmt.executeUpdate("CREATE TABLE IF NOT EXISTS sales_summary_watermark (" +
+                              "name VARCHAR(32) PRIMARY KEY, " +
+                              "last_bill_id INT NOT NULL)");
+        }
+        
+        try (PreparedStatement stmt = conn.prepareStatement(
+                "INSERT IGNORE INTO sales_summary_watermark (name, last_bill_id) VALUES (?, 0)")) {
+            stmt.setString(1, WATERMARK_NAME);
+            stmt.executeUpdate();
+        }
+        tablesReady = true;
+    }
+}
@@ -0,0 +1,215 @@
+package com.pahanaedu.bookstore.dao;
+
+import com.pahanaedu.bookstore.util.AppConfig;
+import com.pahanaedu.bookstore.util.DataSourceSingleton;
+
+import javax.sql.DataSource;
+import java.sql.*;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Hands out numbers from blocks reserved in the bill_number_sequence table (hi/lo).
+ * Each block is reserved with a single atomic UPDATE, so nodes never receive overlapping
+ * ranges; numbers inside a block are handed out from an in-memory counter. Numbers are
+ * unique and increasing per node but not gapless: unused numbers in a block are skipped
+ * when the node restarts.
+ * No lock is ever held while waiting for a pooled connection: blocks are reserved outside
+ * the allocator's monitor and only installed under it.
+ * One instance per sequence: bill numbers (BILL-000042) and customer account numbers
+ * (ACC000042). The table keeps its original name so sequence rows already in use stay valid.
+ */
+public class SequenceAllocator {
+    
+    private static final int DEFAULT_BLOCK_SIZE = 50;
+    
+    private static volatile SequenceAllocator billNumbers;
+    private static volatile SequenceAllocator accountNumbers;
+    private static final Object lock = new Object();
+    
+    private final DataSource dataSource;
+    private final String sequenceName;
+    private final String prefix;
+    private final String seedSql;
+    private final int blockSize;
+    private volatile Block current;
+    private Block spare;
+    private volatile boolean sequenceReady;
+    private final Object sequenceLock = new Object();
+    
+    private SequenceAllocator(DataSource dataSource, String sequenceName, String prefix, String seedSql, int blockSize) {
+        this.dataSource = dataSource;
+        this.sequenceName = sequenceName;
+        this.prefix = prefix;
+        this.seedSql = seedSql;
+        this.blockSize = blockSize;
+    }
+    
+    /**
+     * @return the allocator for bill numbers (BILL-000042)
+     */
+    public static SequenceAllocator billNumbers() {
+        if (billNumbers == null) {
+            synchronized (lock) {
+                if (billNumbers == null) {
+                    int blockSize = AppConfig.getInstance().getInt("billNumber.blockSize", DEFAULT_BLOCK_SIZE);
+                    billNumbers = new SequenceAllocator(DataSourceSingleton.getInstance(), "BILL", "BILL-",
+                            "SELECT ?, COALESCE(MAX(CAST(SUBSTRING(bill_no, 6) AS UNSIGNED)), 0) + 1 " +
+                            "FROM bills WHERE bill_no LIKE 'BILL-%'",
+                            Math.max(1, blockSize));
+                }
+            }
+        }
+        return billNumbers;
+    }
+    
+    /**
+     * @return the allocator for customer account numbers (ACC000042)
+     */
+    public static SequenceAllocator accountNumbers() {
+        if (accountNumbers == null) {
+            synchronized (lock) {
+                if (accountNumbers == null) {
+                    int blockSize = AppConfig.getInstance().getInt("accountNumber.blockSize", DEFAULT_BLOCK_SIZE);
+                    // Older rows were numbered from their ID, so start above both
+                    accountNumbers = new SequenceAllocator(DataSourceSingleton.getInstance(), "CUSTOMER", "ACC",
+                            "SELECT ?, GREATEST(COALESCE(MAX(CASE WHEN account_number LIKE 'ACC%' " +
+                            "THEN CAST(SUBSTRING(account_number, 4) AS UNSIGNED) END), 0), COALESCE(MAX(id), 0)) + 1 " +
+                            "FROM customers",
+                            Math.max(1, blockSize));
+                }
+            }
+        }
+        return accountNumbers;
+    }
+    
+    /**
+     * Allocate the next number
+     * @return the next formatted number (e.g., BILL-000042)
+     */
+    public String next() {
+        return format(nextValue());
+    }
+    
+    /**
+     * Allocate several numbers at once. Requests larger than a block are served from a
+     * dedicated range reserved in one round trip.
+     * @param count how many numbers are needed
+     * @return the formatted numbers, in increasing order
+     */
+    public String[] next(int count) {
+        String[] numbers = new String[count];
+        if (count <= blockSize) {
+            for (int i = 0; i < count; i++) {
+                numbers[i] = next();
+            }
+            return numbers;
+        }
+        
+        Block range = reserveBlock(count);
+        for (int i = 0; i < count; i++) {
+            numbers[i] = format(range.cursor.getAndIncrement());
+        }
+        return numbers;
+    }
+    
+    private long nextValue() {
+        while (true) {
+            Block block = current;
+            if (block != null) {
+                long value = block.cursor.getAndIncrement();
+                if (value < block.end) {
+                    return value;
+                }
+            }
+            
+            Block fresh = takeSpare();
+            if (fresh == null) {
+                fresh = reserveBlock(blockSize);
+            }
+            synchronized (this) {
+                if (current == block) {
+                    current = fresh;
+                } else if (spare == null) {
+                    // Another thread installed a block first; keep this one for the next switch
+                    spare = fresh;
+                }
+                // Otherwise the numbers in fresh are skipped, like a block unused at restart
+            }
+        }
+    }
+    
+    private synchronized Block takeSpare() {
+        Block block = spare;
+        spare = null;
+        return block;
+    }
+    
+    private Block reserveBlock(int size) {
+        try (Connection conn = dataSource.getConnection()) {
+            if (!sequenceReady) {
+                synchronized (sequenceLock) {
+                    if (!sequenceReady) {
+                        ensureSequence(conn);
+                        sequenceReady = true;
+                    }
+                }
+            }
+            
+            String sql = "UPDATE bill_number_sequence SET next_value = LAST_INSERT_ID(next_value + ?) WHERE name = ?";
+            try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+                stmt.setInt(1, size);
+                stmt.setString(2, sequenceName);
+                if (stmt.executeUpdate() == 0) {
+                    throw new SQLException("Reserving " + sequenceName + " numbers failed, sequence row missing.");
+                }
+            }
+            
+            try (Statement stmt = conn.createStatement();
+                 ResultSet rs = stmt.executeQuery("SELECT LAST_INSERT_ID()")) {
+                if (!rs.next()) {
+                    throw new SQLException("Reserving " + sequenceName + " numbers failed, no value returned.");
+                }
+                long end = rs.getLong(1);
+                return new Block(end - size, end);
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException("Error reserving " + sequenceName + " numbers", e);
+        }
+    }
+    
+    /**
+     * Create the sequence table on first use and seed this sequence from existing rows.
+     * The MAX() scan runs once per database, not once per number.
+     */
+    private void ensureSequence(Connection conn) throws SQLException {
+        try (Statement stmt = conn.createStatement()) {
+            stmt.executeUpdate("CREATE TABLE IF NOT EXISTS bill_number_sequence (" +
+                              "name VARCHAR(32) PRIMARY KEY, " +
+                              "next_value BIGINT NOT NULL)");
+        }
+        
+        try (PreparedStatement stmt = conn.prepareStatement("INSERT IGNORE INTO bill_number_sequence (name, next_value) " + seedSql)) {
+            stmt.setString(1, sequenceName);
+            stmt.executeUpdate();
+        }
+    }
+    
+    private String format(long value) {
+        String digits = Long.toString(value);
+        StringBuilder number = new StringBuilder(prefix.length() + 6).append(prefix);
+        for (int i = digits.length(); i < 6; i++) {
+            number.append('0');
+        }
+        return number.append(digits).toString();
+    }
+    
+    private static final class Block {
+        private final AtomicLong cursor;
+        private final long end;
+        
+        private Block(long start, long end) {
+            this.cursor = new AtomicLong(start);
+            this.end = end;
+        }
+    }
+}
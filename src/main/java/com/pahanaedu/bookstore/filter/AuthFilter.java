@@ -1,6 +1,7 @@
 package com.pahanaedu.bookstore.filter;
 
 import com.pahanaedu.bookstore.model.User;
+import com.pahanaedu.bookstore.util.AuthTokenManager;
 
 import jakarta.servlet.*;
 import jakarta.servlet.http.HttpServletRequest;
@@ -10,9 +11,16 @@ import java.io.IOException;
 
 public class AuthFilter implements Filter {
     
+    private AuthTokenManager tokenManager;
+    
     @Override
     public void init(FilterConfig filterConfig) throws ServletException {
-        // Initialization code if needed
+        try {
+            this.tokenManager = AuthTokenManager.getInstance();
+        } catch (IllegalStateException e) {
+            // Refuse to deploy with a missing token secret rather than lock everyone out
+            throw new ServletException(e.getMessage(), e);
+        }
     }
     
     @Override
@@ -30,12 +38,21 @@ public class AuthFilter implements Filter {
             return;
         }
         
-        HttpSession session = httpRequest.getSession(false);
-        
         // Check if user is logged in
         User user = null;
-        if (session != null) {
-            user = (User) session.getAttribute("user");
+        if (tokenManager.isEnabled()) {
+            // Stateless mode: the signed cookie is the login, no session or DB lookup
+            user = tokenManager.authenticate(httpRequest, httpResponse).orElse(null);
+            if (user != null) {
+                httpRequest.setAttribute("user", user);
+                httpRequest.setAttribute("username", user.getUsername());
+                httpRequest.setAttribute("role", user.getRole());
+            }
+        } else {
+            HttpSession session = httpRequest.getSession(false);
+            if (session != null) {
+                user = (User) session.getAttribute("user");
+            }
         }
         
         if (user == null) {
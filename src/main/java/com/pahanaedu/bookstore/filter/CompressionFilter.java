@@ -0,0 +1,452 @@
+package com.pahanaedu.bookstore.filter;
+
+import com.pahanaedu.bookstore.util.AppConfig;
+
+import jakarta.servlet.*;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.nio.charset.Charset;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Gzip-encodes responses for clients that accept it. Output is held back until minSize bytes
+ * have been written: smaller bodies go out as they are, larger ones of a compressible
+ * content type (mimeTypes) are compressed as they stream. Responses that already carry a
+ * Content-Encoding, and types outside the list (images, archives), are never touched.
+ * Settings come from the filter's init-params in web.xml, so each declaration of the filter
+ * can use its own threshold for the URL patterns it is mapped to. AppConfig keys
+ * compression.&lt;filter-name&gt;.minSize and .level override them per deployment profile, and
+ * compression.enabled=false turns compression off everywhere.
+ * A response that switches to non-blocking output (setWriteListener) before its first
+ * minSize bytes goes out uncompressed; doing so after compressed output has started fails
+ * with IllegalStateException.
+ */
+public class CompressionFilter implements Filter {
+    
+    private static final int DEFAULT_MIN_SIZE = 1024;
+    private static final String DEFAULT_MIME_TYPES = "text/html,text/plain,text/css,text/csv,"
+            + "text/javascript,application/javascript,application/json,application/x-ndjson,"
+            + "application/xml,image/svg+xml";
+    
+    private boolean enabled;
+    private int minSize;
+    private int level;
+    private Set<String> mimeTypes;
+    
+    @Override
+    public void init(FilterConfig filterConfig) throws ServletException {
+        AppConfig appConfig = AppConfig.getInstance();
+        String prefix = "compression." + filterConfig.getFilterName() + ".";
+        
+        this.enabled = appConfig.getBoolean("compression.enabled", true);
+        this.minSize = Math.max(0, appConfig.getInt(prefix + "minSize",
+                parseInt(filterConfig.getInitParameter("minSize"), DEFAULT_MIN_SIZE)));
+        this.level = appConfig.getInt(prefix + "level",
+                parseInt(filterConfig.getInitParameter("level"), Deflater.DEFAULT_COMPRESSION));
+        
+        String types = filterConfig.getInitParameter("mimeTypes");
+        this.mimeTypes = Arrays.stream((types != null ? types : DEFAULT_MIME_TYPES).split(","))
+                .map(type -> type.trim().toLowerCase(Locale.ROOT))
+                .filter(type -> !type.isEmpty())
+                .collect(Collectors.toUnmodifiableSet());
+    }
+    
+    @Override
+    public void doFilter(ServletRequest request, ServletResponse response, FilterChain chain)
+            throws IOException, ServletException {
+        
+        HttpServletRequest httpRequest = (HttpServletRequest) request;
+        HttpServletResponse httpResponse = (HttpServletResponse) response;
+        
+        if (!enabled || "HEAD".equals(httpRequest.getMethod())) {
+            chain.doFilter(request, response);
+            return;
+        }
+        
+        // Caches must keep compressed and plain copies apart
+        httpResponse.addHeader("Vary", "Accept-Encoding");
+        if (!acceptsGzip(httpRequest.getHeader("Accept-Encoding"))) {
+            chain.doFilter(request, response);
+            return;
+        }
+        
+        CompressingResponse wrapper = new CompressingResponse(httpResponse);
+        chain.doFilter(request, wrapper);
+        
+        if (request.isAsyncStarted()) {
+            // Handlers close their output when done; this only catches one that did not
+            request.getAsyncContext().addListener(new AsyncListener() {
+                @Override
+                public void onComplete(AsyncEvent event) throws IOException {
+                    wrapper.finish();
+                }
+                
+                @Override
+                public void onTimeout(AsyncEvent event) {
+                }
+                
+                @Override
+                public void onError(AsyncEvent event) {
+                }
+                
+                @Override
+                public void onStartAsync(AsyncEvent event) {
+                }
+            });
+        } else {
+            wrapper.finish();
+        }
+    }
+    
+    @Override
+    public void destroy() {
+    }
+    
+    private static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        for (String coding : acceptEncoding.split(",")) {
+            String[] parts = coding.split(";");
+            String name = parts[0].trim();
+            if (name.equalsIgnoreCase("gzip") || name.equals("*")) {
+                // "gzip;q=0" means the client refuses it
+                for (int i = 1; i < parts.length; i++) {
+                    String param = parts[i].trim();
+                    if (param.startsWith("q=") && parseQuality(param.substring(2)) <= 0) {
+                        return false;
+                    }
+                }
+                return true;
+            }
+        }
+        return false;
+    }
+    
+    private static double parseQuality(String value) {
+        try {
+            return Double.parseDouble(value.trim());
+        } catch (NumberFormatException e) {
+            return 1;
+        }
+    }
+    
+    private static int parseInt(String value, int defaultValue) {
+        if (value == null || value.trim().isEmpty()) {
+            return defaultValue;
+        }
+        try {
+            return Integer.parseInt(value.trim());
+        } catch (NumberFormatException e) {
+            return defaultValue;
+        }
+    }
+    
+    /**
+     * Response wrapper that buffers the first minSize bytes, then decides once whether the
+     * body is compressed or passed through
+     */
+    private class CompressingResponse extends HttpServletResponseWrapper {
+        
+        private final HttpServletResponse response;
+        private CompressingOutputStream stream;
+        private PrintWriter writer;
+        private long contentLength = -1;
+        
+        CompressingResponse(HttpServletResponse response) {
+            super(response);
+            this.response = response;
+        }
+        
+        @Override
+        public ServletOutputStream getOutputStream() throws IOException {
+            if (writer != null) {
+                throw new IllegalStateException("getWriter() has already been called");
+            }
+            return stream();
+        }
+        
+        @Override
+        public PrintWriter getWriter() throws IOException {
+            if (writer == null) {
+                if (stream != null) {
+                    throw new IllegalStateException("getOutputStream() has already been called");
+                }
+                Charset charset = Charset.forName(getCharacterEncoding());
+                writer = new PrintWriter(new OutputStreamWriter(stream(), charset));
+            }
+            return writer;
+        }
+        
+        @Override
+        public void setContentLength(int length) {
+            setContentLengthLong(length);
+        }
+        
+        @Override
+        public void setContentLengthLong(long length) {
+            // Only known to be right if the body goes out uncompressed
+            this.contentLength = length;
+            if (stream != null && stream.passThrough) {
+                super.setContentLengthLong(length);
+            }
+        }
+        
+        @Override
+        public void setHeader(String name, String value) {
+            if ("Content-Length".equalsIgnoreCase(name)) {
+                setContentLengthLong(value != null ? Long.parseLong(value.trim()) : -1);
+            } else {
+                super.setHeader(name, value);
+            }
+        }
+        
+        @Override
+        public void addHeader(String name, String value) {
+            if ("Content-Length".equalsIgnoreCase(name)) {
+                setContentLengthLong(Long.parseLong(value.trim()));
+            } else {
+                super.addHeader(name, value);
+            }
+        }
+        
+        @Override
+        public void setIntHeader(String name, int value) {
+            if ("Content-Length".equalsIgnoreCase(name)) {
+                setContentLengthLong(value);
+            } else {
+                super.setIntHeader(name, value);
+            }
+        }
+        
+        @Override
+        public void addIntHeader(String name, int value) {
+            if ("Content-Length".equalsIgnoreCase(name)) {
+                setContentLengthLong(value);
+            } else {
+                super.addIntHeader(name, value);
+            }
+        }
+        
+        @Override
+        public void flushBuffer() throws IOException {
+            if (writer != null) {
+                writer.flush();
+            }
+            if (stream != null) {
+                stream.flush();
+            }
+            super.flushBuffer();
+        }
+        
+        @Override
+        public boolean isCommitted() {
+            return super.isCommitted() || (stream != null && stream.decided);
+        }
+        
+        @Override
+        public void sendError(int status, String message) throws IOException {
+            discard();
+            super.sendError(status, message);
+        }
+        
+        @Override
+        public void sendError(int status) throws IOException {
+            discard();
+            super.sendError(status);
+        }
+        
+        @Override
+        public void sendRedirect(String location) throws IOException {
+            discard();
+            super.sendRedirect(location);
+        }
+        
+        @Override
+        public void reset() {
+            resetBuffer();
+            super.reset();
+            super.addHeader("Vary", "Accept-Encoding");
+            contentLength = -1;
+            // Like the container, allow the other of getWriter/getOutputStream after a reset
+            discard();
+            stream = null;
+            writer = null;
+        }
+        
+        @Override
+        public void resetBuffer() {
+            if (isCommitted()) {
+                throw new IllegalStateException("Response has already been committed");
+            }
+            if (writer != null) {
+                // Push anything the encoder holds into the buffer, which is then dropped
+                writer.flush();
+            }
+            if (stream != null) {
+                stream.buffer.reset();
+            }
+            super.resetBuffer();
+        }
+        
+        /**
+         * Drop buffered output that the container is about to replace (error page, redirect)
+         */
+        private void discard() {
+            if (stream != null && !stream.decided) {
+                stream.buffer.reset();
+                stream.decided = true;
+                stream.closed = true;
+            }
+        }
+        
+        /**
+         * Write out whatever is still buffered and end the gzip stream
+         */
+        void finish() throws IOException {
+            if (writer != null) {
+                writer.close();
+            } else if (stream != null) {
+                stream.close();
+            }
+        }
+        
+        private CompressingOutputStream stream() {
+            if (stream == null) {
+                stream = new CompressingOutputStream(this);
+            }
+            return stream;
+        }
+        
+        private boolean shouldCompress() {
+            int status = response.getStatus();
+            if (status < 200 || status == HttpServletResponse.SC_NO_CONTENT
+                    || status == HttpServletResponse.SC_NOT_MODIFIED
+                    || response.getHeader("Content-Encoding") != null) {
+                return false;
+            }
+            String contentType = response.getContentType();
+            if (contentType == null) {
+                return false;
+            }
+            int semicolon = contentType.indexOf(';');
+            String mimeType = (semicolon >= 0 ? contentType.substring(0, semicolon) : contentType);
+            return mimeTypes.contains(mimeType.trim().toLowerCase(Locale.ROOT));
+        }
+    }
+    
+    private class CompressingOutputStream extends ServletOutputStream {
+        
+        private final CompressingResponse owner;
+        private final ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        private OutputStream target;
+        private boolean decided;
+        private boolean passThrough;
+        private boolean closed;
+        
+        CompressingOutputStream(CompressingResponse owner) {
+            this.owner = owner;
+        }
+        
+        @Override
+        public void write(int b) throws IOException {
+            write(new byte[] { (byte) b }, 0, 1);
+        }
+        
+        @Override
+        public void write(byte[] bytes, int offset, int length) throws IOException {
+            if (closed) {
+                throw new IOException("Stream closed");
+            }
+            if (decided) {
+                target.write(bytes, offset, length);
+                return;
+            }
+            buffer.write(bytes, offset, length);
+            if (buffer.size() >= minSize || (owner.contentLength >= 0 && owner.contentLength < minSize)) {
+                decide(buffer.size() >= minSize && owner.shouldCompress());
+            }
+        }
+        
+        @Override
+        public void flush() throws IOException {
+            // Until the threshold is reached there is nothing worth sending early
+            if (decided && !closed) {
+                target.flush();
+            }
+        }
+        
+        @Override
+        public void close() throws IOException {
+            if (closed) {
+                return;
+            }
+            if (!decided) {
+                if (owner.contentLength < 0) {
+                    owner.setContentLengthLong(buffer.size());
+                }
+                decide(false);
+            }
+            closed = true;
+            target.close();
+        }
+        
+        @Override
+        public boolean isReady() {
+            return !passThrough || ((ServletOutputStream) target).isReady();
+        }
+        
+        /**
+         * Hand non-blocking output to the container's stream. The gzip encoder writes
+         * blocking, so the response goes out uncompressed; once compressed output has
+         * started that is no longer possible.
+         */
+        @Override
+        public void setWriteListener(WriteListener writeListener) {
+            if (!decided) {
+                try {
+                    decide(false);
+                } catch (IOException e) {
+                    throw new IllegalStateException("Could not switch to non-blocking output", e);
+                }
+            }
+            if (!passThrough) {
+                throw new IllegalStateException("Non-blocking output cannot start once the response is being compressed");
+            }
+            ((ServletOutputStream) target).setWriteListener(writeListener);
+        }
+        
+        private void decide(boolean compress) throws IOException {
+            decided = true;
+            HttpServletResponse response = owner.response;
+            OutputStream out = response.getOutputStream();
+            if (compress) {
+                response.setHeader("Content-Encoding", "gzip");
+                target = new GZIPOutputStream(out, 8192, true) {
+                    {
+                        def.setLevel(level);
+                    }
+                };
+            } else {
+                passThrough = true;
+                if (owner.contentLength >= 0) {
+                    response.setContentLengthLong(owner.contentLength);
+                }
+                target = out;
+            }
+            buffer.writeTo(target);
+            buffer.reset();
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package com.pahanaedu.bookstore.filter;
+
+import com.pahanaedu.bookstore.util.AssetManifest;
+
+import jakarta.servlet.*;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Serves fingerprinted asset URLs (see AssetManifest). A current fingerprinted name is
+ * forwarded to the file it stands for with a one-year immutable Cache-Control, since its
+ * content can never change. A stale fingerprint (a page rendered before a redeploy) gets the
+ * current file, uncached. Plain asset names are served as usual but revalidated each time.
+ * Anything else under /assets, such as the quick search servlet, passes straight through.
+ */
+public class StaticAssetFilter implements Filter {
+    
+    private static final String IMMUTABLE = "public, max-age=31536000, immutable";
+    
+    // name.<12 hex digits>.ext as produced by AssetManifest
+    private static final Pattern FINGERPRINT = Pattern.compile("^(.*)\\.[0-9a-f]{12}(\\.[^./]+)?$");
+    
+    @Override
+    public void init(FilterConfig filterConfig) throws ServletException {
+    }
+    
+    @Override
+    public void doFilter(ServletRequest request, ServletResponse response, FilterChain chain)
+            throws IOException, ServletException {
+        
+        HttpServletRequest httpRequest = (HttpServletRequest) request;
+        HttpServletResponse httpResponse = (HttpServletResponse) response;
+        AssetManifest manifest = AssetManifest.getInstance();
+        
+        String method = httpRequest.getMethod();
+        if (manifest == null || !("GET".equals(method) || "HEAD".equals(method))) {
+            chain.doFilter(request, response);
+            return;
+        }
+        
+        String path = httpRequest.getRequestURI().substring(httpRequest.getContextPath().length());
+        
+        String asset = manifest.findAsset(path);
+        if (asset != null) {
+            httpResponse.setHeader("Cache-Control", IMMUTABLE);
+            request.getRequestDispatcher(asset).forward(request, response);
+            return;
+        }
+        
+        if (manifest.isAsset(path)) {
+            httpResponse.setHeader("Cache-Control", "no-cache");
+            chain.doFilter(request, response);
+            return;
+        }
+        
+        Matcher matcher = FINGERPRINT.matcher(path);
+        if (matcher.matches()) {
+            String current = matcher.group(1) + (matcher.group(2) != null ? matcher.group(2) : "");
+            if (manifest.isAsset(current)) {
+                httpResponse.setHeader("Cache-Control", "no-cache");
+                request.getRequestDispatcher(current).forward(request, response);
+                return;
+            }
+        }
+        
+        chain.doFilter(request, response);
+    }
+    
+    @Override
+    public void destroy() {
+    }
+}
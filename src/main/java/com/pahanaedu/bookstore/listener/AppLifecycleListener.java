@@ -0,0 +1,156 @@
+package com.pahanaedu.bookstore.listener;
+
+import com.pahanaedu.bookstore.service.BillingService;
+import com.pahanaedu.bookstore.service.CustomerService;
+import com.pahanaedu.bookstore.service.ItemService;
+import com.pahanaedu.bookstore.service.SalesSummaryService;
+import com.pahanaedu.bookstore.util.AppConfig;
+import com.pahanaedu.bookstore.util.AssetManifest;
+import com.pahanaedu.bookstore.util.AsyncRequestExecutor;
+import com.pahanaedu.bookstore.util.DataSourceSingleton;
+import com.pahanaedu.bookstore.util.PasswordHasher;
+
+import jakarta.servlet.ServletContextEvent;
+import jakarta.servlet.ServletContextListener;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+public class AppLifecycleListener implements ServletContextListener {
+    
+    private ScheduledExecutorService summaryScheduler;
+    private ScheduledExecutorService refreshScheduler;
+    
+    @Override
+    public void contextInitialized(ServletContextEvent sce) {
+        // Fingerprint static assets before the first page references them
+        AssetManifest.load(sce.getServletContext());
+        
+        // Warm the in-memory search indexes and dashboard totals in the background so a slow
+        // or unavailable database never blocks deployment; searches fall back to SQL until
+        // they are ready and the dashboard reports that its totals are still loading
+        Thread warmup = new Thread(this::warmSearchIndexes, "search-index-warmup");
+        warmup.setDaemon(true);
+        warmup.start();
+        
+        startSummaryAggregator();
+        startRefresher();
+    }
+    
+    @Override
+    public void contextDestroyed(ServletContextEvent sce) {
+        // Let a running aggregation batch or refresh finish (or roll back) before the pool closes
+        stop(summaryScheduler, "Sales summary aggregator");
+        stop(refreshScheduler, "Refresher");
+        AsyncRequestExecutor.shutdown();
+        PasswordHasher.shutdown();
+        DataSourceSingleton.close();
+    }
+    
+    /**
+     * Fold new bills into the daily summary tables on a single background thread. Each run
+     * picks up from the stored watermark, so restarts and overlapping nodes are safe.
+     */
+    private void startSummaryAggregator() {
+        AppConfig appConfig = AppConfig.getInstance();
+        if (!appConfig.getBoolean("summary.enabled", true)) {
+            return;
+        }
+        
+        long intervalSeconds = Math.max(1, appConfig.getLong("summary.intervalSeconds", 60));
+        SalesSummaryService salesSummaryService = new SalesSummaryService();
+        
+        summaryScheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "sales-summary-aggregator");
+            thread.setDaemon(true);
+            return thread;
+        });
+        summaryScheduler.scheduleWithFixedDelay(() -> {
+            // An exception escaping here would cancel every later run
+            try {
+                salesSummaryService.aggregatePending();
+            } catch (Exception e) {
+                System.err.println("ERROR AppLifecycleListener: Sales summary aggregation failed: " + e.getMessage());
+            }
+        }, intervalSeconds, intervalSeconds, TimeUnit.SECONDS);
+    }
+    
+    /**
+     * Periodically check the shared data versions and reload the caches and search indexes
+     * they cover, and fold new bills into the dashboard totals, so writes made on other nodes
+     * (tills, back office, bulk imports) reach this one within refresh.intervalSeconds.
+     * Local writes are already applied as they happen.
+     */
+    private void startRefresher() {
+        AppConfig appConfig = AppConfig.getInstance();
+        if (!appConfig.getBoolean("refresh.enabled", true)) {
+            return;
+        }
+        
+        long intervalSeconds = Math.max(1, appConfig.getLong("refresh.intervalSeconds", 60));
+        ItemService itemService = new ItemService();
+        CustomerService customerService = new CustomerService();
+        BillingService billingService = new BillingService();
+        
+        refreshScheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "shared-state-refresher");
+            thread.setDaemon(true);
+            return thread;
+        });
+        refreshScheduler.scheduleWithFixedDelay(() -> {
+            // An exception escaping here would cancel every later run
+            try {
+                itemService.refreshIfChanged();
+            } catch (Exception e) {
+                System.err.println("ERROR AppLifecycleListener: Catalog refresh failed: " + e.getMessage());
+            }
+            try {
+                customerService.refreshIfChanged();
+            } catch (Exception e) {
+                System.err.println("ERROR AppLifecycleListener: Customer refresh failed: " + e.getMessage());
+            }
+            try {
+                billingService.catchUpSalesRollup();
+            } catch (Exception e) {
+                System.err.println("ERROR AppLifecycleListener: Dashboard sales totals catch-up failed: " + e.getMessage());
+            }
+        }, intervalSeconds, intervalSeconds, TimeUnit.SECONDS);
+    }
+    
+    private static void stop(ScheduledExecutorService scheduler, String name) {
+        if (scheduler == null) {
+            return;
+        }
+        scheduler.shutdownNow();
+        try {
+            if (!scheduler.awaitTermination(30, TimeUnit.SECONDS)) {
+                System.err.println("WARN AppLifecycleListener: " + name + " did not stop in time");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+    
+    private void warmSearchIndexes() {
+        try {
+            new ItemService().rebuildSearchIndex();
+        } catch (Exception e) {
+            System.err.println("ERROR AppLifecycleListener: Failed to build item search index: " + e.getMessage());
+            e.printStackTrace();
+        }
+        
+        try {
+            new CustomerService().rebuildSearchIndex();
+        } catch (Exception e) {
+            System.err.println("ERROR AppLifecycleListener: Failed to build customer search index: " + e.getMessage());
+            e.printStackTrace();
+        }
+        
+        try {
+            new BillingService().rebuildSalesRollup();
+        } catch (Exception e) {
+            System.err.println("ERROR AppLifecycleListener: Failed to load dashboard sales totals: " + e.getMessage());
+            e.printStackTrace();
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package com.pahanaedu.bookstore.model;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * One bill line joined with its bill header, as produced by the bill export
+ */
+public class BillExportRow {
+    private final int billId;
+    private final String billNo;
+    private final LocalDateTime billDate;
+    private final String customerAccount;
+    private final String customerName;
+    private final BigDecimal billTotal;
+    private final String sku;
+    private final String itemName;
+    private final int qty;
+    private final BigDecimal unitPrice;
+    private final BigDecimal lineTotal;
+    
+    public BillExportRow(int billId, String billNo, LocalDateTime billDate, String customerAccount,
+                         String customerName, BigDecimal billTotal, String sku, String itemName,
+                         int qty, BigDecimal unitPrice, BigDecimal lineTotal) {
+        this.billId = billId;
+        this.billNo = billNo;
+        this.billDate = billDate;
+        this.customerAccount = customerAccount;
+        this.customerName = customerName;
+        this.billTotal = billTotal;
+        this.sku = sku;
+        this.itemName = itemName;
+        this.qty = qty;
+        this.unitPrice = unitPrice;
+        this.lineTotal = lineTotal;
+    }
+    
+    public int getBillId() {
+        return billId;
+    }
+    
+    public String getBillNo() {
+        return billNo;
+    }
+    
+    public LocalDateTime getBillDate() {
+        return billDate;
+    }
+    
+    public String getCustomerAccount() {
+        return customerAccount;
+    }
+    
+    public String getCustomerName() {
+        return customerName;
+    }
+    
+    public BigDecimal getBillTotal() {
+        return billTotal;
+    }
+    
+    public String getSku() {
+        return sku;
+    }
+    
+    public String getItemName() {
+        return itemName;
+    }
+    
+    public int getQty() {
+        return qty;
+    }
+    
+    public BigDecimal getUnitPrice() {
+        return unitPrice;
+    }
+    
+    public BigDecimal getLineTotal() {
+        return lineTotal;
+    }
+}
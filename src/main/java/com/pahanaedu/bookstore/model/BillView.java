@@ -0,0 +1,146 @@
+package com.pahanaedu.bookstore.model;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Read-only snapshot of a bill for display: header, the customer details when the snapshot
+ * was taken and the bill lines with their item SKU and name. Safe to share between threads.
+ */
+public final class BillView {
+    
+    private static final DateTimeFormatter DISPLAY_DATE = DateTimeFormatter.ofPattern("MMM dd, yyyy HH:mm");
+    
+    private final int id;
+    private final String billNo;
+    private final LocalDateTime billDate;
+    private final BigDecimal total;
+    private final CustomerSnapshot customer;
+    private final List<Line> lines;
+    
+    public BillView(int id, String billNo, LocalDateTime billDate, BigDecimal total,
+                    CustomerSnapshot customer, List<Line> lines) {
+        this.id = id;
+        this.billNo = billNo;
+        this.billDate = billDate;
+        this.total = total;
+        this.customer = customer;
+        this.lines = Collections.unmodifiableList(lines);
+    }
+    
+    public int getId() {
+        return id;
+    }
+    
+    public String getBillNo() {
+        return billNo;
+    }
+    
+    public LocalDateTime getBillDate() {
+        return billDate;
+    }
+    
+    /**
+     * @return the bill date formatted for display, e.g. "Oct 18, 2026 14:05"
+     */
+    public String getFormattedBillDate() {
+        return billDate != null ? billDate.format(DISPLAY_DATE) : "";
+    }
+    
+    public BigDecimal getTotal() {
+        return total;
+    }
+    
+    public CustomerSnapshot getCustomer() {
+        return customer;
+    }
+    
+    public List<Line> getLines() {
+        return lines;
+    }
+    
+    /**
+     * The billed customer. found is false when the account no longer exists, in which case
+     * only the account number recorded on the bill is known.
+     */
+    public static final class CustomerSnapshot {
+        private final String accountNumber;
+        private final String name;
+        private final String address;
+        private final String phone;
+        private final boolean found;
+        
+        public CustomerSnapshot(String accountNumber, String name, String address, String phone, boolean found) {
+            this.accountNumber = accountNumber;
+            this.name = name;
+            this.address = address;
+            this.phone = phone;
+            this.found = found;
+        }
+        
+        public String getAccountNumber() {
+            return accountNumber;
+        }
+        
+        public String getName() {
+            return name;
+        }
+        
+        public String getAddress() {
+            return address;
+        }
+        
+        public String getPhone() {
+            return phone;
+        }
+        
+        public boolean isFound() {
+            return found;
+        }
+    }
+    
+    public static final class Line {
+        private final int itemId;
+        private final String sku;
+        private final String name;
+        private final int qty;
+        private final BigDecimal unitPrice;
+        private final BigDecimal lineTotal;
+        
+        public Line(int itemId, String sku, String name, int qty, BigDecimal unitPrice, BigDecimal lineTotal) {
+            this.itemId = itemId;
+            this.sku = sku;
+            this.name = name;
+            this.qty = qty;
+            this.unitPrice = unitPrice;
+            this.lineTotal = lineTotal;
+        }
+        
+        public int getItemId() {
+            return itemId;
+        }
+        
+        public String getSku() {
+            return sku;
+        }
+        
+        public String getName() {
+            return name;
+        }
+        
+        public int getQty() {
+            return qty;
+        }
+        
+        public BigDecimal getUnitPrice() {
+            return unitPrice;
+        }
+        
+        public BigDecimal getLineTotal() {
+            return lineTotal;
+        }
+    }
+}
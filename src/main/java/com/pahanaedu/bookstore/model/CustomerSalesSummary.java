@@ -0,0 +1,36 @@
+package com.pahanaedu.bookstore.model;
+
+import java.math.BigDecimal;
+
+/**
+ * Bill count and revenue of one customer over a date range, read from the daily summary tables
+ */
+public class CustomerSalesSummary {
+    private final String accountNumber;
+    private final String name;
+    private final long billCount;
+    private final BigDecimal revenue;
+    
+    public CustomerSalesSummary(String accountNumber, String name, long billCount, BigDecimal revenue) {
+        this.accountNumber = accountNumber;
+        this.name = name;
+        this.billCount = billCount;
+        this.revenue = revenue;
+    }
+    
+    public String getAccountNumber() {
+        return accountNumber;
+    }
+    
+    public String getName() {
+        return name;
+    }
+    
+    public long getBillCount() {
+        return billCount;
+    }
+    
+    public BigDecimal getRevenue() {
+        return revenue;
+    }
+}
@@ -0,0 +1,85 @@
+package com.pahanaedu.bookstore.model;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Outcome of a bulk CSV import: row counts plus the rejected rows with their reasons.
+ * Only the first MAX_REPORTED_ERRORS rejections are kept so a bad file cannot use
+ * unbounded memory; getErrorCount still counts all of them.
+ */
+public class ImportResult {
+    
+    public static final int MAX_REPORTED_ERRORS = 1000;
+    
+    private int rowsRead;
+    private int imported;
+    private int errorCount;
+    private final List<RowError> errors = new ArrayList<>();
+    
+    public void rowRead() {
+        rowsRead++;
+    }
+    
+    public void imported(int count) {
+        imported += count;
+    }
+    
+    /**
+     * Record a rejected row
+     * @param line line number in the uploaded file
+     * @param key the row's key (SKU, name, ...) if known
+     * @param message why the row was rejected
+     */
+    public void reject(int line, String key, String message) {
+        errorCount++;
+        if (errors.size() < MAX_REPORTED_ERRORS) {
+            errors.add(new RowError(line, key, message));
+        }
+    }
+    
+    public int getRowsRead() {
+        return rowsRead;
+    }
+    
+    public int getImported() {
+        return imported;
+    }
+    
+    public int getErrorCount() {
+        return errorCount;
+    }
+    
+    public List<RowError> getErrors() {
+        return Collections.unmodifiableList(errors);
+    }
+    
+    public boolean isErrorsTruncated() {
+        return errorCount > errors.size();
+    }
+    
+    public static class RowError {
+        private final int line;
+        private final String key;
+        private final String message;
+        
+        public RowError(int line, String key, String message) {
+            this.line = line;
+            this.key = key;
+            this.message = message;
+        }
+        
+        public int getLine() {
+            return line;
+        }
+        
+        public String getKey() {
+            return key;
+        }
+        
+        public String getMessage() {
+            return message;
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package com.pahanaedu.bookstore.model;
+
+import java.math.BigDecimal;
+
+/**
+ * Units and revenue of one item over a date range, read from the daily summary tables
+ */
+public class ItemSalesSummary {
+    private final int itemId;
+    private final String sku;
+    private final String name;
+    private final long qty;
+    private final BigDecimal revenue;
+    private final long lineCount;
+    
+    public ItemSalesSummary(int itemId, String sku, String name, long qty, BigDecimal revenue, long lineCount) {
+        this.itemId = itemId;
+        this.sku = sku;
+        this.name = name;
+        this.qty = qty;
+        this.revenue = revenue;
+        this.lineCount = lineCount;
+    }
+    
+    public int getItemId() {
+        return itemId;
+    }
+    
+    public String getSku() {
+        return sku;
+    }
+    
+    public String getName() {
+        return name;
+    }
+    
+    public long getQty() {
+        return qty;
+    }
+    
+    public BigDecimal getRevenue() {
+        return revenue;
+    }
+    
+    public long getLineCount() {
+        return lineCount;
+    }
+}
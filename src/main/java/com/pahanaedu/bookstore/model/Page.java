@@ -0,0 +1,114 @@
+package com.pahanaedu.bookstore.model;
+
+import com.pahanaedu.bookstore.util.PageCursor;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * One page of a keyset-paginated listing, with cursor tokens for the neighbouring pages
+ * @param <T> the row type
+ */
+public class Page<T> {
+    
+    public static final int DEFAULT_SIZE = 50;
+    public static final int MAX_SIZE = 200;
+    
+    private final List<T> items;
+    private final int pageSize;
+    private final String nextCursor;
+    private final String previousCursor;
+    
+    private Page(List<T> items, int pageSize, String nextCursor, String previousCursor) {
+        this.items = items;
+        this.pageSize = pageSize;
+        this.nextCursor = nextCursor;
+        this.previousCursor = previousCursor;
+    }
+    
+    /**
+     * Build a page from rows fetched in scan order with one extra row as a look-ahead
+     * @param rows up to pageSize + 1 rows, in the order the query returned them
+     * @param pageSize requested page size
+     * @param cursor the cursor the rows were fetched with, or null for the first page
+     * @param sortKey sort key values of a row, as passed to PageCursor
+     * @param <T> the row type
+     * @return the page, in display order
+     */
+    public static <T> Page<T> of(List<T> rows, int pageSize, PageCursor cursor, Function<T, String[]> sortKey) {
+        boolean more = rows.size() > pageSize;
+        List<T> items = new ArrayList<>(more ? rows.subList(0, pageSize) : rows);
+        boolean backward = cursor != null && cursor.isBackward();
+        if (backward) {
+            Collections.reverse(items);
+        }
+        if (items.isEmpty()) {
+            return new Page<>(items, pageSize, null, null);
+        }
+        
+        String[] firstKey = sortKey.apply(items.get(0));
+        String[] lastKey = sortKey.apply(items.get(items.size() - 1));
+        
+        // Going forward, a previous page exists whenever a cursor was used; going backward,
+        // a next page always exists because that is where the reader came from
+        boolean hasNext = backward || more;
+        boolean hasPrevious = backward ? more : cursor != null;
+        return new Page<>(Collections.unmodifiableList(items), pageSize,
+                hasNext ? PageCursor.after(lastKey) : null,
+                hasPrevious ? PageCursor.before(firstKey) : null);
+    }
+    
+    /**
+     * Clamp a requested page size to the allowed range
+     * @param requested requested size, or null for the default
+     * @return a size between 1 and MAX_SIZE
+     */
+    public static int clampSize(Integer requested) {
+        if (requested == null || requested <= 0) {
+            return DEFAULT_SIZE;
+        }
+        return Math.min(requested, MAX_SIZE);
+    }
+    
+    /**
+     * Parse a page size request parameter
+     * @param value the parameter value
+     * @return the size, or null if absent or not a number
+     */
+    public static Integer parseSize(String value) {
+        if (value == null || value.isBlank()) {
+            return null;
+        }
+        try {
+            return Integer.valueOf(value.trim());
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+    
+    public List<T> getItems() {
+        return items;
+    }
+    
+    public int getPageSize() {
+        return pageSize;
+    }
+    
+    public String getNextCursor() {
+        return nextCursor;
+    }
+    
+    public String getPreviousCursor() {
+        return previousCursor;
+    }
+    
+    public boolean isHasNext() {
+        return nextCursor != null;
+    }
+    
+    public boolean isHasPrevious() {
+        return previousCursor != null;
+    }
+}
@@ -3,16 +3,22 @@ package com.pahanaedu.bookstore.service;
 import com.pahanaedu.bookstore.dao.UserDao;
 import com.pahanaedu.bookstore.dao.UserDaoImpl;
 import com.pahanaedu.bookstore.model.User;
+import com.pahanaedu.bookstore.util.PasswordHasher;
 import com.pahanaedu.bookstore.util.PasswordUtil;
 
 import java.util.Optional;
 
 public class AuthService {
     
+    // Verified when the username is unknown, so a miss costs as much as a wrong password
+    private static final String DUMMY_HASH = PasswordUtil.hashPassword(PasswordUtil.generateRandomPassword(16));
+    
     private final UserDao userDao;
+    private final PasswordHasher passwordHasher;
     
     public AuthService() {
         this.userDao = new UserDaoImpl();
+        this.passwordHasher = PasswordHasher.getInstance();
     }
     
     /**
@@ -20,6 +26,7 @@ public class AuthService {
      * @param username the username
      * @param password the plain text password
      * @return Optional containing the user if authentication succeeds
+     * @throws IllegalStateException if too many logins are being hashed at once
      */
     public Optional<User> login(String username, String password) {
         if (username == null || username.trim().isEmpty() || 
@@ -29,14 +36,27 @@ public class AuthService {
         
         Optional<User> userOpt = userDao.findByUsername(username.trim());
         
-        if (userOpt.isPresent()) {
-            User user = userOpt.get();
-            if (PasswordUtil.verifyPassword(password, user.getPasswordHash())) {
-                return Optional.of(user);
-            }
+        if (userOpt.isEmpty()) {
+            passwordHasher.verify(password, DUMMY_HASH);
+            return Optional.empty();
         }
         
-        return Optional.empty();
+        User user = userOpt.get();
+        if (!passwordHasher.verify(password, user.getPasswordHash())) {
+            return Optional.empty();
+        }
+        
+        // Upgrade legacy or under-cost hashes now that the plain password is known
+        if (PasswordUtil.needsRehash(user.getPasswordHash())) {
+            try {
+                user.setPasswordHash(passwordHasher.hash(password));
+                userDao.update(user);
+            } catch (RuntimeException e) {
+                // Keep the old hash; the upgrade is retried on the next login
+                System.err.println("ERROR AuthService: Failed to rehash password for '" + user.getUsername() + "': " + e.getMessage());
+            }
+        }
+        return Optional.of(user);
     }
     
     /**
@@ -66,7 +86,7 @@ public class AuthService {
         }
         
         // Hash the password
-        String passwordHash = PasswordUtil.hashPassword(password);
+        String passwordHash = passwordHasher.hash(password);
         
         // Create and save user
         User user = new User(username.trim(), passwordHash, role.toUpperCase());
@@ -87,9 +107,9 @@ public class AuthService {
             User user = userOpt.get();
             
             // Verify current password
-            if (PasswordUtil.verifyPassword(currentPassword, user.getPasswordHash())) {
+            if (passwordHasher.verify(currentPassword, user.getPasswordHash())) {
                 // Hash new password and update
-                String newPasswordHash = PasswordUtil.hashPassword(newPassword);
+                String newPasswordHash = passwordHasher.hash(newPassword);
                 user.setPasswordHash(newPasswordHash);
                 userDao.update(user);
                 return true;
@@ -2,37 +2,57 @@ package com.pahanaedu.bookstore.service;
 
 import com.pahanaedu.bookstore.dao.BillDao;
 import com.pahanaedu.bookstore.dao.BillDaoImpl;
-import com.pahanaedu.bookstore.dao.CustomerDao;
-import com.pahanaedu.bookstore.dao.CustomerDaoImpl;
-import com.pahanaedu.bookstore.dao.ItemDao;
-import com.pahanaedu.bookstore.dao.ItemDaoImpl;
 import com.pahanaedu.bookstore.model.Bill;
 import com.pahanaedu.bookstore.model.BillItem;
+import com.pahanaedu.bookstore.model.BillView;
 import com.pahanaedu.bookstore.model.Customer;
 import com.pahanaedu.bookstore.model.Item;
+import com.pahanaedu.bookstore.model.Page;
+import com.pahanaedu.bookstore.util.AppConfig;
+import com.pahanaedu.bookstore.util.BoundedCache;
 import com.pahanaedu.bookstore.util.DataSourceSingleton;
+import com.pahanaedu.bookstore.util.PageCursor;
 
 import javax.sql.DataSource;
+import java.io.IOException;
 import java.math.BigDecimal;
 import java.sql.Connection;
 import java.sql.SQLException;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
 
 public class BillingService {
     
+    // Finalized bills by bill number as stored, shared by every BillingService instance. Bills
+    // do not change after createBill commits, so entries never expire; only updateBill and
+    // deleteBill drop them. Customer and item details are not taken from here (see
+    // withCurrentDetails)
+    private static final BoundedCache<String, BillView> billsByNo = new BoundedCache<>("bills.byNo",
+            AppConfig.getInstance().getInt("cache.bills.maxSize", 5000), 0);
+    
+    // Bumped on every bill update or delete; a load that started before one is not cached
+    private static final AtomicLong billsVersion = new AtomicLong();
+    
+    private static final int DEFAULT_ROLLUP_DAYS = 7;
+    private static final int DEFAULT_ROLLUP_LAG_SECONDS = 30;
+    
     private final BillDao billDao;
-    private final CustomerDao customerDao;
-    private final ItemDao itemDao;
+    private final CustomerService customerService;
+    private final ItemService itemService;
     private final DataSource dataSource;
+    private final SalesRollup salesRollup;
     
     public BillingService() {
         this.billDao = new BillDaoImpl();
-        this.customerDao = new CustomerDaoImpl();
-        this.itemDao = new ItemDaoImpl();
+        this.customerService = new CustomerService();
+        this.itemService = new ItemService();
         this.dataSource = DataSourceSingleton.getInstance();
+        this.salesRollup = SalesRollup.getInstance();
     }
     
     /**
@@ -45,28 +65,43 @@ public class BillingService {
     public String createBill(String customerAccountNumber, List<BillItemRequest> billItems) {
         validateCreateBillRequest(customerAccountNumber, billItems);
         
+        // Verify customer exists (served from the customer cache on repeat visits)
+        Optional<Customer> customerOpt = customerService.findByAccountNumber(customerAccountNumber);
+        if (customerOpt.isEmpty()) {
+            throw new IllegalArgumentException("Customer not found with account number: " + customerAccountNumber);
+        }
+        
+        // Cart lines come from the item catalog cache; only uncached items are loaded,
+        // all of them in one query
+        List<Integer> itemIds = new ArrayList<>(billItems.size());
+        for (BillItemRequest request : billItems) {
+            itemIds.add(request.getItemId());
+        }
+        Map<Integer, Item> itemsById = itemService.findByIds(itemIds);
+        
+        // Allocate the bill number before taking the transaction connection: block
+        // reservation uses its own short-lived connection and must not wait on the pool
+        // while this request already holds one
+        String billNo = billDao.generateBillNumber();
+        
         Connection conn = null;
         try {
             conn = dataSource.getConnection();
             conn.setAutoCommit(false);
             
-            // Verify customer exists
-            Optional<Customer> customerOpt = customerDao.findByAccountNumber(customerAccountNumber);
-            if (customerOpt.isEmpty()) {
-                throw new IllegalArgumentException("Customer not found with account number: " + customerAccountNumber);
-            }
+            // All writes below run on this one connection so the bill is atomic and a
+            // checkout never holds more than one pooled connection
             
             // Calculate total and create bill items
             List<BillItem> validatedBillItems = new ArrayList<>();
             BigDecimal total = BigDecimal.ZERO;
             
             for (BillItemRequest request : billItems) {
-                Optional<Item> itemOpt = itemDao.findById(request.getItemId());
-                if (itemOpt.isEmpty()) {
+                Item item = itemsById.get(request.getItemId());
+                if (item == null) {
                     throw new IllegalArgumentException("Item not found with ID: " + request.getItemId());
                 }
                 
-                Item item = itemOpt.get();
                 if (!item.isActive()) {
                     throw new IllegalArgumentException("Item is not active: " + item.getName());
                 }
@@ -82,9 +117,6 @@ public class BillingService {
                 validatedBillItems.add(billItem);
             }
             
-            // Generate bill number
-            String billNo = billDao.generateBillNumber();
-            
             // Create bill
             Bill bill = new Bill();
             bill.setBillNo(billNo);
@@ -92,15 +124,21 @@ public class BillingService {
             bill.setBillDate(LocalDateTime.now());
             bill.setTotal(total);
             
-            bill = billDao.save(bill);
+            bill = billDao.save(conn, bill);
             
-            // Save bill items
+            // Save bill items in one batch
             for (BillItem billItem : validatedBillItems) {
                 billItem.setBillId(bill.getId());
-                billDao.saveBillItem(billItem);
             }
+            billDao.saveBillItems(conn, validatedBillItems);
             
             conn.commit();
+            
+            // Cache the receipt now so the print and any reprint are served from memory,
+            // and count it in the dashboard totals
+            BillView view = toBillView(bill, customerOpt.get(), validatedBillItems, itemsById);
+            billsByNo.put(billNo, view);
+            salesRollup.recordBill(view);
             return billNo;
             
         } catch (SQLException e) {
@@ -154,6 +192,66 @@ public class BillingService {
         return billDao.findByBillNo(billNo.trim());
     }
     
+    /**
+     * Find a bill for display, with its customer and lines, in one query
+     * @param billNo the bill number
+     * @return Optional containing the bill view if found
+     */
+    public Optional<BillView> findBillView(String billNo) {
+        if (billNo == null || billNo.trim().isEmpty()) {
+            return Optional.empty();
+        }
+        
+        String key = billNo.trim();
+        BillView cached = billsByNo.get(key);
+        if (cached != null) {
+            return Optional.of(withCurrentDetails(cached));
+        }
+        
+        long version = billsVersion.get();
+        Optional<BillView> billOpt = billDao.findBillWithItems(key);
+        billOpt.ifPresent(bill -> {
+            // Cache under the stored number, which is what updateBill and deleteBill invalidate;
+            // a lookup that differs only in case is a miss rather than an entry nobody drops
+            String storedNo = bill.getBillNo();
+            if (billsVersion.get() == version) {
+                billsByNo.put(storedNo, bill);
+                // An update or delete that landed between the check and the put is undone here
+                if (billsVersion.get() != version) {
+                    billsByNo.invalidate(storedNo);
+                }
+            }
+        });
+        return billOpt;
+    }
+    
+    /**
+     * A bill always shows the customer's and items' current details, as a database load does,
+     * whether or not it was served from the cache; the lookups hit the customer and item caches
+     */
+    private BillView withCurrentDetails(BillView bill) {
+        BillView.CustomerSnapshot stored = bill.getCustomer();
+        BillView.CustomerSnapshot customer = customerService.findByAccountNumber(stored.getAccountNumber())
+                .map(c -> new BillView.CustomerSnapshot(c.getAccountNumber(), c.getName(), c.getAddress(),
+                        c.getPhone(), true))
+                .orElseGet(() -> new BillView.CustomerSnapshot(stored.getAccountNumber(), null, null, null, false));
+        
+        List<Integer> itemIds = new ArrayList<>();
+        for (BillView.Line line : bill.getLines()) {
+            itemIds.add(line.getItemId());
+        }
+        Map<Integer, Item> itemsById = itemService.findByIds(itemIds);
+        
+        List<BillView.Line> lines = new ArrayList<>(bill.getLines().size());
+        for (BillView.Line line : bill.getLines()) {
+            Item item = itemsById.get(line.getItemId());
+            lines.add(new BillView.Line(line.getItemId(),
+                    item != null ? item.getSku() : null, item != null ? item.getName() : null,
+                    line.getQty(), line.getUnitPrice(), line.getLineTotal()));
+        }
+        return new BillView(bill.getId(), bill.getBillNo(), bill.getBillDate(), bill.getTotal(), customer, lines);
+    }
+    
     /**
      * Find bills by customer account number
      * @param customerAccountNumber the customer account number
@@ -171,6 +269,40 @@ public class BillingService {
         return billDao.findAll();
     }
     
+    /**
+     * Get one page of bills, newest first
+     * @param cursor cursor token from a previous page, or null for the first page
+     * @param pageSize requested page size, or null for the default
+     * @return the page
+     * @throws IllegalArgumentException if the cursor is malformed
+     */
+    public Page<Bill> getBillsPage(String cursor, Integer pageSize) {
+        PageCursor pageCursor = PageCursor.parse(cursor, 2);
+        int size = Page.clampSize(pageSize);
+        List<Bill> rows = billDao.findPage(pageCursor, size + 1);
+        return Page.of(rows, size, pageCursor,
+                bill -> new String[] { String.valueOf(bill.getBillDate()), String.valueOf(bill.getId()) });
+    }
+    
+    /**
+     * Stream all bill lines for a range of bill dates
+     * @param fromDate first bill date to include
+     * @param toDate last bill date to include
+     * @param handler receives each row as it is read
+     * @throws IllegalArgumentException if the range is empty
+     * @throws IOException if the handler fails to write a row
+     */
+    public void exportBillLines(LocalDate fromDate, LocalDate toDate, BillDao.ExportRowHandler handler)
+            throws IOException {
+        if (fromDate == null || toDate == null) {
+            throw new IllegalArgumentException("Both from and to dates are required");
+        }
+        if (toDate.isBefore(fromDate)) {
+            throw new IllegalArgumentException("The to date must not be before the from date");
+        }
+        billDao.streamBillLines(fromDate.atStartOfDay(), toDate.plusDays(1).atStartOfDay(), handler);
+    }
+    
     /**
      * Delete a bill by ID
      * @param id the bill ID to delete
@@ -182,7 +314,106 @@ public class BillingService {
             throw new IllegalArgumentException("Bill not found with ID: " + id);
         }
         
+        Optional<BillView> recorded = findBillView(billOpt.get().getBillNo());
         billDao.deleteById(id);
+        invalidate(billOpt.get().getBillNo(), null);
+        recorded.ifPresent(salesRollup::removeBill);
+    }
+    
+    /**
+     * Update a bill header
+     * @param bill the bill to update
+     * @return the updated bill
+     * @throws IllegalArgumentException if bill not found
+     */
+    public Bill updateBill(Bill bill) {
+        Optional<Bill> existing = billDao.findById(bill.getId());
+        if (existing.isEmpty()) {
+            throw new IllegalArgumentException("Bill not found with ID: " + bill.getId());
+        }
+        
+        Optional<BillView> recorded = findBillView(existing.get().getBillNo());
+        Bill updated = billDao.update(bill);
+        invalidate(existing.get().getBillNo(), bill.getBillNo());
+        
+        // Lines are not changed by a header update, so the new totals reuse them
+        recorded.ifPresent(old -> {
+            salesRollup.removeBill(old);
+            salesRollup.recordBill(new BillView(updated.getId(), updated.getBillNo(), updated.getBillDate(),
+                    updated.getTotal(), old.getCustomer(), old.getLines()));
+        });
+        return updated;
+    }
+    
+    /**
+     * Reload the dashboard sales totals from bills and bill_items, streaming the lines of
+     * the last dashboard.rollupDays days in one query
+     * @throws IOException if loading fails; the previous totals are kept
+     */
+    public void rebuildSalesRollup() throws IOException {
+        int days = AppConfig.getInstance().getInt("dashboard.rollupDays", DEFAULT_ROLLUP_DAYS);
+        int settledBillId = billDao.findLastSettledBillId(getRollupLagSeconds());
+        salesRollup.rebuild(days, settledBillId, (from, handler) ->
+                billDao.streamBillLines(from, LocalDate.now().plusDays(1).atStartOfDay(), handler));
+    }
+    
+    /**
+     * Fold bills created on any node since the last run into the dashboard sales totals, or
+     * load the totals if they are not loaded yet. Bills younger than dashboard.lagSeconds
+     * wait for a later run, so one whose transaction has not committed yet is not skipped.
+     * @throws IOException if loading fails; the totals are left unchanged
+     */
+    public void catchUpSalesRollup() throws IOException {
+        if (!salesRollup.isReady()) {
+            rebuildSalesRollup();
+            return;
+        }
+        salesRollup.catchUp(billDao.findLastSettledBillId(getRollupLagSeconds()), billDao::streamBillLinesById);
+    }
+    
+    private static int getRollupLagSeconds() {
+        return AppConfig.getInstance().getInt("dashboard.lagSeconds", DEFAULT_ROLLUP_LAG_SECONDS);
+    }
+    
+    /**
+     * Get the dashboard sales totals, served from memory
+     * @param topN how many best-selling items to list
+     * @return today's and recent days' totals and top items
+     */
+    public Map<String, Object> getSalesStats(int topN) {
+        return salesRollup.snapshot(topN);
+    }
+    
+    /**
+     * Get finalized bill cache statistics
+     * @return hit/miss/eviction counters for the bill cache
+     */
+    public Map<String, Object> getCacheStats() {
+        return billsByNo.getStats();
+    }
+    
+    private static void invalidate(String oldBillNo, String newBillNo) {
+        billsVersion.incrementAndGet();
+        billsByNo.invalidate(oldBillNo);
+        billsByNo.invalidate(newBillNo);
+    }
+    
+    /**
+     * Build the view of a bill that was just created from the data already in hand,
+     * so caching it costs no extra query
+     */
+    private static BillView toBillView(Bill bill, Customer customer, List<BillItem> billItems,
+                                       Map<Integer, Item> itemsById) {
+        BillView.CustomerSnapshot snapshot = new BillView.CustomerSnapshot(customer.getAccountNumber(),
+                customer.getName(), customer.getAddress(), customer.getPhone(), true);
+        
+        List<BillView.Line> lines = new ArrayList<>(billItems.size());
+        for (BillItem billItem : billItems) {
+            Item item = itemsById.get(billItem.getItemId());
+            lines.add(new BillView.Line(item.getId(), item.getSku(), item.getName(), billItem.getQty(),
+                    billItem.getUnitPrice(), billItem.getLineTotal()));
+        }
+        return new BillView(bill.getId(), bill.getBillNo(), bill.getBillDate(), bill.getTotal(), snapshot, lines);
     }
     
     /**
@@ -0,0 +1,284 @@
+package com.pahanaedu.bookstore.service;
+
+import com.pahanaedu.bookstore.model.Customer;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.function.Supplier;
+
+/**
+ * In-memory customer typeahead index that reproduces the ordering and LIMIT of
+ * CustomerDaoImpl.search:
+ * 1 exact account number, 2 account number prefix, 3 name prefix, 4 name contains,
+ * 5 account number contains, ties broken by name.
+ * Account numbers and names are kept in sorted maps, so ranks 1-3 are range lookups and
+ * the name-ordered map lets ranks 4-5 stop scanning as soon as the page is full.
+ * Reads are lock-free; writes are serialized on the index.
+ * Customers registered or edited on other nodes arrive with the periodic rebuild scheduled
+ * by AppLifecycleListener.
+ */
+public class CustomerSearchIndex {
+    
+    // Above this many account-prefix matches it is cheaper to walk names in order
+    private static final int ACCOUNT_RANGE_SORT_LIMIT = 512;
+    private static final char RANGE_END = '\uffff';
+    
+    private static final CustomerSearchIndex instance = new CustomerSearchIndex();
+    
+    private volatile State state = new State();
+    private volatile boolean ready;
+    private List<Customer> pendingDuringRebuild;
+    private final Object rebuildLock = new Object();
+    
+    private CustomerSearchIndex() {}
+    
+    public static CustomerSearchIndex getInstance() {
+        return instance;
+    }
+    
+    /**
+     * @return true once the index has been built and can serve searches
+     */
+    public boolean isReady() {
+        return ready;
+    }
+    
+    /**
+     * Replace the index contents with freshly loaded customers.
+     * Writes are captured from before the load starts and replayed onto the new index, so a
+     * change committed while the (slow) load runs is never lost. Rebuilds run one at a time.
+     * @param loader loads all customers
+     */
+    public void rebuild(Supplier<? extends Collection<Customer>> loader) {
+        synchronized (rebuildLock) {
+            synchronized (this) {
+                pendingDuringRebuild = new ArrayList<>();
+            }
+            
+            State fresh = new State();
+            try {
+                for (Customer customer : loader.get()) {
+                    fresh.put(customer);
+                }
+            } catch (RuntimeException e) {
+                synchronized (this) {
+                    pendingDuringRebuild = null;
+                }
+                throw e;
+            }
+            
+            synchronized (this) {
+                for (Customer customer : pendingDuringRebuild) {
+                    if (customer.getName() == null) {
+                        fresh.remove(customer.getId());
+                    } else {
+                        fresh.put(customer);
+                    }
+                }
+                pendingDuringRebuild = null;
+                state = fresh;
+                ready = true;
+            }
+        }
+    }
+    
+    /**
+     * Add or refresh a customer
+     * @param customer the customer's current state
+     */
+    public synchronized void put(Customer customer) {
+        if (customer.getName() == null) {
+            return;
+        }
+        state.put(customer);
+        if (pendingDuringRebuild != null) {
+            pendingDuringRebuild.add(copyOf(customer));
+        }
+    }
+    
+    /**
+     * Remove a customer from the index
+     * @param id the customer ID
+     */
+    public synchronized void remove(int id) {
+        state.remove(id);
+        if (pendingDuringRebuild != null) {
+            Customer removed = new Customer();
+            removed.setId(id);
+            pendingDuringRebuild.add(removed);
+        }
+    }
+    
+    /**
+     * Search customers by account number or name
+     * @param query the search query
+     * @param limit maximum number of results
+     * @return ranked matching customers (copies)
+     */
+    public List<Customer> search(String query, int limit) {
+        List<Customer> results = new ArrayList<>();
+        if (query == null || limit <= 0) {
+            return results;
+        }
+        String q = query.trim().toLowerCase(Locale.ROOT);
+        if (q.isEmpty()) {
+            return results;
+        }
+        
+        State current = state;
+        List<Indexed> ranked = new ArrayList<>(limit);
+        Set<Integer> taken = new HashSet<>();
+        
+        // Rank 1: exact account number
+        Indexed exact = current.byAccount.get(q);
+        if (exact != null) {
+            ranked.add(exact);
+            taken.add(exact.id);
+        }
+        
+        // Rank 2: account number prefix, ordered by name
+        List<Indexed> accountPrefix = new ArrayList<>();
+        boolean accountRangeTooLarge = false;
+        for (Indexed entry : current.byAccount.subMap(q, true, q + RANGE_END, true).values()) {
+            if (taken.contains(entry.id)) {
+                continue;
+            }
+            if (accountPrefix.size() >= ACCOUNT_RANGE_SORT_LIMIT) {
+                accountRangeTooLarge = true;
+                break;
+            }
+            accountPrefix.add(entry);
+        }
+        if (accountRangeTooLarge) {
+            // Dense prefix such as "acc": walk names in order and stop once the page is full
+            for (Indexed entry : current.byName.values()) {
+                if (ranked.size() >= limit) {
+                    break;
+                }
+                if (!taken.contains(entry.id) && entry.accountLower.startsWith(q)) {
+                    ranked.add(entry);
+                    taken.add(entry.id);
+                }
+            }
+            return toCustomers(ranked, limit);
+        }
+        accountPrefix.sort(Indexed.BY_NAME);
+        for (Indexed entry : accountPrefix) {
+            ranked.add(entry);
+            taken.add(entry.id);
+        }
+        if (ranked.size() >= limit) {
+            return toCustomers(ranked, limit);
+        }
+        
+        // Rank 3: name prefix, already in name order
+        for (Indexed entry : current.byName.subMap(q, true, q + RANGE_END, true).values()) {
+            if (ranked.size() >= limit) {
+                return toCustomers(ranked, limit);
+            }
+            if (taken.add(entry.id)) {
+                ranked.add(entry);
+            }
+        }
+        
+        // Ranks 4 and 5: substring matches, found by walking names in order
+        int needed = limit - ranked.size();
+        List<Indexed> nameContains = new ArrayList<>(needed);
+        List<Indexed> accountContains = new ArrayList<>(needed);
+        for (Indexed entry : current.byName.values()) {
+            if (nameContains.size() >= needed) {
+                break;
+            }
+            if (taken.contains(entry.id)) {
+                continue;
+            }
+            if (entry.nameLower.contains(q)) {
+                nameContains.add(entry);
+            } else if (accountContains.size() < needed && entry.accountLower.contains(q)) {
+                accountContains.add(entry);
+            }
+        }
+        ranked.addAll(nameContains);
+        ranked.addAll(accountContains);
+        return toCustomers(ranked, limit);
+    }
+    
+    /**
+     * @return number of indexed customers
+     */
+    public int size() {
+        return state.byId.size();
+    }
+    
+    private static List<Customer> toCustomers(List<Indexed> ranked, int limit) {
+        List<Customer> customers = new ArrayList<>(Math.min(limit, ranked.size()));
+        for (int i = 0; i < ranked.size() && i < limit; i++) {
+            customers.add(copyOf(ranked.get(i).customer));
+        }
+        return customers;
+    }
+    
+    private static Customer copyOf(Customer customer) {
+        Customer copy = new Customer();
+        copy.setId(customer.getId());
+        copy.setAccountNumber(customer.getAccountNumber());
+        copy.setName(customer.getName());
+        copy.setAddress(customer.getAddress());
+        copy.setPhone(customer.getPhone());
+        copy.setCreatedAt(customer.getCreatedAt());
+        copy.setUpdatedAt(customer.getUpdatedAt());
+        return copy;
+    }
+    
+    private static final class State {
+        private final ConcurrentHashMap<Integer, Indexed> byId = new ConcurrentHashMap<>();
+        private final ConcurrentSkipListMap<String, Indexed> byAccount = new ConcurrentSkipListMap<>();
+        private final ConcurrentSkipListMap<String, Indexed> byName = new ConcurrentSkipListMap<>();
+        
+        private void put(Customer customer) {
+            remove(customer.getId());
+            Indexed entry = new Indexed(customer);
+            byId.put(entry.id, entry);
+            byName.put(entry.nameKey, entry);
+            if (!entry.accountLower.isEmpty()) {
+                byAccount.put(entry.accountLower, entry);
+            }
+        }
+        
+        private void remove(int id) {
+            Indexed existing = byId.remove(id);
+            if (existing == null) {
+                return;
+            }
+            byName.remove(existing.nameKey);
+            byAccount.remove(existing.accountLower, existing);
+        }
+    }
+    
+    private static final class Indexed {
+        private static final Comparator<Indexed> BY_NAME = Comparator.comparing(e -> e.nameKey);
+        
+        private final int id;
+        private final Customer customer;
+        private final String accountLower;
+        private final String nameLower;
+        // Name followed by a fixed-width ID keeps duplicate names distinct and ordered
+        private final String nameKey;
+        
+        private Indexed(Customer customer) {
+            this.id = customer.getId();
+            this.customer = copyOf(customer);
+            this.accountLower = customer.getAccountNumber() != null
+                    ? customer.getAccountNumber().trim().toLowerCase(Locale.ROOT) : "";
+            this.nameLower = customer.getName().trim().toLowerCase(Locale.ROOT);
+            this.nameKey = nameLower + '\u0000' + String.format("%010d", id);
+        }
+    }
+}
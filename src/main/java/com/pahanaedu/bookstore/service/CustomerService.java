@@ -2,17 +2,57 @@ package com.pahanaedu.bookstore.service;
 
 import com.pahanaedu.bookstore.dao.CustomerDao;
 import com.pahanaedu.bookstore.dao.CustomerDaoImpl;
+import com.pahanaedu.bookstore.dao.DataVersionDao;
+import com.pahanaedu.bookstore.dao.DataVersionDaoImpl;
 import com.pahanaedu.bookstore.model.Customer;
+import com.pahanaedu.bookstore.model.ImportResult;
+import com.pahanaedu.bookstore.model.Page;
+import com.pahanaedu.bookstore.util.AppConfig;
+import com.pahanaedu.bookstore.util.BoundedCache;
+import com.pahanaedu.bookstore.util.CsvImporter;
+import com.pahanaedu.bookstore.util.DataSourceSingleton;
+import com.pahanaedu.bookstore.util.PageCursor;
 
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.io.Reader;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
 
 public class CustomerService {
     
+    // Account-number lookups happen on every bill; shared across instances so that
+    // updates and deletes through any servlet invalidate the same entries
+    private static final BoundedCache<String, Customer> customersByAccount = new BoundedCache<>("customers.byAccount",
+            AppConfig.getInstance().getInt("cache.customers.maxSize", 50000),
+            AppConfig.getInstance().getLong("cache.customers.ttlSeconds", 300));
+    
+    // Bumped on every customer write; a load that started before a write is not cached
+    private static final AtomicLong customerVersion = new AtomicLong();
+    
+    // Bumped once a write is visible to searches; response ETags carry it, so a new tag is
+    // never paired with results from before the write
+    private static final AtomicLong publishedVersion = new AtomicLong();
+    
+    // Shared customer version (data_version) read before the search index was last loaded;
+    // writes on any node bump it, and the refresher reloads when it no longer matches
+    private static volatile long indexedVersion = -1;
+    
+    private static final String VERSION_NAME = "CUSTOMERS";
+    private static final int DEFAULT_SEARCH_LIMIT = 15;
+    
     private final CustomerDao customerDao;
+    private final DataVersionDao dataVersionDao;
+    private final CustomerSearchIndex searchIndex;
+    private final DataSource dataSource;
     
     public CustomerService() {
         this.customerDao = new CustomerDaoImpl();
+        this.dataVersionDao = new DataVersionDaoImpl();
+        this.searchIndex = CustomerSearchIndex.getInstance();
+        this.dataSource = DataSourceSingleton.getInstance();
     }
     
     /**
@@ -23,7 +63,11 @@ public class CustomerService {
      */
     public Customer createCustomer(Customer customer) {
         validateCustomer(customer);
-        return customerDao.save(customer);
+        Customer saved = customerDao.save(customer);
+        recordChange();
+        searchIndex.put(saved);
+        publishedVersion.incrementAndGet();
+        return saved;
     }
     
     /**
@@ -49,7 +93,12 @@ public class CustomerService {
         Customer existing = existingOpt.get();
         customer.setAccountNumber(existing.getAccountNumber());
         
-        return customerDao.update(customer);
+        Customer updated = customerDao.update(customer);
+        recordChange();
+        invalidate(existing.getAccountNumber());
+        searchIndex.put(updated);
+        publishedVersion.incrementAndGet();
+        return updated;
     }
     
     /**
@@ -70,7 +119,25 @@ public class CustomerService {
         if (accountNumber == null || accountNumber.trim().isEmpty()) {
             return Optional.empty();
         }
-        return customerDao.findByAccountNumber(accountNumber.trim());
+        String key = accountNumber.trim();
+        Customer cached = customersByAccount.get(key);
+        if (cached != null) {
+            return Optional.of(copyOf(cached));
+        }
+        
+        long version = customerVersion.get();
+        Optional<Customer> customerOpt = customerDao.findByAccountNumber(key);
+        if (customerOpt.isPresent() && customerVersion.get() == version) {
+            // Cache under the stored account number, which is what writes invalidate; a lookup
+            // that differs only in case is a miss rather than an entry nobody drops
+            String storedKey = customerOpt.get().getAccountNumber().trim();
+            customersByAccount.put(storedKey, copyOf(customerOpt.get()));
+            // An update or delete that landed between the check and the put is undone here
+            if (customerVersion.get() != version) {
+                customersByAccount.invalidate(storedKey);
+            }
+        }
+        return customerOpt;
     }
     
     /**
@@ -79,20 +146,31 @@ public class CustomerService {
      * @return list of matching customers
      */
     public List<Customer> searchCustomers(String query) {
-        System.out.println("DEBUG CustomerService: searchCustomers called with query: " + query);
-        
+        return searchCustomers(query, DEFAULT_SEARCH_LIMIT);
+    }
+    
+    /**
+     * Search customers by query (account number or name), served from the in-memory
+     * search index once it is built and from the database while it is still cold
+     * @param query the search query
+     * @param limit maximum number of results
+     * @return list of matching customers, best matches first
+     */
+    public List<Customer> searchCustomers(String query, int limit) {
         if (query == null || query.trim().isEmpty()) {
-            System.out.println("DEBUG CustomerService: Empty query, returning empty list");
             return List.of();
         }
         
+        if (searchIndex.isReady()) {
+            return searchIndex.search(query, limit);
+        }
+        
         try {
-            System.out.println("DEBUG CustomerService: Calling customerDao.search");
             List<Customer> result = customerDao.search(query.trim());
-            System.out.println("DEBUG CustomerService: DAO returned " + (result != null ? result.size() : "null") + " customers");
-            
-            // Return actual database results
-            return result != null ? result : List.of();
+            if (result == null) {
+                return List.of();
+            }
+            return result.size() > limit ? result.subList(0, limit) : result;
         } catch (Exception e) {
             System.err.println("ERROR CustomerService: Exception in searchCustomers: " + e.getMessage());
             e.printStackTrace();
@@ -102,6 +180,32 @@ public class CustomerService {
         }
     }
     
+    /**
+     * Rebuild the in-memory customer search index from all customers
+     */
+    public void rebuildSearchIndex() {
+        // Read first: every write counted in this version is committed, so the load sees it
+        long version = dataVersionDao.get(VERSION_NAME);
+        searchIndex.rebuild(customerDao::findAll);
+        indexedVersion = version;
+        publishedVersion.incrementAndGet();
+    }
+    
+    /**
+     * Reload the customer cache and search index if customers have been written (on any
+     * node) since the index was last loaded
+     * @return true if they were reloaded
+     */
+    public boolean refreshIfChanged() {
+        if (dataVersionDao.get(VERSION_NAME) == indexedVersion) {
+            return false;
+        }
+        customerVersion.incrementAndGet();
+        customersByAccount.invalidateAll();
+        rebuildSearchIndex();
+        return true;
+    }
+    
     /**
      * Get all customers
      * @return list of all customers
@@ -110,6 +214,21 @@ public class CustomerService {
         return customerDao.findAll();
     }
     
+    /**
+     * Get one page of customers ordered by name
+     * @param cursor cursor token from a previous page, or null for the first page
+     * @param pageSize requested page size, or null for the default
+     * @return the page
+     * @throws IllegalArgumentException if the cursor is malformed
+     */
+    public Page<Customer> getCustomersPage(String cursor, Integer pageSize) {
+        PageCursor pageCursor = PageCursor.parse(cursor, 2);
+        int size = Page.clampSize(pageSize);
+        List<Customer> rows = customerDao.findPage(pageCursor, size + 1);
+        return Page.of(rows, size, pageCursor,
+                customer -> new String[] { customer.getName(), String.valueOf(customer.getId()) });
+    }
+    
     /**
      * Delete a customer by ID
      * @param id the customer ID to delete
@@ -122,6 +241,131 @@ public class CustomerService {
         }
         
         customerDao.deleteById(id);
+        recordChange();
+        invalidate(customerOpt.get().getAccountNumber());
+        searchIndex.remove(id);
+        publishedVersion.incrementAndGet();
+    }
+    
+    /**
+     * Bulk import customers from CSV with columns name, address and phone (address and phone
+     * may be empty); a header row is skipped. Rows are inserted in batches, one transaction per
+     * chunk, each with a freshly allocated account number. Rows failing validation are reported
+     * instead of aborting the import, and the search index is rebuilt once at the end.
+     * @param csv the CSV input, read as a stream
+     * @return row counts and rejected rows
+     * @throws IOException if the input cannot be read or is malformed
+     */
+    public ImportResult importCustomers(Reader csv) throws IOException {
+        ImportResult result = new ImportResult();
+        try {
+            new CsvImporter<>(dataSource, "name", this::parseImportRow, customerDao::saveBatch)
+                    .beforeEachChunk(this::assignAccountNumbers)
+                    .importFrom(csv, result);
+        } finally {
+            if (result.getImported() > 0) {
+                recordChange();
+                try {
+                    rebuildSearchIndex();
+                } finally {
+                    publishedVersion.incrementAndGet();
+                }
+            }
+        }
+        
+        return result;
+    }
+    
+    private Customer parseImportRow(List<String> record) {
+        if (record.size() > 3) {
+            throw new IllegalArgumentException("Expected up to 3 columns (name, address, phone) but found " + record.size());
+        }
+        
+        Customer customer = new Customer();
+        customer.setName(record.get(0).trim());
+        customer.setAddress(record.size() > 1 ? emptyToNull(record.get(1).trim()) : null);
+        customer.setPhone(record.size() > 2 ? emptyToNull(record.get(2).trim()) : null);
+        
+        validateCustomer(customer);
+        return customer;
+    }
+    
+    private static String emptyToNull(String value) {
+        return value.isEmpty() ? null : value;
+    }
+    
+    /**
+     * Give each row of an import chunk an account number. Runs before the chunk takes its
+     * connection, as the allocator may need one of its own.
+     */
+    private void assignAccountNumbers(List<Customer> chunk) {
+        String[] accountNumbers = customerDao.generateAccountNumbers(chunk.size());
+        for (int i = 0; i < chunk.size(); i++) {
+            chunk.get(i).setAccountNumber(accountNumbers[i]);
+        }
+    }
+    
+    /**
+     * Get the version of the customers searches are served from. It changes once a write made
+     * here, or one made on another node and picked up by a refresh, is visible to searches;
+     * search responses are tagged with it
+     * @return the current search version
+     */
+    public String getCustomerVersion() {
+        // Read the local counter first: it is bumped after indexedVersion is set
+        long published = publishedVersion.get();
+        return indexedVersion + "." + published;
+    }
+    
+    /**
+     * Get the shared customer version, which changes once a write committed on any node;
+     * responses read straight from the database are tagged with it
+     * @return the stored customer version
+     */
+    public long getStoredCustomerVersion() {
+        return dataVersionDao.get(VERSION_NAME);
+    }
+    
+    /**
+     * Get customer cache statistics
+     * @return size, hit ratio, eviction and expiration counters
+     */
+    public Map<String, Object> getCacheStats() {
+        return customersByAccount.getStats();
+    }
+    
+    /**
+     * Bump the shared customer version after a committed write. A failure is only logged: the
+     * write itself succeeded, and other nodes pick it up with the next recorded change.
+     */
+    private void recordChange() {
+        try {
+            dataVersionDao.increment(VERSION_NAME);
+        } catch (RuntimeException e) {
+            System.err.println("ERROR CustomerService: Failed to record customer change: " + e.getMessage());
+        }
+    }
+    
+    private static void invalidate(String accountNumber) {
+        customerVersion.incrementAndGet();
+        if (accountNumber != null) {
+            customersByAccount.invalidate(accountNumber.trim());
+        }
+    }
+    
+    /**
+     * Customers are mutable, so cached instances are never handed out directly
+     */
+    private static Customer copyOf(Customer customer) {
+        Customer copy = new Customer();
+        copy.setId(customer.getId());
+        copy.setAccountNumber(customer.getAccountNumber());
+        copy.setName(customer.getName());
+        copy.setAddress(customer.getAddress());
+        copy.setPhone(customer.getPhone());
+        copy.setCreatedAt(customer.getCreatedAt());
+        copy.setUpdatedAt(customer.getUpdatedAt());
+        return copy;
     }
     
     /**
@@ -0,0 +1,284 @@
+package com.pahanaedu.bookstore.service;
+
+import com.pahanaedu.bookstore.model.Item;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * In-memory trigram index over the SKU and name of every active item.
+ * Queries of three or more characters intersect to the rarest trigram's posting list and
+ * verify candidates with a substring check; shorter queries scan the (small) item map.
+ * Results use the same ranking as ItemDaoImpl.search: exact SKU, SKU prefix, name prefix,
+ * name contains, then anything else, ties broken by name.
+ * Reads are lock-free; writers and rebuilds are serialized on the index.
+ * Writes made through this JVM are applied immediately; writes made on other nodes arrive
+ * with the periodic rebuild scheduled by AppLifecycleListener.
+ */
+public class ItemSearchIndex {
+    
+    private static final int GRAM_LENGTH = 3;
+    
+    private static final ItemSearchIndex instance = new ItemSearchIndex();
+    
+    private volatile State state = new State();
+    private volatile boolean ready;
+    private List<Item> pendingDuringRebuild;
+    private final Object rebuildLock = new Object();
+    
+    private ItemSearchIndex() {}
+    
+    public static ItemSearchIndex getInstance() {
+        return instance;
+    }
+    
+    /**
+     * @return true once the index has been built and can serve searches
+     */
+    public boolean isReady() {
+        return ready;
+    }
+    
+    /**
+     * Replace the index contents with freshly loaded active items.
+     * Writes are captured from before the load starts and replayed onto the new index, so a
+     * change committed while the (slow) load runs is never lost. Rebuilds run one at a time.
+     * @param loader loads all active items
+     */
+    public void rebuild(Supplier<? extends Collection<Item>> loader) {
+        synchronized (rebuildLock) {
+            synchronized (this) {
+                pendingDuringRebuild = new ArrayList<>();
+            }
+            
+            State fresh = new State();
+            try {
+                for (Item item : loader.get()) {
+                    fresh.add(new IndexedItem(item));
+                }
+            } catch (RuntimeException e) {
+                synchronized (this) {
+                    pendingDuringRebuild = null;
+                }
+                throw e;
+            }
+            
+            synchronized (this) {
+                for (Item item : pendingDuringRebuild) {
+                    apply(fresh, item);
+                }
+                pendingDuringRebuild = null;
+                state = fresh;
+                ready = true;
+            }
+        }
+    }
+    
+    /**
+     * Add or refresh an item; inactive items are removed from the index
+     * @param item the item's current state
+     */
+    public synchronized void put(Item item) {
+        apply(state, item);
+        if (pendingDuringRebuild != null) {
+            pendingDuringRebuild.add(copyOf(item));
+        }
+    }
+    
+    /**
+     * Remove an item from the index
+     * @param id the item ID
+     */
+    public void remove(int id) {
+        Item removed = new Item();
+        removed.setId(id);
+        removed.setActive(false);
+        put(removed);
+    }
+    
+    /**
+     * Search active items by SKU or name
+     * @param query the search query
+     * @param limit maximum number of results
+     * @return ranked matching items (copies)
+     */
+    public List<Item> search(String query, int limit) {
+        List<Item> results = new ArrayList<>();
+        if (query == null || limit <= 0) {
+            return results;
+        }
+        String q = query.trim().toLowerCase(Locale.ROOT);
+        if (q.isEmpty()) {
+            return results;
+        }
+        
+        State current = state;
+        Comparator<Match> order = Comparator.comparingInt((Match m) -> m.rank)
+                .thenComparing(m -> m.entry.nameLower)
+                .thenComparingInt(m -> m.entry.item.getId());
+        // Max-heap on the ordering keeps only the best `limit` matches
+        PriorityQueue<Match> top = new PriorityQueue<>(limit + 1, order.reversed());
+        
+        if (q.length() < GRAM_LENGTH) {
+            for (IndexedItem entry : current.items.values()) {
+                offer(top, entry, q, limit);
+            }
+        } else {
+            Set<Integer> candidates = current.rarestPosting(q);
+            if (candidates == null) {
+                return results;
+            }
+            for (Integer id : candidates) {
+                IndexedItem entry = current.items.get(id);
+                if (entry != null) {
+                    offer(top, entry, q, limit);
+                }
+            }
+        }
+        
+        List<Match> matches = new ArrayList<>(top);
+        matches.sort(order);
+        for (Match match : matches) {
+            results.add(copyOf(match.entry.item));
+        }
+        return results;
+    }
+    
+    /**
+     * @return number of indexed items
+     */
+    public int size() {
+        return state.items.size();
+    }
+    
+    private static void apply(State target, Item item) {
+        target.remove(item.getId());
+        if (item.isActive() && item.getSku() != null && item.getName() != null) {
+            target.add(new IndexedItem(item));
+        }
+    }
+    
+    private static void offer(PriorityQueue<Match> top, IndexedItem entry, String q, int limit) {
+        int rank = rank(entry, q);
+        if (rank == 0) {
+            return;
+        }
+        top.offer(new Match(entry, rank));
+        if (top.size() > limit) {
+            top.poll();
+        }
+    }
+    
+    /**
+     * @return 1-5 following the SQL CASE ranking, or 0 if the item does not match
+     */
+    private static int rank(IndexedItem entry, String q) {
+        if (entry.skuLower.equals(q)) {
+            return 1;
+        }
+        if (entry.skuLower.startsWith(q)) {
+            return 2;
+        }
+        if (entry.nameLower.startsWith(q)) {
+            return 3;
+        }
+        if (entry.nameLower.contains(q)) {
+            return 4;
+        }
+        return entry.skuLower.contains(q) ? 5 : 0;
+    }
+    
+    private static Item copyOf(Item item) {
+        Item copy = new Item();
+        copy.setId(item.getId());
+        copy.setSku(item.getSku());
+        copy.setName(item.getName());
+        copy.setUnitPrice(item.getUnitPrice());
+        copy.setActive(item.isActive());
+        copy.setCreatedAt(item.getCreatedAt());
+        copy.setUpdatedAt(item.getUpdatedAt());
+        return copy;
+    }
+    
+    private static final class State {
+        private final ConcurrentHashMap<Integer, IndexedItem> items = new ConcurrentHashMap<>();
+        private final ConcurrentHashMap<String, Set<Integer>> postings = new ConcurrentHashMap<>();
+        
+        private void add(IndexedItem entry) {
+            items.put(entry.item.getId(), entry);
+            for (String gram : entry.grams()) {
+                postings.computeIfAbsent(gram, g -> ConcurrentHashMap.newKeySet()).add(entry.item.getId());
+            }
+        }
+        
+        private void remove(int id) {
+            IndexedItem existing = items.remove(id);
+            if (existing == null) {
+                return;
+            }
+            for (String gram : existing.grams()) {
+                postings.computeIfPresent(gram, (g, ids) -> {
+                    ids.remove(id);
+                    return ids.isEmpty() ? null : ids;
+                });
+            }
+        }
+        
+        private Set<Integer> rarestPosting(String q) {
+            Set<Integer> rarest = null;
+            for (int i = 0; i + GRAM_LENGTH <= q.length(); i++) {
+                Set<Integer> posting = postings.get(q.substring(i, i + GRAM_LENGTH));
+                if (posting == null) {
+                    return null;
+                }
+                if (rarest == null || posting.size() < rarest.size()) {
+                    rarest = posting;
+                }
+            }
+            return rarest;
+        }
+    }
+    
+    private static final class IndexedItem {
+        private final Item item;
+        private final String skuLower;
+        private final String nameLower;
+        
+        private IndexedItem(Item item) {
+            this.item = copyOf(item);
+            this.skuLower = item.getSku().trim().toLowerCase(Locale.ROOT);
+            this.nameLower = item.getName().trim().toLowerCase(Locale.ROOT);
+        }
+        
+        private Set<String> grams() {
+            Set<String> grams = new HashSet<>();
+            addGrams(grams, skuLower);
+            addGrams(grams, nameLower);
+            return grams;
+        }
+        
+        private static void addGrams(Set<String> grams, String text) {
+            for (int i = 0; i + GRAM_LENGTH <= text.length(); i++) {
+                grams.add(text.substring(i, i + GRAM_LENGTH));
+            }
+        }
+    }
+    
+    private static final class Match {
+        private final IndexedItem entry;
+        private final int rank;
+        
+        private Match(IndexedItem entry, int rank) {
+            this.entry = entry;
+            this.rank = rank;
+        }
+    }
+}
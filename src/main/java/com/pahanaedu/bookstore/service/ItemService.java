@@ -1,19 +1,65 @@
 package com.pahanaedu.bookstore.service;
 
+import com.pahanaedu.bookstore.dao.DataVersionDao;
+import com.pahanaedu.bookstore.dao.DataVersionDaoImpl;
 import com.pahanaedu.bookstore.dao.ItemDao;
 import com.pahanaedu.bookstore.dao.ItemDaoImpl;
+import com.pahanaedu.bookstore.model.ImportResult;
 import com.pahanaedu.bookstore.model.Item;
+import com.pahanaedu.bookstore.model.Page;
+import com.pahanaedu.bookstore.util.AppConfig;
+import com.pahanaedu.bookstore.util.BoundedCache;
+import com.pahanaedu.bookstore.util.CsvImporter;
+import com.pahanaedu.bookstore.util.DataSourceSingleton;
+import com.pahanaedu.bookstore.util.PageCursor;
 
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.io.Reader;
 import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
 
 public class ItemService {
     
+    // Catalog cache shared by every ItemService instance (each servlet creates its own),
+    // so a write through any instance invalidates the entries all of them read
+    private static final BoundedCache<Integer, Item> itemsById = new BoundedCache<>("items.byId",
+            AppConfig.getInstance().getInt("cache.items.maxSize", 10000),
+            AppConfig.getInstance().getLong("cache.items.ttlSeconds", 600));
+    private static final BoundedCache<String, Item> itemsBySku = new BoundedCache<>("items.bySku",
+            AppConfig.getInstance().getInt("cache.items.maxSize", 10000),
+            AppConfig.getInstance().getLong("cache.items.ttlSeconds", 600));
+    
+    // Bumped on every catalog write; a load that started before a write is not cached
+    private static final AtomicLong catalogVersion = new AtomicLong();
+    
+    // Bumped once a write is visible to searches; response ETags carry it, so a new tag is
+    // never paired with results from before the write
+    private static final AtomicLong publishedVersion = new AtomicLong();
+    
+    // Shared catalog version (data_version) read before the search index was last loaded;
+    // writes on any node bump it, and the refresher reloads when it no longer matches
+    private static volatile long indexedVersion = -1;
+    
+    private static final String VERSION_NAME = "ITEMS";
+    private static final int DEFAULT_SEARCH_LIMIT = 15;
+    
     private final ItemDao itemDao;
+    private final DataVersionDao dataVersionDao;
+    private final ItemSearchIndex searchIndex;
+    private final DataSource dataSource;
     
     public ItemService() {
         this.itemDao = new ItemDaoImpl();
+        this.dataVersionDao = new DataVersionDaoImpl();
+        this.searchIndex = ItemSearchIndex.getInstance();
+        this.dataSource = DataSourceSingleton.getInstance();
     }
     
     /**
@@ -31,7 +77,12 @@ public class ItemService {
             throw new IllegalArgumentException("SKU already exists: " + item.getSku());
         }
         
-        return itemDao.save(item);
+        Item saved = itemDao.save(item);
+        recordChange();
+        invalidate(saved.getId(), saved.getSku(), null);
+        searchIndex.put(saved);
+        publishedVersion.incrementAndGet();
+        return saved;
     }
     
     /**
@@ -59,7 +110,12 @@ public class ItemService {
             throw new IllegalArgumentException("SKU already exists for another item: " + item.getSku());
         }
         
-        return itemDao.update(item);
+        Item updated = itemDao.update(item);
+        recordChange();
+        invalidate(item.getId(), existingOpt.get().getSku(), item.getSku());
+        searchIndex.put(updated);
+        publishedVersion.incrementAndGet();
+        return updated;
     }
     
     /**
@@ -68,7 +124,48 @@ public class ItemService {
      * @return Optional containing the item if found
      */
     public Optional<Item> findById(int id) {
-        return itemDao.findById(id);
+        Item cached = itemsById.get(id);
+        if (cached != null) {
+            return Optional.of(copyOf(cached));
+        }
+        
+        long version = catalogVersion.get();
+        Optional<Item> itemOpt = itemDao.findById(id);
+        itemOpt.ifPresent(item -> cacheItem(item, version));
+        return itemOpt.map(ItemService::copyOf);
+    }
+    
+    /**
+     * Find several items by ID, serving cached items from memory and loading
+     * the rest with a single query
+     * @param ids the item IDs
+     * @return map of item ID to item for every ID that exists
+     */
+    public Map<Integer, Item> findByIds(Collection<Integer> ids) {
+        Map<Integer, Item> found = new HashMap<>();
+        List<Integer> missing = new ArrayList<>();
+        
+        for (Integer id : ids) {
+            if (id == null || found.containsKey(id)) {
+                continue;
+            }
+            Item cached = itemsById.get(id);
+            if (cached != null) {
+                found.put(id, copyOf(cached));
+            } else {
+                missing.add(id);
+            }
+        }
+        
+        if (!missing.isEmpty()) {
+            long version = catalogVersion.get();
+            for (Item item : itemDao.findByIds(missing)) {
+                cacheItem(item, version);
+                found.put(item.getId(), copyOf(item));
+            }
+        }
+        
+        return found;
     }
     
     /**
@@ -80,7 +177,16 @@ public class ItemService {
         if (sku == null || sku.trim().isEmpty()) {
             return Optional.empty();
         }
-        return itemDao.findBySku(sku.trim());
+        String key = sku.trim();
+        Item cached = itemsBySku.get(key);
+        if (cached != null) {
+            return Optional.of(copyOf(cached));
+        }
+        
+        long version = catalogVersion.get();
+        Optional<Item> itemOpt = itemDao.findBySku(key);
+        itemOpt.ifPresent(item -> cacheItem(item, version));
+        return itemOpt.map(ItemService::copyOf);
     }
     
     /**
@@ -89,36 +195,64 @@ public class ItemService {
      * @return list of matching active items
      */
     public List<Item> searchItems(String query) {
-        System.out.println("====== ITEM SERVICE DEBUG START ======");
-        System.out.println("DEBUG ItemService: searchItems called with query: " + query);
-        
+        return searchItems(query, DEFAULT_SEARCH_LIMIT);
+    }
+    
+    /**
+     * Search items by query (SKU or name), served from the in-memory search index
+     * once it is built and from the database while it is still cold
+     * @param query the search query
+     * @param limit maximum number of results
+     * @return list of matching active items, best matches first
+     */
+    public List<Item> searchItems(String query, int limit) {
         if (query == null || query.trim().isEmpty()) {
-            System.out.println("DEBUG ItemService: Empty query, returning empty list");
-            System.out.println("====== ITEM SERVICE DEBUG END ======");
             return List.of();
         }
-
+        
+        if (searchIndex.isReady()) {
+            return searchIndex.search(query, limit);
+        }
+        
         try {
-            System.out.println("DEBUG ItemService: Calling itemDao.search");
             List<Item> result = itemDao.search(query.trim());
-            System.out.println("DEBUG ItemService: DAO returned " + (result != null ? result.size() : "null") + " items");
-            
-            // Return actual database results
-            List<Item> finalResult = result != null ? result : List.of();
-            System.out.println("DEBUG ItemService: Returning " + finalResult.size() + " items");
-            System.out.println("====== ITEM SERVICE DEBUG END ======");
-            return finalResult;
+            if (result == null) {
+                return List.of();
+            }
+            return result.size() > limit ? result.subList(0, limit) : result;
         } catch (Exception e) {
             System.err.println("ERROR ItemService: Exception in searchItems: " + e.getMessage());
             e.printStackTrace();
             
             // Return empty list on error
-            System.out.println("DEBUG ItemService: Exception occurred, returning empty list");
-            System.out.println("====== ITEM SERVICE DEBUG END ======");
             return List.of();
         }
     }
     
+    /**
+     * Rebuild the in-memory item search index from all active items
+     */
+    public void rebuildSearchIndex() {
+        // Read first: every write counted in this version is committed, so the load sees it
+        long version = dataVersionDao.get(VERSION_NAME);
+        searchIndex.rebuild(itemDao::findAllActive);
+        indexedVersion = version;
+        publishedVersion.incrementAndGet();
+    }
+    
+    /**
+     * Reload the item cache and search index if the catalog has been written (on any node)
+     * since the index was last loaded
+     * @return true if they were reloaded
+     */
+    public boolean refreshIfChanged() {
+        if (dataVersionDao.get(VERSION_NAME) == indexedVersion) {
+            return false;
+        }
+        refreshCatalog();
+        return true;
+    }
+    
     /**
      * Get all active items
      * @return list of all active items
@@ -135,6 +269,22 @@ public class ItemService {
         return itemDao.findAll();
     }
     
+    /**
+     * Get one page of items ordered by name
+     * @param cursor cursor token from a previous page, or null for the first page
+     * @param pageSize requested page size, or null for the default
+     * @param activeOnly whether to leave out inactive items
+     * @return the page
+     * @throws IllegalArgumentException if the cursor is malformed
+     */
+    public Page<Item> getItemsPage(String cursor, Integer pageSize, boolean activeOnly) {
+        PageCursor pageCursor = PageCursor.parse(cursor, 2);
+        int size = Page.clampSize(pageSize);
+        List<Item> rows = itemDao.findPage(pageCursor, size + 1, activeOnly);
+        return Page.of(rows, size, pageCursor,
+                item -> new String[] { item.getName(), String.valueOf(item.getId()) });
+    }
+    
     /**
      * Deactivate an item (soft delete)
      * @param id the item ID to deactivate
@@ -147,6 +297,10 @@ public class ItemService {
         }
         
         itemDao.deactivate(id);
+        recordChange();
+        invalidate(id, itemOpt.get().getSku(), null);
+        searchIndex.remove(id);
+        publishedVersion.incrementAndGet();
     }
     
     /**
@@ -161,6 +315,169 @@ public class ItemService {
         }
         
         itemDao.activate(id);
+        recordChange();
+        invalidate(id, itemOpt.get().getSku(), null);
+        Item activated = itemOpt.get();
+        activated.setActive(true);
+        searchIndex.put(activated);
+        publishedVersion.incrementAndGet();
+    }
+    
+    /**
+     * Bulk import items from CSV with columns sku, name, unit price and an optional active flag
+     * (default true); a header row is skipped. Rows are upserted by SKU in batches, one
+     * transaction per chunk, and rows failing validation are reported instead of aborting the
+     * import. Caches and the search index are refreshed once at the end.
+     * @param csv the CSV input, read as a stream
+     * @return row counts and rejected rows
+     * @throws IOException if the input cannot be read or is malformed
+     */
+    public ImportResult importItems(Reader csv) throws IOException {
+        ImportResult result = new ImportResult();
+        try {
+            new CsvImporter<>(dataSource, "sku", this::parseImportRow, itemDao::upsertBatch).importFrom(csv, result);
+        } finally {
+            if (result.getImported() > 0) {
+                recordChange();
+                refreshCatalog();
+            }
+        }
+        return result;
+    }
+    
+    private Item parseImportRow(List<String> record) {
+        if (record.size() < 3 || record.size() > 4) {
+            throw new IllegalArgumentException("Expected 3 or 4 columns (sku, name, unit price, active) but found " + record.size());
+        }
+        
+        Item item = new Item();
+        item.setSku(record.get(0).trim());
+        item.setName(record.get(1).trim());
+        try {
+            item.setUnitPrice(new BigDecimal(record.get(2).trim()));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid unit price: " + record.get(2));
+        }
+        item.setActive(record.size() < 4 || parseActiveFlag(record.get(3)));
+        
+        validateItem(item);
+        return item;
+    }
+    
+    private static boolean parseActiveFlag(String value) {
+        String flag = value.trim().toLowerCase();
+        switch (flag) {
+            case "":
+            case "true":
+            case "yes":
+            case "y":
+            case "1":
+                return true;
+            case "false":
+            case "no":
+            case "n":
+            case "0":
+                return false;
+            default:
+                throw new IllegalArgumentException("Invalid active flag: " + value);
+        }
+    }
+    
+    /**
+     * Drop every cached item and rebuild the search index after a bulk change, here or on
+     * another node
+     */
+    private void refreshCatalog() {
+        catalogVersion.incrementAndGet();
+        itemsById.invalidateAll();
+        itemsBySku.invalidateAll();
+        try {
+            rebuildSearchIndex();
+        } finally {
+            publishedVersion.incrementAndGet();
+        }
+    }
+    
+    /**
+     * Get the version of the catalog searches are served from. It changes once a write made
+     * here, or one made on another node and picked up by a refresh, is visible to searches;
+     * search responses are tagged with it
+     * @return the current search version
+     */
+    public String getCatalogVersion() {
+        // Read the local counter first: it is bumped after indexedVersion is set
+        long published = publishedVersion.get();
+        return indexedVersion + "." + published;
+    }
+    
+    /**
+     * Get the shared catalog version, which changes once a write committed on any node;
+     * responses read straight from the database are tagged with it
+     * @return the stored catalog version
+     */
+    public long getStoredCatalogVersion() {
+        return dataVersionDao.get(VERSION_NAME);
+    }
+    
+    /**
+     * Get item catalog cache statistics
+     * @return hit/miss/eviction counters for the ID and SKU caches
+     */
+    public List<Map<String, Object>> getCacheStats() {
+        return List.of(itemsById.getStats(), itemsBySku.getStats());
+    }
+    
+    /**
+     * Bump the shared catalog version after a committed write. A failure is only logged: the
+     * write itself succeeded, and other nodes pick it up with the next recorded change.
+     */
+    private void recordChange() {
+        try {
+            dataVersionDao.increment(VERSION_NAME);
+        } catch (RuntimeException e) {
+            System.err.println("ERROR ItemService: Failed to record catalog change: " + e.getMessage());
+        }
+    }
+    
+    private static void cacheItem(Item item, long version) {
+        // Skip caching if a write happened while this item was being loaded
+        if (catalogVersion.get() != version) {
+            return;
+        }
+        Item copy = copyOf(item);
+        itemsById.put(copy.getId(), copy);
+        itemsBySku.put(copy.getSku(), copy);
+        // A write that landed between the check and the puts is undone here
+        if (catalogVersion.get() != version) {
+            itemsById.invalidate(copy.getId());
+            itemsBySku.invalidate(copy.getSku());
+        }
+    }
+    
+    private static void invalidate(int id, String oldSku, String newSku) {
+        catalogVersion.incrementAndGet();
+        itemsById.invalidate(id);
+        if (oldSku != null) {
+            itemsBySku.invalidate(oldSku.trim());
+        }
+        if (newSku != null) {
+            itemsBySku.invalidate(newSku.trim());
+        }
+    }
+    
+    /**
+     * Items are mutable, so callers always get their own copy of a cached item
+     */
+    private static Item copyOf(Item item) {
+        Item copy = new Item();
+        copy.setId(item.getId());
+        copy.setSku(item.getSku());
+        copy.setName(item.getName());
+        copy.setUnitPrice(item.getUnitPrice());
+        copy.setActive(item.isActive());
+        copy.setCreatedAt(item.getCreatedAt());
+        copy.setUpdatedAt(item.getUpdatedAt());
+        return copy;
     }
     
     /**
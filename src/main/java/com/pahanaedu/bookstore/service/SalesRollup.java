@@ -0,0 +1,415 @@
+package com.pahanaedu.bookstore.service;
+
+import com.pahanaedu.bookstore.dao.BillDao;
+import com.pahanaedu.bookstore.model.BillExportRow;
+import com.pahanaedu.bookstore.model.BillView;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * In-memory sales totals per day for the dashboard: revenue, bill count and units and
+ * revenue per item, for today and the previous days of the window.
+ * Rebuilt from bills/bill_items at startup and then kept current by BillingService as bills
+ * are created, updated or deleted, so reading it never touches the database.
+ * Bills recorded while a rebuild is running are replayed onto the rebuilt totals.
+ * Bills written on other nodes are folded in by catchUp, which loads the bills after the
+ * last bill ID seen; bills after that ID that were already recorded here are skipped.
+ */
+public class SalesRollup {
+    
+    private static final SalesRollup instance = new SalesRollup();
+    
+    private final ConcurrentSkipListMap<LocalDate, DayTotals> days = new ConcurrentSkipListMap<>();
+    private volatile int windowDays = 7;
+    private volatile boolean ready;
+    private List<Change> pendingDuringRebuild;
+    
+    // Every bill up to lastBillId is counted. Bills after it that the totals already count
+    // map to the version counted (null once removed), so catching up does not add them again
+    private int lastBillId;
+    private final Map<Integer, BillView> recentBills = new HashMap<>();
+    private final Object rebuildLock = new Object();
+    
+    private SalesRollup() {}
+    
+    public static SalesRollup getInstance() {
+        return instance;
+    }
+    
+    /**
+     * @return true once the totals have been loaded from the database
+     */
+    public boolean isReady() {
+        return ready;
+    }
+    
+    /**
+     * @return the number of days kept, today included
+     */
+    public int getWindowDays() {
+        return windowDays;
+    }
+    
+    /**
+     * Replace the totals with the given bill lines.
+     * @param window number of days to keep, today included
+     * @param settledBillId the newest bill ID below which no bill can still be uncommitted;
+     *                      catching up continues after it
+     * @param loader streams every bill line dated on or after the first day of the window
+     *               into the handler it is given
+     * @throws IOException if loading fails; the previous totals are kept
+     */
+    public void rebuild(int window, int settledBillId, RowLoader loader) throws IOException {
+        // Rebuilds run one at a time, so each has its own capture of the changes made during it
+        synchronized (rebuildLock) {
+            synchronized (this) {
+                pendingDuringRebuild = new ArrayList<>();
+            }
+        
+            int size = Math.max(1, window);
+            LocalDate firstDay = LocalDate.now().minusDays(size - 1);
+            Map<LocalDate, DayTotals> fresh = new HashMap<>();
+            // What the load counted for each bill, so changes made during it can be netted out
+            Map<Integer, LoadedBill> loadedBills = new HashMap<>();
+            try {
+                loader.load(firstDay.atStartOfDay(), row -> {
+                    DayTotals day = fresh.computeIfAbsent(row.getBillDate().toLocalDate(), d -> new DayTotals());
+                    if (collect(loadedBills, row)) {
+                        day.addBill(row.getBillTotal(), 1);
+                    }
+                    day.addLine(row.getSku(), row.getItemName(), row.getQty(), row.getLineTotal(), 1);
+                });
+            } catch (IOException | RuntimeException e) {
+                synchronized (this) {
+                    pendingDuringRebuild = null;
+                }
+                throw e;
+            }
+        
+            synchronized (this) {
+                windowDays = size;
+                days.clear();
+                days.putAll(fresh);
+            
+                // The load may have seen any state of a bill changed while it ran (not yet created,
+                // an old or new version, already deleted). For each such bill, take out what the
+                // load counted and put in the bill's final state: the version last recorded, or
+                // nothing if the last change removed it
+                Map<Integer, BillView> finalState = new LinkedHashMap<>();
+                for (Change change : pendingDuringRebuild) {
+                    finalState.put(change.bill.getId(), change.sign > 0 ? change.bill : null);
+                }
+                for (Map.Entry<Integer, BillView> entry : finalState.entrySet()) {
+                    LoadedBill loaded = loadedBills.get(entry.getKey());
+                    if (loaded != null) {
+                        apply(loaded.toView(entry.getKey()), -1);
+                    }
+                    if (entry.getValue() != null) {
+                        apply(entry.getValue(), 1);
+                    }
+                }
+            
+                // Bills after the settled ID are counted now, so catching up must skip them
+                recentBills.clear();
+                for (Map.Entry<Integer, LoadedBill> entry : loadedBills.entrySet()) {
+                    if (entry.getKey() > settledBillId) {
+                        recentBills.put(entry.getKey(), entry.getValue().toView(entry.getKey()));
+                    }
+                }
+                for (Map.Entry<Integer, BillView> entry : finalState.entrySet()) {
+                    if (entry.getKey() > settledBillId) {
+                        recentBills.put(entry.getKey(), entry.getValue());
+                    }
+                }
+                lastBillId = settledBillId;
+                pendingDuringRebuild = null;
+                ready = true;
+            }
+        }
+    }
+    
+    /**
+     * Fold in the bills created since the last rebuild or catch-up, on this node or any
+     * other. Bills this node has already recorded, updated or deleted are left as they are.
+     * @param settledBillId the newest bill ID below which no bill can still be uncommitted
+     * @param loader streams the lines of the bills after the given ID, up to settledBillId
+     * @throws IOException if loading fails; the totals are left unchanged
+     */
+    public void catchUp(int settledBillId, BillRangeLoader loader) throws IOException {
+        int afterBillId;
+        synchronized (this) {
+            if (!ready || pendingDuringRebuild != null || settledBillId <= lastBillId) {
+                return;
+            }
+            afterBillId = lastBillId;
+        }
+        
+        Map<Integer, LoadedBill> loadedBills = new LinkedHashMap<>();
+        loader.load(afterBillId, settledBillId, row -> collect(loadedBills, row));
+        
+        synchronized (this) {
+            // A rebuild that ran meanwhile has counted these bills already
+            if (lastBillId != afterBillId || pendingDuringRebuild != null) {
+                return;
+            }
+            for (Map.Entry<Integer, LoadedBill> entry : loadedBills.entrySet()) {
+                if (!recentBills.containsKey(entry.getKey())) {
+                    apply(entry.getValue().toView(entry.getKey()), 1);
+                }
+            }
+            recentBills.keySet().removeIf(id -> id <= settledBillId);
+            lastBillId = settledBillId;
+        }
+    }
+    
+    /**
+     * Add a committed bill to the totals
+     * @param bill the bill
+     */
+    public void recordBill(BillView bill) {
+        change(bill, 1);
+    }
+    
+    /**
+     * Take a deleted bill, or the old version of an updated one, out of the totals
+     * @param bill the bill as it was recorded
+     */
+    public void removeBill(BillView bill) {
+        change(bill, -1);
+    }
+    
+    /**
+     * Snapshot of the totals, suitable for JSON output
+     * @param topN how many best-selling items to list
+     * @return today's totals, one entry per day of the window (oldest first) and the top
+     *         items for today and for the whole window
+     */
+    public Map<String, Object> snapshot(int topN) {
+        LocalDate today = LocalDate.now();
+        LocalDate firstDay = today.minusDays(windowDays - 1);
+        days.headMap(firstDay).clear();
+        
+        List<Map<String, Object>> dayList = new ArrayList<>();
+        DayTotals window = new DayTotals();
+        DayTotals todayTotals = new DayTotals();
+        for (LocalDate date = firstDay; !date.isAfter(today); date = date.plusDays(1)) {
+            DayTotals day = days.get(date);
+            DayTotals copy = new DayTotals();
+            if (day != null) {
+                day.copyInto(copy);
+                day.copyInto(window);
+            }
+            if (date.equals(today)) {
+                todayTotals = copy;
+            }
+            
+            Map<String, Object> entry = copy.summary();
+            entry.put("date", date.toString());
+            dayList.add(entry);
+        }
+        
+        Map<String, Object> snapshot = new LinkedHashMap<>();
+        snapshot.put("ready", ready);
+        snapshot.put("generatedAt", LocalDateTime.now().toString());
+        snapshot.put("windowDays", windowDays);
+        
+        Map<String, Object> todaySummary = todayTotals.summary();
+        todaySummary.put("date", today.toString());
+        snapshot.put("today", todaySummary);
+        snapshot.put("window", window.summary());
+        snapshot.put("days", dayList);
+        snapshot.put("topItemsToday", todayTotals.topItems(topN));
+        snapshot.put("topItems", window.topItems(topN));
+        return snapshot;
+    }
+    
+    private void change(BillView bill, int sign) {
+        if (bill == null || bill.getBillDate() == null) {
+            return;
+        }
+        
+        synchronized (this) {
+            if (pendingDuringRebuild != null) {
+                pendingDuringRebuild.add(new Change(bill, sign));
+            }
+            if (ready && bill.getId() > lastBillId) {
+                // Not caught up to this bill yet: track exactly what is counted for it
+                BillView counted = recentBills.put(bill.getId(), sign > 0 ? bill : null);
+                if (counted != null) {
+                    apply(counted, -1);
+                }
+                if (sign > 0) {
+                    apply(bill, 1);
+                }
+                return;
+            }
+            apply(bill, sign);
+        }
+    }
+    
+    /**
+     * Add one streamed row to the bill it belongs to
+     * @return true if the row is the first of its bill
+     */
+    private static boolean collect(Map<Integer, LoadedBill> bills, BillExportRow row) {
+        LoadedBill loaded = bills.get(row.getBillId());
+        boolean first = loaded == null;
+        if (first) {
+            loaded = new LoadedBill(row.getBillDate(), row.getBillTotal());
+            bills.put(row.getBillId(), loaded);
+        }
+        loaded.lines.add(new BillView.Line(0, row.getSku(), row.getItemName(), row.getQty(),
+                null, row.getLineTotal()));
+        return first;
+    }
+    
+    private void apply(BillView bill, int sign) {
+        LocalDate date = bill.getBillDate().toLocalDate();
+        if (date.isBefore(LocalDate.now().minusDays(windowDays - 1))) {
+            return;
+        }
+        
+        DayTotals day = days.computeIfAbsent(date, d -> new DayTotals());
+        day.addBill(bill.getTotal(), sign);
+        for (BillView.Line line : bill.getLines()) {
+            day.addLine(line.getSku(), line.getName(), line.getQty(), line.getLineTotal(), sign);
+        }
+    }
+    
+    /**
+     * Streams bill lines into the rollup during a rebuild
+     */
+    @FunctionalInterface
+    public interface RowLoader {
+        void load(LocalDateTime from, BillDao.ExportRowHandler handler) throws IOException;
+    }
+    
+    /**
+     * Streams the lines of bills with afterBillId &lt; id &lt;= upToBillId during a catch-up
+     */
+    @FunctionalInterface
+    public interface BillRangeLoader {
+        void load(int afterBillId, int upToBillId, BillDao.ExportRowHandler handler) throws IOException;
+    }
+    
+    /**
+     * One bill as the rebuild load counted it
+     */
+    private static final class LoadedBill {
+        private final LocalDateTime billDate;
+        private final BigDecimal total;
+        private final List<BillView.Line> lines = new ArrayList<>();
+        
+        private LoadedBill(LocalDateTime billDate, BigDecimal total) {
+            this.billDate = billDate;
+            this.total = total;
+        }
+        
+        private BillView toView(int id) {
+            return new BillView(id, null, billDate, total, null, lines);
+        }
+    }
+    
+    private static final class Change {
+        private final BillView bill;
+        private final int sign;
+        
+        private Change(BillView bill, int sign) {
+            this.bill = bill;
+            this.sign = sign;
+        }
+    }
+    
+    /**
+     * Totals for one day. Guarded by its own lock, so a dashboard snapshot only holds up
+     * bill recording for as long as it takes to copy one day.
+     */
+    private static final class DayTotals {
+        private BigDecimal revenue = BigDecimal.ZERO;
+        private long billCount;
+        private long unitsSold;
+        private final Map<String, ItemTotals> items = new HashMap<>();
+        
+        synchronized void addBill(BigDecimal total, int sign) {
+            if (total != null) {
+                revenue = sign > 0 ? revenue.add(total) : revenue.subtract(total);
+            }
+            billCount += sign;
+        }
+        
+        synchronized void addLine(String sku, String name, int qty, BigDecimal lineTotal, int sign) {
+            String key = sku != null ? sku : "";
+            ItemTotals item = items.computeIfAbsent(key, k -> new ItemTotals(key, name));
+            item.qty += (long) sign * qty;
+            if (lineTotal != null) {
+                item.revenue = sign > 0 ? item.revenue.add(lineTotal) : item.revenue.subtract(lineTotal);
+            }
+            if (item.qty <= 0) {
+                items.remove(key);
+            }
+            unitsSold += (long) sign * qty;
+        }
+        
+        synchronized void copyInto(DayTotals target) {
+            target.revenue = target.revenue.add(revenue);
+            target.billCount += billCount;
+            target.unitsSold += unitsSold;
+            for (ItemTotals item : items.values()) {
+                ItemTotals merged = target.items.computeIfAbsent(item.sku, k -> new ItemTotals(item.sku, item.name));
+                merged.qty += item.qty;
+                merged.revenue = merged.revenue.add(item.revenue);
+            }
+        }
+        
+        Map<String, Object> summary() {
+            Map<String, Object> summary = new LinkedHashMap<>();
+            summary.put("revenue", revenue);
+            summary.put("billCount", billCount);
+            summary.put("averageBasket", billCount > 0
+                    ? revenue.divide(BigDecimal.valueOf(billCount), 2, RoundingMode.HALF_UP)
+                    : BigDecimal.ZERO);
+            summary.put("unitsSold", unitsSold);
+            return summary;
+        }
+        
+        List<Map<String, Object>> topItems(int topN) {
+            List<ItemTotals> sorted = new ArrayList<>(items.values());
+            sorted.sort(Comparator.comparingLong((ItemTotals item) -> item.qty).reversed()
+                    .thenComparing(item -> item.revenue, Comparator.reverseOrder()));
+            
+            List<Map<String, Object>> top = new ArrayList<>();
+            for (ItemTotals item : sorted.subList(0, Math.min(Math.max(0, topN), sorted.size()))) {
+                Map<String, Object> entry = new LinkedHashMap<>();
+                entry.put("sku", item.sku);
+                entry.put("name", item.name != null ? item.name : "");
+                entry.put("qty", item.qty);
+                entry.put("revenue", item.revenue);
+                top.add(entry);
+            }
+            return top;
+        }
+    }
+    
+    private static final class ItemTotals {
+        private final String sku;
+        private final String name;
+        private long qty;
+        private BigDecimal revenue = BigDecimal.ZERO;
+        
+        private ItemTotals(String sku, String name) {
+            this.sku = sku;
+            this.name = name;
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package com.pahanaedu.bookstore.service;
+
+import com.pahanaedu.bookstore.dao.SalesSummaryDao;
+import com.pahanaedu.bookstore.dao.SalesSummaryDaoImpl;
+import com.pahanaedu.bookstore.model.CustomerSalesSummary;
+import com.pahanaedu.bookstore.model.ItemSalesSummary;
+import com.pahanaedu.bookstore.util.AppConfig;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Historical sales reports served from the daily summary tables, and the aggregation job
+ * that keeps those tables current. A report over a year reads one row per day and item
+ * (or customer) sold instead of every bill line.
+ */
+public class SalesSummaryService {
+    
+    public static final int DEFAULT_REPORT_LIMIT = 100;
+    public static final int MAX_REPORT_LIMIT = 1000;
+    
+    private final SalesSummaryDao salesSummaryDao;
+    private final int batchSize;
+    private final int lagSeconds;
+    
+    public SalesSummaryService() {
+        this.salesSummaryDao = new SalesSummaryDaoImpl();
+        this.batchSize = Math.max(1, AppConfig.getInstance().getInt("summary.batchSize", 5000));
+        this.lagSeconds = AppConfig.getInstance().getInt("summary.lagSeconds", 30);
+    }
+    
+    /**
+     * Fold every bill created since the last run into the summary tables, one transaction
+     * per batch. Stops early if the calling thread is interrupted.
+     * @return the number of bills folded in
+     */
+    public int aggregatePending() {
+        int total = 0;
+        while (!Thread.currentThread().isInterrupted()) {
+            int processed = salesSummaryDao.aggregateNextBatch(batchSize, lagSeconds);
+            total += processed;
+            if (processed < batchSize) {
+                break;
+            }
+        }
+        return total;
+    }
+    
+    /**
+     * @return ID of the last bill included in the summaries
+     */
+    public int getSummarizedThroughBillId() {
+        return salesSummaryDao.getWatermark();
+    }
+    
+    /**
+     * Get per-item sales totals for a date range
+     * @param from first bill date to include
+     * @param to last bill date to include
+     * @param limit the most items to return, or null for the default
+     * @return item totals, best sellers first
+     * @throws IllegalArgumentException if the range is empty
+     */
+    public List<ItemSalesSummary> getItemSales(LocalDate from, LocalDate to, Integer limit) {
+        validateRange(from, to);
+        return salesSummaryDao.findItemSales(from, to, clampLimit(limit));
+    }
+    
+    /**
+     * Get per-customer sales totals for a date range
+     * @param from first bill date to include
+     * @param to last bill date to include
+     * @param limit the most customers to return, or null for the default
+     * @return customer totals, highest revenue first
+     * @throws IllegalArgumentException if the range is empty
+     */
+    public List<CustomerSalesSummary> getCustomerSales(LocalDate from, LocalDate to, Integer limit) {
+        validateRange(from, to);
+        return salesSummaryDao.findCustomerSales(from, to, clampLimit(limit));
+    }
+    
+    private void validateRange(LocalDate from, LocalDate to) {
+        if (from == null || to == null) {
+            throw new IllegalArgumentException("Both from and to dates are required");
+        }
+        if (to.isBefore(from)) {
+            throw new IllegalArgumentException("The to date must not be before the from date");
+        }
+    }
+    
+    private int clampLimit(Integer limit) {
+        if (limit == null || limit <= 0) {
+            return DEFAULT_REPORT_LIMIT;
+        }
+        return Math.min(limit, MAX_REPORT_LIMIT);
+    }
+}
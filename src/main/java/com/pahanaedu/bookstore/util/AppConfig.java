@@ -0,0 +1,131 @@
+package com.pahanaedu.bookstore.util;
+
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Locale;
+import java.util.Properties;
+
+/**
+ * Application settings resolved per deployment.
+ * A key such as "db.pool.maximumPoolSize" is looked up, in order, as:
+ * 1. system property "pahana.db.pool.maximumPoolSize"
+ * 2. environment variable "PAHANA_DB_POOL_MAXIMUMPOOLSIZE"
+ * 3. "&lt;profile&gt;.db.pool.maximumPoolSize" in the properties file
+ * 4. "db.pool.maximumPoolSize" in the properties file
+ * 5. the caller's default
+ * The properties file is pahana.properties on the classpath, overlaid by the file named in
+ * pahana.config / PAHANA_CONFIG if set. The profile (till, backoffice, reporting) comes from
+ * pahana.profile / PAHANA_PROFILE, or the file's "profile" entry.
+ */
+public class AppConfig {
+    
+    private static final String DEFAULT_PROFILE = "backoffice";
+    
+    private static volatile AppConfig instance;
+    private static final Object lock = new Object();
+    
+    private final Properties properties;
+    private final String profile;
+    
+    private AppConfig(Properties properties) {
+        this.properties = properties;
+        String selected = lookup("profile");
+        if (selected == null) {
+            selected = properties.getProperty("profile", DEFAULT_PROFILE);
+        }
+        this.profile = selected.trim().toLowerCase(Locale.ROOT);
+    }
+    
+    public static AppConfig getInstance() {
+        if (instance == null) {
+            synchronized (lock) {
+                if (instance == null) {
+                    instance = new AppConfig(loadProperties());
+                }
+            }
+        }
+        return instance;
+    }
+    
+    /**
+     * @return the active deployment profile name
+     */
+    public String getProfile() {
+        return profile;
+    }
+    
+    public String getString(String key, String defaultValue) {
+        String value = lookup(key);
+        if (value == null) {
+            value = properties.getProperty(profile + "." + key);
+        }
+        if (value == null) {
+            value = properties.getProperty(key);
+        }
+        return value == null || value.isBlank() ? defaultValue : value.trim();
+    }
+    
+    public int getInt(String key, int defaultValue) {
+        String value = getString(key, null);
+        if (value == null) {
+            return defaultValue;
+        }
+        try {
+            return Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid integer for " + key + ": " + value, e);
+        }
+    }
+    
+    public long getLong(String key, long defaultValue) {
+        String value = getString(key, null);
+        if (value == null) {
+            return defaultValue;
+        }
+        try {
+            return Long.parseLong(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid number for " + key + ": " + value, e);
+        }
+    }
+    
+    public boolean getBoolean(String key, boolean defaultValue) {
+        String value = getString(key, null);
+        return value == null ? defaultValue : Boolean.parseBoolean(value);
+    }
+    
+    /**
+     * System property or environment override for a key, ignoring the properties file
+     */
+    private static String lookup(String key) {
+        String value = System.getProperty("pahana." + key);
+        if (value == null || value.isBlank()) {
+            value = System.getenv("PAHANA_" + key.toUpperCase(Locale.ROOT).replace('.', '_').replace('-', '_'));
+        }
+        return value == null || value.isBlank() ? null : value;
+    }
+    
+    private static Properties loadProperties() {
+        Properties properties = new Properties();
+        
+        try (InputStream in = AppConfig.class.getResourceAsStream("/pahana.properties")) {
+            if (in != null) {
+                properties.load(in);
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException("Error reading pahana.properties from classpath", e);
+        }
+        
+        String externalFile = lookup("config");
+        if (externalFile != null) {
+            try (InputStream in = new FileInputStream(externalFile)) {
+                properties.load(in);
+            } catch (IOException e) {
+                throw new IllegalStateException("Error reading configuration file: " + externalFile, e);
+            }
+        }
+        
+        return properties;
+    }
+}
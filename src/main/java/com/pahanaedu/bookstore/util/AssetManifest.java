@@ -0,0 +1,140 @@
+package com.pahanaedu.bookstore.util;
+
+import jakarta.servlet.ServletContext;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Content-hashed names for the static files under /assets, computed once at startup:
+ * /assets/js/billing.js is published as /assets/js/billing.&lt;hash&gt;.js. A changed file gets
+ * a new URL, so browsers may cache each URL for good (see StaticAssetFilter).
+ * JSPs resolve names through the asset:url EL function declared in WEB-INF/assets.tld.
+ */
+public class AssetManifest {
+    
+    public static final String ASSETS_ROOT = "/assets/";
+    
+    private static final int HASH_LENGTH = 12;
+    
+    private static volatile AssetManifest instance;
+    
+    private final Map<String, String> fingerprinted;
+    private final Map<String, String> logical;
+    
+    private AssetManifest(Map<String, String> fingerprinted) {
+        this.fingerprinted = Collections.unmodifiableMap(fingerprinted);
+        Map<String, String> reverse = new HashMap<>();
+        fingerprinted.forEach((path, hashed) -> reverse.put(hashed, path));
+        this.logical = Collections.unmodifiableMap(reverse);
+    }
+    
+    /**
+     * Hash every file under /assets; called once when the application starts
+     * @param servletContext the web application context
+     * @return the manifest
+     */
+    public static AssetManifest load(ServletContext servletContext) {
+        Map<String, String> fingerprinted = new HashMap<>();
+        collect(servletContext, ASSETS_ROOT, fingerprinted);
+        instance = new AssetManifest(fingerprinted);
+        return instance;
+    }
+    
+    /**
+     * @return the manifest, or null before the application has started
+     */
+    public static AssetManifest getInstance() {
+        return instance;
+    }
+    
+    /**
+     * Resolve an asset to its fingerprinted path; EL function asset:url
+     * @param path the context-relative asset path, e.g. /assets/js/billing.js
+     * @return the fingerprinted path, or the path unchanged if it is not a known asset
+     */
+    public static String url(String path) {
+        AssetManifest manifest = instance;
+        if (manifest == null || path == null) {
+            return path;
+        }
+        return manifest.fingerprinted.getOrDefault(path, path);
+    }
+    
+    /**
+     * Find the file a fingerprinted path was published for
+     * @param path the context-relative request path
+     * @return the asset path, or null if the path is not a current fingerprinted name
+     */
+    public String findAsset(String path) {
+        return logical.get(path);
+    }
+    
+    /**
+     * @param path the context-relative request path
+     * @return true if the path is a plain (not fingerprinted) asset name
+     */
+    public boolean isAsset(String path) {
+        return fingerprinted.containsKey(path);
+    }
+    
+    /**
+     * @return the number of fingerprinted assets
+     */
+    public int size() {
+        return fingerprinted.size();
+    }
+    
+    private static void collect(ServletContext servletContext, String directory, Map<String, String> fingerprinted) {
+        Set<String> paths = servletContext.getResourcePaths(directory);
+        if (paths == null) {
+            return;
+        }
+        for (String path : paths) {
+            if (path.endsWith("/")) {
+                collect(servletContext, path, fingerprinted);
+                continue;
+            }
+            String hash = hash(servletContext, path);
+            if (hash != null) {
+                fingerprinted.put(path, withHash(path, hash));
+            }
+        }
+    }
+    
+    private static String withHash(String path, String hash) {
+        int slash = path.lastIndexOf('/');
+        int dot = path.lastIndexOf('.');
+        if (dot <= slash + 1) {
+            return path + "." + hash;
+        }
+        return path.substring(0, dot) + "." + hash + path.substring(dot);
+    }
+    
+    private static String hash(ServletContext servletContext, String path) {
+        try (InputStream in = servletContext.getResourceAsStream(path)) {
+            if (in == null) {
+                return null;
+            }
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            byte[] buffer = new byte[8192];
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                digest.update(buffer, 0, read);
+            }
+            return HexFormat.of().formatHex(digest.digest()).substring(0, HASH_LENGTH);
+        } catch (IOException e) {
+            System.err.println("ERROR AssetManifest: Could not read " + path + ": " + e.getMessage());
+            return null;
+        } catch (NoSuchAlgorithmException e) {
+            throw new RuntimeException("SHA-256 algorithm not available", e);
+        }
+    }
+}
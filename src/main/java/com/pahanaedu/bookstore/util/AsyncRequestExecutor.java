@@ -0,0 +1,538 @@
+package com.pahanaedu.bookstore.util;
+
+import jakarta.servlet.AsyncContext;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.http.Cookie;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Runs blocking request handlers (JDBC lookups) on virtual threads through AsyncContext,
+ * so the container thread goes straight back to its pool instead of waiting on the database.
+ * At most async.maxConcurrent handlers run at once and at most async.maxQueued more wait
+ * for a slot; beyond that requests are refused with 503 and Retry-After rather than piling up.
+ * A request that is not answered within async.timeoutMs gets a 503 and its handler is
+ * interrupted, unless the handler is already writing its response, which it may then finish.
+ * When async.enabled is false, or the request does not support async, handlers run inline.
+ */
+public class AsyncRequestExecutor {
+    
+    // How long a timeout waits for a handler that is already writing its response
+    private static final long RESPONSE_GRACE_MS = 1000;
+    
+    private static volatile AsyncRequestExecutor instance;
+    private static final Object lock = new Object();
+    
+    private final boolean enabled;
+    private final long timeoutMs;
+    private final int maxConcurrent;
+    private final int maxQueued;
+    private final Semaphore admitted;
+    private final Semaphore running;
+    private final ExecutorService executor;
+    
+    private final LongAdder dispatched = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder timeouts = new LongAdder();
+    private final LongAdder failures = new LongAdder();
+    
+    private AsyncRequestExecutor() {
+        AppConfig appConfig = AppConfig.getInstance();
+        this.enabled = appConfig.getBoolean("async.enabled", true);
+        this.timeoutMs = Math.max(1, appConfig.getLong("async.timeoutMs", 5000));
+        this.maxConcurrent = Math.max(1, appConfig.getInt("async.maxConcurrent", 20));
+        this.maxQueued = Math.max(0, appConfig.getInt("async.maxQueued", 200));
+        this.admitted = new Semaphore(maxConcurrent + maxQueued);
+        this.running = new Semaphore(maxConcurrent);
+        this.executor = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("async-request-", 0).factory());
+    }
+    
+    public static AsyncRequestExecutor getInstance() {
+        if (instance == null) {
+            synchronized (lock) {
+                if (instance == null) {
+                    instance = new AsyncRequestExecutor();
+                }
+            }
+        }
+        return instance;
+    }
+    
+    /**
+     * Stop accepting work; called when the application shuts down
+     */
+    public static void shutdown() {
+        synchronized (lock) {
+            if (instance != null) {
+                instance.executor.shutdownNow();
+                instance = null;
+            }
+        }
+    }
+    
+    /**
+     * Handle a request on a virtual thread, releasing the container thread immediately
+     * @param request the request
+     * @param response the response
+     * @param handler the blocking handler
+     */
+    public void execute(HttpServletRequest request, HttpServletResponse response, Handler handler)
+            throws ServletException, IOException {
+        
+        if (!enabled || !request.isAsyncSupported()) {
+            handler.handle(request, response);
+            return;
+        }
+        
+        if (!admitted.tryAcquire()) {
+            rejected.increment();
+            writeError(response, HttpServletResponse.SC_SERVICE_UNAVAILABLE, "Server busy, please retry");
+            return;
+        }
+        
+        AsyncContext async;
+        try {
+            async = request.startAsync(request, response);
+            async.setTimeout(timeoutMs);
+        } catch (RuntimeException e) {
+            admitted.release();
+            throw e;
+        }
+        
+        // The task holds the request and response captured here: once the context has
+        // completed (timed out while queued) the container no longer hands them out
+        Task task = new Task(request, response, async, handler);
+        async.addListener(new AsyncListener() {
+            @Override
+            public void onTimeout(AsyncEvent event) throws IOException {
+                timeouts.increment();
+                task.timeOut();
+            }
+            
+            @Override
+            public void onComplete(AsyncEvent event) {
+            }
+            
+            @Override
+            public void onError(AsyncEvent event) {
+                // The client is gone; stop the work and release the request
+                task.cancel();
+                task.complete();
+            }
+            
+            @Override
+            public void onStartAsync(AsyncEvent event) {
+            }
+        });
+        
+        dispatched.increment();
+        try {
+            task.future = executor.submit(task);
+        } catch (RuntimeException e) {
+            // Executor shut down during undeploy
+            task.releaseAdmission();
+            task.complete();
+            throw e;
+        }
+        if (task.isTimedOut()) {
+            // Timed out before the future was known
+            task.cancel();
+        }
+    }
+    
+    /**
+     * Snapshot of the executor settings and counters, suitable for JSON output
+     * @return map of statistic name to value
+     */
+    public Map<String, Object> snapshot() {
+        Map<String, Object> snapshot = new LinkedHashMap<>();
+        snapshot.put("enabled", enabled);
+        snapshot.put("timeoutMs", timeoutMs);
+        snapshot.put("maxConcurrent", maxConcurrent);
+        snapshot.put("maxQueued", maxQueued);
+        snapshot.put("running", maxConcurrent - running.availablePermits());
+        snapshot.put("inFlight", maxConcurrent + maxQueued - admitted.availablePermits());
+        snapshot.put("dispatched", dispatched.sum());
+        snapshot.put("rejected", rejected.sum());
+        snapshot.put("timeouts", timeouts.sum());
+        snapshot.put("failures", failures.sum());
+        return snapshot;
+    }
+    
+    private static void writeError(HttpServletResponse response, int status, String message) throws IOException {
+        response.setStatus(status);
+        if (status == HttpServletResponse.SC_SERVICE_UNAVAILABLE) {
+            response.setHeader("Retry-After", "1");
+        }
+        response.setContentType("application/json");
+        response.setCharacterEncoding("UTF-8");
+        try (PrintWriter out = response.getWriter()) {
+            out.print(JsonUtil.toJson(Map.of("error", message)));
+        }
+    }
+    
+    /**
+     * One request handed to the executor. The handler and the timeout never use the response
+     * at the same time: the handler only reaches it through GuardedResponse, under the task's
+     * lock, and the timeout takes it over under the same lock unless the handler already
+     * holds its output stream.
+     */
+    private final class Task implements Runnable {
+        
+        private final HttpServletRequest request;
+        private final HttpServletResponse response;
+        private final GuardedResponse guardedResponse;
+        private final AsyncContext async;
+        private final Handler handler;
+        private final AtomicBoolean admissionHeld = new AtomicBoolean(true);
+        private final AtomicBoolean completed = new AtomicBoolean();
+        private final CountDownLatch done = new CountDownLatch(1);
+        private volatile boolean started;
+        private volatile Future<?> future;
+        
+        // Guarded by this
+        private boolean timedOut;
+        private boolean outputTaken;
+        
+        Task(HttpServletRequest request, HttpServletResponse response, AsyncContext async, Handler handler) {
+            this.request = request;
+            this.response = response;
+            this.guardedResponse = new GuardedResponse(response, this);
+            this.async = async;
+            this.handler = handler;
+        }
+        
+        @Override
+        public void run() {
+            started = true;
+            boolean acquired = false;
+            try {
+                running.acquire();
+                acquired = true;
+                // Skip the work if the request timed out while it was queued
+                if (!isTimedOut()) {
+                    handler.handle(request, guardedResponse);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (Exception e) {
+                if (!isTimedOut()) {
+                    failures.increment();
+                    System.err.println("ERROR AsyncRequestExecutor: " + request.getRequestURI() + " failed: " + e.getMessage());
+                    try {
+                        if (!guardedResponse.isCommitted()) {
+                            guardedResponse.reset();
+                            writeError(guardedResponse, HttpServletResponse.SC_INTERNAL_SERVER_ERROR, "Internal server error");
+                        }
+                    } catch (IOException | IllegalStateException writeError) {
+                        // Timed out meanwhile, or the client is gone; nothing more to send
+                    }
+                }
+            } finally {
+                if (acquired) {
+                    running.release();
+                }
+                releaseAdmission();
+                done.countDown();
+                complete();
+            }
+        }
+        
+        /**
+         * Called on a container thread when the request times out
+         */
+        void timeOut() throws IOException {
+            boolean takenOver;
+            synchronized (this) {
+                // No handler call is touching the response while this lock is held
+                takenOver = !outputTaken;
+                timedOut = takenOver;
+            }
+            
+            if (takenOver) {
+                cancel();
+                if (!response.isCommitted()) {
+                    response.reset();
+                    writeError(response, HttpServletResponse.SC_SERVICE_UNAVAILABLE, "Request timed out");
+                }
+            } else {
+                // The handler is writing its answer; give it a moment, then interrupt it and
+                // give it a moment to unwind, rather than write to the response from two threads
+                try {
+                    if (!done.await(RESPONSE_GRACE_MS, TimeUnit.MILLISECONDS)) {
+                        cancel();
+                        done.await(RESPONSE_GRACE_MS, TimeUnit.MILLISECONDS);
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            complete();
+        }
+        
+        synchronized boolean isTimedOut() {
+            return timedOut;
+        }
+        
+        /**
+         * Called by GuardedResponse, holding the lock, before each change to the response
+         * @param output true if the handler is taking the output stream or writer
+         * @throws IllegalStateException if the timeout has taken the response over
+         */
+        void checkOwner(boolean output) {
+            if (timedOut) {
+                throw new IllegalStateException("Request timed out");
+            }
+            if (output) {
+                outputTaken = true;
+            }
+        }
+        
+        /**
+         * Interrupt the handler. Socket reads on a virtual thread are interruptible, so a
+         * blocked JDBC call fails and the permits are returned.
+         */
+        void cancel() {
+            Future<?> submitted = future;
+            if (submitted != null) {
+                submitted.cancel(true);
+            }
+            if (!started) {
+                // A task cancelled before it starts never runs its finally block
+                releaseAdmission();
+            }
+        }
+        
+        void releaseAdmission() {
+            if (admissionHeld.compareAndSet(true, false)) {
+                admitted.release();
+            }
+        }
+        
+        void complete() {
+            if (completed.compareAndSet(false, true)) {
+                try {
+                    async.complete();
+                } catch (IllegalStateException e) {
+                    // Already completed by the container (client disconnect, shutdown)
+                }
+            }
+        }
+    }
+    
+    /**
+     * The response as the handler sees it: every change is made under the task's lock and
+     * refused once the timeout has answered the request
+     */
+    private static final class GuardedResponse extends HttpServletResponseWrapper {
+        
+        private final Task task;
+        
+        GuardedResponse(HttpServletResponse response, Task task) {
+            super(response);
+            this.task = task;
+        }
+        
+        @Override
+        public ServletOutputStream getOutputStream() throws IOException {
+            synchronized (task) {
+                task.checkOwner(true);
+                return super.getOutputStream();
+            }
+        }
+        
+        @Override
+        public PrintWriter getWriter() throws IOException {
+            synchronized (task) {
+                task.checkOwner(true);
+                return super.getWriter();
+            }
+        }
+        
+        @Override
+        public void setStatus(int status) {
+            synchronized (task) {
+                task.checkOwner(false);
+                super.setStatus(status);
+            }
+        }
+        
+        @Override
+        public void sendError(int status, String message) throws IOException {
+            synchronized (task) {
+                task.checkOwner(false);
+                super.sendError(status, message);
+            }
+        }
+        
+        @Override
+        public void sendError(int status) throws IOException {
+            synchronized (task) {
+                task.checkOwner(false);
+                super.sendError(status);
+            }
+        }
+        
+        @Override
+        public void sendRedirect(String location) throws IOException {
+            synchronized (task) {
+                task.checkOwner(false);
+                super.sendRedirect(location);
+            }
+        }
+        
+        @Override
+        public void setHeader(String name, String value) {
+            synchronized (task) {
+                task.checkOwner(false);
+                super.setHeader(name, value);
+            }
+        }
+        
+        @Override
+        public void addHeader(String name, String value) {
+            synchronized (task) {
+                task.checkOwner(false);
+                super.addHeader(name, value);
+            }
+        }
+        
+        @Override
+        public void setIntHeader(String name, int value) {
+            synchronized (task) {
+                task.checkOwner(false);
+                super.setIntHeader(name, value);
+            }
+        }
+        
+        @Override
+        public void addIntHeader(String name, int value) {
+            synchronized (task) {
+                task.checkOwner(false);
+                super.addIntHeader(name, value);
+            }
+        }
+        
+        @Override
+        public void setDateHeader(String name, long date) {
+            synchronized (task) {
+                task.checkOwner(false);
+                super.setDateHeader(name, date);
+            }
+        }
+        
+        @Override
+        public void addDateHeader(String name, long date) {
+            synchronized (task) {
+                task.checkOwner(false);
+                super.addDateHeader(name, date);
+            }
+        }
+        
+        @Override
+        public void addCookie(Cookie cookie) {
+            synchronized (task) {
+                task.checkOwner(false);
+                super.addCookie(cookie);
+            }
+        }
+        
+        @Override
+        public void setContentType(String type) {
+            synchronized (task) {
+                task.checkOwner(false);
+                super.setContentType(type);
+            }
+        }
+        
+        @Override
+        public void setCharacterEncoding(String charset) {
+            synchronized (task) {
+                task.checkOwner(false);
+                super.setCharacterEncoding(charset);
+            }
+        }
+        
+        @Override
+        public void setContentLength(int length) {
+            synchronized (task) {
+                task.checkOwner(false);
+                super.setContentLength(length);
+            }
+        }
+        
+        @Override
+        public void setContentLengthLong(long length) {
+            synchronized (task) {
+                task.checkOwner(false);
+                super.setContentLengthLong(length);
+            }
+        }
+        
+        @Override
+        public void setLocale(Locale locale) {
+            synchronized (task) {
+                task.checkOwner(false);
+                super.setLocale(locale);
+            }
+        }
+        
+        @Override
+        public void setBufferSize(int size) {
+            synchronized (task) {
+                task.checkOwner(false);
+                super.setBufferSize(size);
+            }
+        }
+        
+        @Override
+        public void flushBuffer() throws IOException {
+            synchronized (task) {
+                task.checkOwner(false);
+                super.flushBuffer();
+            }
+        }
+        
+        @Override
+        public void reset() {
+            synchronized (task) {
+                task.checkOwner(false);
+                super.reset();
+            }
+        }
+        
+        @Override
+        public void resetBuffer() {
+            synchronized (task) {
+                task.checkOwner(false);
+                super.resetBuffer();
+            }
+        }
+    }
+    
+    /**
+     * A blocking request handler
+     */
+    @FunctionalInterface
+    public interface Handler {
+        void handle(HttpServletRequest request, HttpServletResponse response) throws ServletException, IOException;
+    }
+}
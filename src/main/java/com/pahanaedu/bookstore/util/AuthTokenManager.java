@@ -0,0 +1,186 @@
+package com.pahanaedu.bookstore.util;
+
+import com.pahanaedu.bookstore.model.User;
+
+import jakarta.servlet.http.Cookie;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.Optional;
+
+/**
+ * Stateless login tokens, used instead of HttpSession when auth.mode=token. A token is
+ * "payload.signature" where the payload carries the user id, role, expiry and username and
+ * the signature is HMAC-SHA256 over it with auth.token.secret. Any node sharing the secret
+ * can validate a token without a session or a database lookup, so no sticky load balancing
+ * or session replication is needed.
+ * Tokens live in an HttpOnly cookie, expire after auth.token.ttlMinutes and are renewed once
+ * half their lifetime has passed, matching the idle timeout of a session.
+ */
+public class AuthTokenManager {
+    
+    public static final String COOKIE_NAME = "PAHANA_AUTH";
+    
+    private static final String MAC_ALGORITHM = "HmacSHA256";
+    private static final int MIN_SECRET_LENGTH = 32;
+    
+    private static volatile AuthTokenManager instance;
+    private static final Object lock = new Object();
+    
+    private final boolean enabled;
+    private final long ttlSeconds;
+    private final SecretKeySpec key;
+    
+    private AuthTokenManager() {
+        AppConfig appConfig = AppConfig.getInstance();
+        this.enabled = "token".equalsIgnoreCase(appConfig.getString("auth.mode", "session").trim());
+        this.ttlSeconds = Math.max(60, appConfig.getLong("auth.token.ttlMinutes", 20) * 60);
+        
+        String secret = appConfig.getString("auth.token.secret", "");
+        if (enabled && secret.length() < MIN_SECRET_LENGTH) {
+            throw new IllegalStateException("auth.mode=token requires auth.token.secret of at least "
+                    + MIN_SECRET_LENGTH + " characters, identical on every node");
+        }
+        this.key = enabled ? new SecretKeySpec(secret.getBytes(StandardCharsets.UTF_8), MAC_ALGORITHM) : null;
+    }
+    
+    public static AuthTokenManager getInstance() {
+        if (instance == null) {
+            synchronized (lock) {
+                if (instance == null) {
+                    instance = new AuthTokenManager();
+                }
+            }
+        }
+        return instance;
+    }
+    
+    /**
+     * @return true if logins are carried by signed tokens rather than sessions
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+    
+    /**
+     * Issue a token for a user and set it as the login cookie
+     * @param user the authenticated user
+     * @param request the current request
+     * @param response the response to add the cookie to
+     */
+    public void issue(User user, HttpServletRequest request, HttpServletResponse response) {
+        long expiresAt = Instant.now().getEpochSecond() + ttlSeconds;
+        String payload = user.getId() + "|" + user.getRole() + "|" + expiresAt + "|" + user.getUsername();
+        
+        Base64.Encoder encoder = Base64.getUrlEncoder().withoutPadding();
+        String encodedPayload = encoder.encodeToString(payload.getBytes(StandardCharsets.UTF_8));
+        String token = encodedPayload + "." + encoder.encodeToString(sign(encodedPayload));
+        response.addCookie(createCookie(token, (int) ttlSeconds, request));
+    }
+    
+    /**
+     * Validate the login cookie of a request, renewing it if it is past half its lifetime
+     * @param request the current request
+     * @param response the response to add a renewed cookie to
+     * @return the user the token was issued to (id, username and role only), or empty if
+     *         there is no valid, unexpired token
+     */
+    public Optional<User> authenticate(HttpServletRequest request, HttpServletResponse response) {
+        String token = findCookie(request);
+        if (token == null) {
+            return Optional.empty();
+        }
+        
+        int dot = token.indexOf('.');
+        if (dot <= 0) {
+            return Optional.empty();
+        }
+        String encodedPayload = token.substring(0, dot);
+        
+        String[] fields;
+        try {
+            byte[] signature = Base64.getUrlDecoder().decode(token.substring(dot + 1));
+            if (!MessageDigest.isEqual(sign(encodedPayload), signature)) {
+                return Optional.empty();
+            }
+            String payload = new String(Base64.getUrlDecoder().decode(encodedPayload), StandardCharsets.UTF_8);
+            fields = payload.split("\\|", 4);
+        } catch (IllegalArgumentException e) {
+            // Not base64
+            return Optional.empty();
+        }
+        if (fields.length != 4) {
+            return Optional.empty();
+        }
+        
+        User user = new User();
+        long expiresAt;
+        try {
+            user.setId(Integer.parseInt(fields[0]));
+            expiresAt = Long.parseLong(fields[2]);
+        } catch (NumberFormatException e) {
+            return Optional.empty();
+        }
+        user.setRole(fields[1]);
+        user.setUsername(fields[3]);
+        
+        long now = Instant.now().getEpochSecond();
+        if (expiresAt <= now) {
+            return Optional.empty();
+        }
+        if (expiresAt - now < ttlSeconds / 2) {
+            issue(user, request, response);
+        }
+        return Optional.of(user);
+    }
+    
+    /**
+     * Remove the login cookie. The token itself stays valid until it expires.
+     * @param request the current request
+     * @param response the response to clear the cookie on
+     */
+    public void clear(HttpServletRequest request, HttpServletResponse response) {
+        response.addCookie(createCookie("", 0, request));
+    }
+    
+    private byte[] sign(String encodedPayload) {
+        try {
+            Mac mac = Mac.getInstance(MAC_ALGORITHM);
+            mac.init(key);
+            return mac.doFinal(encodedPayload.getBytes(StandardCharsets.US_ASCII));
+        } catch (GeneralSecurityException e) {
+            throw new RuntimeException(MAC_ALGORITHM + " algorithm not available", e);
+        }
+    }
+    
+    private static String findCookie(HttpServletRequest request) {
+        Cookie[] cookies = request.getCookies();
+        if (cookies == null) {
+            return null;
+        }
+        for (Cookie cookie : cookies) {
+            if (COOKIE_NAME.equals(cookie.getName())) {
+                return cookie.getValue();
+            }
+        }
+        return null;
+    }
+    
+    private static Cookie createCookie(String value, int maxAge, HttpServletRequest request) {
+        Cookie cookie = new Cookie(COOKIE_NAME, value);
+        String contextPath = request.getContextPath();
+        cookie.setPath(contextPath.isEmpty() ? "/" : contextPath);
+        cookie.setMaxAge(maxAge);
+        cookie.setHttpOnly(true);
+        cookie.setSecure(request.isSecure());
+        cookie.setAttribute("SameSite", "Lax");
+        return cookie;
+    }
+}
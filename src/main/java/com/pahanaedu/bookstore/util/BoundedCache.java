@@ -0,0 +1,171 @@
+package com.pahanaedu.bookstore.util;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Small in-process LRU cache with a size bound and an optional time-to-live.
+ * Least recently used entries are evicted once maxSize is reached; entries older than
+ * the TTL are treated as misses and dropped on access. Hit, miss and eviction counters
+ * are kept so the cache can be sized from production numbers.
+ * @param <K> the key type
+ * @param <V> the value type
+ */
+public class BoundedCache<K, V> {
+    
+    private final String name;
+    private final int maxSize;
+    private final long ttlNanos;
+    private final LinkedHashMap<K, Entry<V>> entries;
+    
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+    private final AtomicLong expirations = new AtomicLong();
+    
+    /**
+     * Create a cache
+     * @param name the cache name used in statistics
+     * @param maxSize the maximum number of entries
+     * @param ttlSeconds entry time-to-live in seconds, or 0 for no expiry
+     */
+    public BoundedCache(String name, int maxSize, long ttlSeconds) {
+        this.name = name;
+        this.maxSize = Math.max(1, maxSize);
+        this.ttlNanos = ttlSeconds > 0 ? ttlSeconds * 1_000_000_000L : 0L;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true);
+    }
+    
+    /**
+     * Get a cached value
+     * @param key the key
+     * @return the cached value, or null if absent or expired
+     */
+    public V get(K key) {
+        if (key == null) {
+            misses.incrementAndGet();
+            return null;
+        }
+        
+        synchronized (entries) {
+            Entry<V> entry = entries.get(key);
+            if (entry != null && isExpired(entry)) {
+                entries.remove(key);
+                expirations.incrementAndGet();
+                entry = null;
+            }
+            if (entry == null) {
+                misses.incrementAndGet();
+                return null;
+            }
+            hits.incrementAndGet();
+            return entry.value;
+        }
+    }
+    
+    /**
+     * Store a value, evicting the least recently used entry if the cache is full
+     * @param key the key
+     * @param value the value; null values are not cached
+     */
+    public void put(K key, V value) {
+        if (key == null || value == null) {
+            return;
+        }
+        
+        synchronized (entries) {
+            entries.put(key, new Entry<>(value, System.nanoTime()));
+            if (entries.size() > maxSize) {
+                Iterator<Map.Entry<K, Entry<V>>> eldest = entries.entrySet().iterator();
+                eldest.next();
+                eldest.remove();
+                evictions.incrementAndGet();
+            }
+        }
+    }
+    
+    /**
+     * Remove a single entry
+     * @param key the key to remove
+     */
+    public void invalidate(K key) {
+        if (key == null) {
+            return;
+        }
+        
+        synchronized (entries) {
+            entries.remove(key);
+        }
+    }
+    
+    /**
+     * Remove every entry
+     */
+    public void invalidateAll() {
+        synchronized (entries) {
+            entries.clear();
+        }
+    }
+    
+    public int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+    
+    public long getHitCount() {
+        return hits.get();
+    }
+    
+    public long getMissCount() {
+        return misses.get();
+    }
+    
+    public long getEvictionCount() {
+        return evictions.get();
+    }
+    
+    public long getExpirationCount() {
+        return expirations.get();
+    }
+    
+    public double getHitRatio() {
+        long h = hits.get();
+        long total = h + misses.get();
+        return total == 0 ? 0.0 : (double) h / total;
+    }
+    
+    /**
+     * Snapshot of the cache counters, suitable for JSON output
+     * @return map of statistic name to value
+     */
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("name", name);
+        stats.put("size", size());
+        stats.put("maxSize", maxSize);
+        stats.put("ttlSeconds", ttlNanos / 1_000_000_000L);
+        stats.put("hits", getHitCount());
+        stats.put("misses", getMissCount());
+        stats.put("hitRatio", getHitRatio());
+        stats.put("evictions", getEvictionCount());
+        stats.put("expirations", getExpirationCount());
+        return stats;
+    }
+    
+    private boolean isExpired(Entry<V> entry) {
+        return ttlNanos > 0 && System.nanoTime() - entry.createdAt > ttlNanos;
+    }
+    
+    private static final class Entry<V> {
+        private final V value;
+        private final long createdAt;
+        
+        private Entry(V value, long createdAt) {
+            this.value = value;
+            this.createdAt = createdAt;
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package com.pahanaedu.bookstore.util;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * ETag support for responses that are a pure function of a data version and the request
+ * parameters, such as catalog searches. The tag is built from the version alone, so a
+ * matching If-None-Match is answered with 304 before any lookup runs.
+ * Versions of in-memory search indexes include counters that restart from zero, so tags also
+ * carry the time this JVM started; a tag issued by another node or before a restart never
+ * matches by accident.
+ */
+public final class ConditionalGet {
+    
+    private static final String EPOCH = Long.toString(System.currentTimeMillis(), 36);
+    
+    private ConditionalGet() {
+    }
+    
+    /**
+     * Build a weak entity tag (weak, so it survives response compression)
+     * @param version the version of the data the response is built from
+     * @param parts the request parameters that select the response
+     * @return the quoted entity tag
+     */
+    public static String etag(String version, String... parts) {
+        int hash = 1;
+        for (String part : parts) {
+            hash = 31 * hash + (part == null ? 0 : part.hashCode());
+        }
+        return "W/\"" + EPOCH + "-" + version + "-" + Integer.toHexString(hash) + "\"";
+    }
+    
+    /**
+     * Set the ETag header and, if the client already holds this version, answer 304
+     * @param request the request carrying If-None-Match
+     * @param response the response
+     * @param etag the tag for the response about to be built
+     * @return true if a 304 was sent and the caller should write nothing more
+     */
+    public static boolean isNotModified(HttpServletRequest request, HttpServletResponse response, String etag) {
+        response.setHeader("ETag", etag);
+        
+        String ifNoneMatch = request.getHeader("If-None-Match");
+        if (ifNoneMatch == null || !matches(ifNoneMatch, etag)) {
+            return false;
+        }
+        response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+        return true;
+    }
+    
+    private static boolean matches(String ifNoneMatch, String etag) {
+        String opaque = stripWeak(etag);
+        for (String candidate : ifNoneMatch.split(",")) {
+            String tag = candidate.trim();
+            if ("*".equals(tag) || stripWeak(tag).equals(opaque)) {
+                return true;
+            }
+        }
+        return false;
+    }
+    
+    private static String stripWeak(String tag) {
+        return tag.startsWith("W/") ? tag.substring(2) : tag;
+    }
+}
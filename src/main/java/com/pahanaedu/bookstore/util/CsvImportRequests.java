@@ -0,0 +1,109 @@
+package com.pahanaedu.bookstore.util;
+
+import com.pahanaedu.bookstore.model.ImportResult;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.Part;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintWriter;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+/**
+ * Request handling shared by the bulk CSV import endpoints. A form upload (multipart, field
+ * "file") is imported and summarised in request attributes for the page the servlet renders;
+ * any other body is read as raw CSV and answered with the import result as JSON.
+ */
+public final class CsvImportRequests {
+    
+    /**
+     * Runs an import over the given CSV input
+     */
+    @FunctionalInterface
+    public interface Importer {
+        ImportResult importFrom(Reader csv) throws IOException;
+    }
+    
+    private CsvImportRequests() {
+    }
+    
+    /**
+     * Check whether the request is a form upload rather than a raw CSV body
+     * @param request the request
+     * @return true for a multipart request
+     */
+    public static boolean isFormUpload(HttpServletRequest request) {
+        String contentType = request.getContentType();
+        return contentType != null && contentType.toLowerCase().startsWith("multipart/");
+    }
+    
+    /**
+     * Import the uploaded file and set the "importResult", "success" and "error" request
+     * attributes; the caller renders its page afterwards
+     * @param request the multipart request
+     * @param noun what is imported, e.g. "items", used in messages
+     * @param importer runs the import
+     */
+    public static void importUpload(HttpServletRequest request, String noun, Importer importer) {
+        try {
+            Part file = request.getPart("file");
+            if (file == null || file.getSize() == 0) {
+                request.setAttribute("error", "Choose a CSV file to import");
+                return;
+            }
+            
+            ImportResult result;
+            try (Reader reader = new InputStreamReader(file.getInputStream(), StandardCharsets.UTF_8)) {
+                result = importer.importFrom(reader);
+            }
+            request.setAttribute("importResult", result);
+            if (result.getErrorCount() == 0) {
+                request.setAttribute("success", "Imported " + result.getImported() + " " + noun);
+            } else {
+                request.setAttribute("error", "Imported " + result.getImported() + " of " + result.getRowsRead() +
+                                     " rows; " + result.getErrorCount() + " rows were rejected");
+            }
+        } catch (IOException e) {
+            request.setAttribute("error", "Could not read the CSV file: " + e.getMessage());
+        } catch (Exception e) {
+            request.setAttribute("error", "Error importing " + noun + ": " + e.getMessage());
+        }
+    }
+    
+    /**
+     * Import the raw CSV request body and write the result, or an error, as JSON
+     * @param request the request carrying the CSV body
+     * @param response the response
+     * @param noun what is imported, e.g. "items", used in messages
+     * @param importer runs the import
+     * @throws IOException if the response cannot be written
+     */
+    public static void importBody(HttpServletRequest request, HttpServletResponse response, String noun, Importer importer)
+            throws IOException {
+        
+        String encoding = request.getCharacterEncoding() != null ? request.getCharacterEncoding() : "UTF-8";
+        
+        response.setContentType("application/json");
+        response.setCharacterEncoding("UTF-8");
+        
+        try (Reader reader = new InputStreamReader(request.getInputStream(), encoding)) {
+            ImportResult result = importer.importFrom(reader);
+            try (PrintWriter out = response.getWriter()) {
+                out.print(JsonUtil.toJson(result));
+            }
+        } catch (IOException e) {
+            response.setStatus(HttpServletResponse.SC_BAD_REQUEST);
+            try (PrintWriter out = response.getWriter()) {
+                out.print(JsonUtil.toJson(Map.of("error", "Could not read the CSV body: " + e.getMessage())));
+            }
+        } catch (RuntimeException e) {
+            response.setStatus(HttpServletResponse.SC_INTERNAL_SERVER_ERROR);
+            try (PrintWriter out = response.getWriter()) {
+                out.print(JsonUtil.toJson(Map.of("error", "Error importing " + noun)));
+            }
+        }
+    }
+}
@@ -0,0 +1,151 @@
+package com.pahanaedu.bookstore.util;
+
+import com.pahanaedu.bookstore.model.ImportResult;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.io.Reader;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Chunked CSV import shared by the bulk import endpoints. Records are parsed into rows and
+ * written in batches, one transaction per chunk; rows failing to parse are rejected, and if a
+ * batch fails it is rolled back and its rows are retried one at a time, so only the offending
+ * rows are rejected. Rejections are keyed by the first column of the record.
+ * @param <T> the row type
+ */
+public class CsvImporter<T> {
+    
+    /**
+     * Writes a batch of rows on the given connection; the importer owns the transaction
+     * @param <T> the row type
+     */
+    @FunctionalInterface
+    public interface BatchWriter<T> {
+        void write(Connection conn, List<T> rows);
+    }
+    
+    private final DataSource dataSource;
+    private final String headerColumn;
+    private final Function<List<String>, T> parser;
+    private final BatchWriter<T> writer;
+    private final int chunkSize;
+    private Consumer<List<T>> beforeEachChunk = chunk -> { };
+    
+    /**
+     * @param dataSource where chunk connections are taken from
+     * @param headerColumn first column of an optional header row, matched ignoring case
+     * @param parser builds a row from a record, throwing IllegalArgumentException to reject it
+     * @param writer writes a batch of rows
+     */
+    public CsvImporter(DataSource dataSource, String headerColumn, Function<List<String>, T> parser, BatchWriter<T> writer) {
+        this.dataSource = dataSource;
+        this.headerColumn = headerColumn;
+        this.parser = parser;
+        this.writer = writer;
+        this.chunkSize = Math.max(1, AppConfig.getInstance().getInt("import.chunkSize", 1000));
+    }
+    
+    /**
+     * Run a step on each chunk before its connection is taken, e.g. to reserve keys from an
+     * allocator that may need a connection of its own
+     * @param step the step to run
+     * @return this importer
+     */
+    public CsvImporter<T> beforeEachChunk(Consumer<List<T>> step) {
+        this.beforeEachChunk = step;
+        return this;
+    }
+    
+    /**
+     * Import every record of the input. Counts are recorded on the result as chunks commit, so
+     * it reflects what was written even if the import stops part way.
+     * @param csv the CSV input, read as a stream
+     * @param result where row counts and rejected rows are recorded
+     * @throws IOException if the input cannot be read or is malformed
+     */
+    public void importFrom(Reader csv, ImportResult result) throws IOException {
+        List<T> chunk = new ArrayList<>(chunkSize);
+        List<Integer> chunkLines = new ArrayList<>(chunkSize);
+        List<String> chunkKeys = new ArrayList<>(chunkSize);
+        
+        try (CsvReader reader = new CsvReader(csv)) {
+            List<String> record;
+            while ((record = reader.readRecord()) != null) {
+                int line = reader.getRecordLineNumber();
+                if (record.size() == 1 && record.get(0).isBlank()) {
+                    continue;
+                }
+                if (line == 1 && headerColumn.equalsIgnoreCase(record.get(0).trim())) {
+                    continue;
+                }
+                
+                result.rowRead();
+                String key = record.get(0).trim();
+                try {
+                    chunk.add(parser.apply(record));
+                    chunkLines.add(line);
+                    chunkKeys.add(key);
+                } catch (IllegalArgumentException e) {
+                    result.reject(line, key, e.getMessage());
+                }
+                
+                if (chunk.size() >= chunkSize) {
+                    writeChunk(chunk, chunkLines, chunkKeys, result);
+                }
+            }
+            writeChunk(chunk, chunkLines, chunkKeys, result);
+        }
+    }
+    
+    private void writeChunk(List<T> chunk, List<Integer> chunkLines, List<String> chunkKeys, ImportResult result) {
+        if (chunk.isEmpty()) {
+            return;
+        }
+        
+        beforeEachChunk.accept(chunk);
+        
+        try (Connection conn = dataSource.getConnection()) {
+            conn.setAutoCommit(false);
+            try {
+                writer.write(conn, chunk);
+                conn.commit();
+                result.imported(chunk.size());
+            } catch (RuntimeException e) {
+                conn.rollback();
+                // Retry row by row so one row the database refuses does not sink the whole chunk
+                for (int i = 0; i < chunk.size(); i++) {
+                    try {
+                        writer.write(conn, List.of(chunk.get(i)));
+                        conn.commit();
+                        result.imported(1);
+                    } catch (RuntimeException rowError) {
+                        conn.rollback();
+                        result.reject(chunkLines.get(i), chunkKeys.get(i), rootMessage(rowError));
+                    }
+                }
+            } finally {
+                conn.setAutoCommit(true);
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException("Error writing import chunk", e);
+        }
+        
+        chunk.clear();
+        chunkLines.clear();
+        chunkKeys.clear();
+    }
+    
+    private static String rootMessage(Throwable e) {
+        Throwable cause = e;
+        while (cause.getCause() != null) {
+            cause = cause.getCause();
+        }
+        return cause.getMessage();
+    }
+}
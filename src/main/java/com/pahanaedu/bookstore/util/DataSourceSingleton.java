@@ -8,6 +8,10 @@ import javax.sql.DataSource;
 public class DataSourceSingleton {
     private static volatile DataSource instance;
     private static final Object lock = new Object();
+    private static final PoolMetrics poolMetrics = new PoolMetrics();
+    
+    private static final String DEFAULT_URL =
+            "jdbc:mysql://localhost:3306/pahana_edu?useSSL=false&serverTimezone=UTC&rewriteBatchedStatements=true";
     
     private DataSourceSingleton() {}
     
@@ -22,34 +26,39 @@ public class DataSourceSingleton {
         return instance;
     }
     
+    /**
+     * Pool settings come from AppConfig, so each node type (till, backoffice, reporting)
+     * can size its pool without a rebuild. Defaults match the backoffice profile.
+     */
     private static DataSource createDataSource() {
-    HikariConfig config = new HikariConfig();
-    String url = "jdbc:mysql://localhost:3306/pahana_edu?useSSL=false&serverTimezone=UTC";
-    String user = "root";
-    String pass = "admin";
-    config.setJdbcUrl(url);
-    config.setUsername(user);
-    config.setPassword(pass);
-    config.setDriverClassName("com.mysql.cj.jdbc.Driver");
+        AppConfig appConfig = AppConfig.getInstance();
         
-       
-        config.setMaximumPoolSize(5);    // Reduced from 20 to 5
-        config.setMinimumIdle(1);        // Reduced from 5 to 1
-        config.setConnectionTimeout(30000);
-        config.setIdleTimeout(300000);   // Reduced from 600000 to 300000 (5 minutes)
-        config.setMaxLifetime(900000);   // Reduced from 1800000 to 900000 (15 minutes)
-        config.setLeakDetectionThreshold(60000);
+        HikariConfig config = new HikariConfig();
+        config.setPoolName("pahana-" + appConfig.getProfile());
+        config.setJdbcUrl(appConfig.getString("db.url", DEFAULT_URL));
+        config.setUsername(appConfig.getString("db.username", "root"));
+        config.setPassword(appConfig.getString("db.password", "admin"));
+        config.setDriverClassName("com.mysql.cj.jdbc.Driver");
         
+        config.setMaximumPoolSize(appConfig.getInt("db.pool.maximumPoolSize", 5));
+        config.setMinimumIdle(appConfig.getInt("db.pool.minimumIdle", 1));
+        config.setConnectionTimeout(appConfig.getLong("db.pool.connectionTimeoutMs", 30000));
+        config.setIdleTimeout(appConfig.getLong("db.pool.idleTimeoutMs", 300000));
+        config.setMaxLifetime(appConfig.getLong("db.pool.maxLifetimeMs", 900000));
+        config.setLeakDetectionThreshold(appConfig.getLong("db.pool.leakDetectionThresholdMs", 60000));
         
         config.setConnectionTestQuery("SELECT 1");
         config.setValidationTimeout(5000);
+        config.setMetricsTrackerFactory(poolMetrics);
         
         return new HikariDataSource(config);
     }
     
-    private static String getenvOrDefault(String key, String def) {
-        String v = System.getenv(key);
-        return (v == null || v.isBlank()) ? def : v;
+    /**
+     * @return connection pool metrics (live counts and timing histograms)
+     */
+    public static PoolMetrics getPoolMetrics() {
+        return poolMetrics;
     }
     
     public static void close() {
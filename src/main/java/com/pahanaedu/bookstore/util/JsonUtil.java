@@ -1,9 +1,12 @@
 package com.pahanaedu.bookstore.util;
 
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.SerializationFeature;
 
 import java.io.IOException;
+import java.io.OutputStream;
 
 public class JsonUtil {
     
@@ -12,7 +15,6 @@ public class JsonUtil {
     static {
         objectMapper = new ObjectMapper();
         objectMapper.disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
-        objectMapper.enable(SerializationFeature.INDENT_OUTPUT);
     }
     
     /**
@@ -25,6 +27,16 @@ public class JsonUtil {
         return objectMapper.writeValueAsString(object);
     }
     
+    /**
+     * Create a streaming generator that writes compact UTF-8 JSON straight to a stream
+     * @param out the output stream
+     * @return the JSON generator; closing it closes the stream
+     * @throws IOException if the generator cannot be created
+     */
+    public static JsonGenerator createGenerator(OutputStream out) throws IOException {
+        return objectMapper.getFactory().createGenerator(out, JsonEncoding.UTF8);
+    }
+    
     /**
      * Convert JSON string to object
      * @param json the JSON string
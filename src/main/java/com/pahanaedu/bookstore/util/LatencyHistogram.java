@@ -0,0 +1,108 @@
+package com.pahanaedu.bookstore.util;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Lock-free fixed-bucket histogram for durations in milliseconds.
+ * Percentiles are reported as the upper bound of the bucket they fall in.
+ */
+public class LatencyHistogram {
+    
+    private static final double[] BUCKET_BOUNDS_MS = {
+        0.1, 0.25, 0.5, 1, 2.5, 5, 10, 25, 50, 100, 250, 500, 1000, 2500, 5000, 10000, 30000
+    };
+    
+    private final LongAdder[] buckets = new LongAdder[BUCKET_BOUNDS_MS.length + 1];
+    private final LongAdder count = new LongAdder();
+    private final LongAdder totalMicros = new LongAdder();
+    private final AtomicLong maxMicros = new AtomicLong();
+    
+    public LatencyHistogram() {
+        for (int i = 0; i < buckets.length; i++) {
+            buckets[i] = new LongAdder();
+        }
+    }
+    
+    /**
+     * Record a duration measured in nanoseconds
+     * @param nanos the duration
+     */
+    public void recordNanos(long nanos) {
+        record(nanos / 1000L);
+    }
+    
+    /**
+     * Record a duration measured in milliseconds
+     * @param millis the duration
+     */
+    public void recordMillis(long millis) {
+        record(millis * 1000L);
+    }
+    
+    private void record(long micros) {
+        if (micros < 0) {
+            micros = 0;
+        }
+        double millis = micros / 1000.0;
+        int index = 0;
+        while (index < BUCKET_BOUNDS_MS.length && millis > BUCKET_BOUNDS_MS[index]) {
+            index++;
+        }
+        buckets[index].increment();
+        count.increment();
+        totalMicros.add(micros);
+        maxMicros.accumulateAndGet(micros, Math::max);
+    }
+    
+    public long getCount() {
+        return count.sum();
+    }
+    
+    /**
+     * Snapshot of the histogram, suitable for JSON output
+     * @return count, mean, max, percentiles and non-empty buckets (keyed by upper bound)
+     */
+    public Map<String, Object> snapshot() {
+        long[] counts = new long[buckets.length];
+        long total = 0;
+        for (int i = 0; i < buckets.length; i++) {
+            counts[i] = buckets[i].sum();
+            total += counts[i];
+        }
+        
+        Map<String, Object> snapshot = new LinkedHashMap<>();
+        snapshot.put("count", total);
+        snapshot.put("meanMs", total == 0 ? 0.0 : totalMicros.sum() / 1000.0 / total);
+        snapshot.put("maxMs", maxMicros.get() / 1000.0);
+        snapshot.put("p50Ms", percentile(counts, total, 0.50));
+        snapshot.put("p95Ms", percentile(counts, total, 0.95));
+        snapshot.put("p99Ms", percentile(counts, total, 0.99));
+        
+        Map<String, Long> bucketCounts = new LinkedHashMap<>();
+        for (int i = 0; i < counts.length; i++) {
+            if (counts[i] > 0) {
+                bucketCounts.put(i < BUCKET_BOUNDS_MS.length ? "le_" + BUCKET_BOUNDS_MS[i] : "gt_" + BUCKET_BOUNDS_MS[i - 1], counts[i]);
+            }
+        }
+        snapshot.put("buckets", bucketCounts);
+        return snapshot;
+    }
+    
+    private double percentile(long[] counts, long total, double quantile) {
+        if (total == 0) {
+            return 0.0;
+        }
+        long target = (long) Math.ceil(total * quantile);
+        long seen = 0;
+        for (int i = 0; i < counts.length; i++) {
+            seen += counts[i];
+            if (seen >= target) {
+                return i < BUCKET_BOUNDS_MS.length ? BUCKET_BOUNDS_MS[i] : maxMicros.get() / 1000.0;
+            }
+        }
+        return maxMicros.get() / 1000.0;
+    }
+}
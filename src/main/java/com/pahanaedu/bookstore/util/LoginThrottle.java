@@ -0,0 +1,111 @@
+package com.pahanaedu.bookstore.util;
+
+import jakarta.servlet.http.HttpServletRequest;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Login attempt limits, checked before any database lookup or password hashing. Each
+ * username and each remote address has its own token bucket (login.throttle.user.* and
+ * login.throttle.address.*), so a guessing script is slowed down whether it tries one
+ * account from many places or many accounts from one place.
+ * Behind a load balancer every request arrives from the balancer's address, so the client
+ * address is taken from the forwarding header named by login.throttle.clientAddressHeader
+ * when one is configured. Only set it when every request passes through a proxy that
+ * overwrites or appends that header, as clients can send it themselves.
+ */
+public class LoginThrottle {
+    
+    private static volatile LoginThrottle instance;
+    private static final Object lock = new Object();
+    
+    private final boolean enabled;
+    private final String clientAddressHeader;
+    private final TokenBucketLimiter byUser;
+    private final TokenBucketLimiter byAddress;
+    
+    private LoginThrottle() {
+        AppConfig appConfig = AppConfig.getInstance();
+        int maxKeys = appConfig.getInt("login.throttle.maxKeys", 10000);
+        this.enabled = appConfig.getBoolean("login.throttle.enabled", true);
+        this.clientAddressHeader = appConfig.getString("login.throttle.clientAddressHeader", null);
+        this.byUser = new TokenBucketLimiter("user",
+                appConfig.getInt("login.throttle.user.burst", 5),
+                appConfig.getInt("login.throttle.user.perMinute", 5), maxKeys);
+        this.byAddress = new TokenBucketLimiter("address",
+                appConfig.getInt("login.throttle.address.burst", 20),
+                appConfig.getInt("login.throttle.address.perMinute", 30), maxKeys);
+    }
+    
+    public static LoginThrottle getInstance() {
+        if (instance == null) {
+            synchronized (lock) {
+                if (instance == null) {
+                    instance = new LoginThrottle();
+                }
+            }
+        }
+        return instance;
+    }
+    
+    /**
+     * Take a login attempt from the address and username buckets. Both are checked before
+     * either is taken from, so an attempt refused for one does not use up the other.
+     * @param username the submitted username
+     * @param clientAddress the client address, see {@link #clientAddress}
+     * @return 0 if the attempt may proceed, otherwise the seconds to wait before retrying
+     */
+    public long tryAcquire(String username, String clientAddress) {
+        if (!enabled) {
+            return 0;
+        }
+        
+        String address = clientAddress == null ? "" : clientAddress;
+        String user = username.trim().toLowerCase(Locale.ROOT);
+        long waitNanos = Math.max(byAddress.check(address), byUser.check(user));
+        if (waitNanos == 0) {
+            waitNanos = byAddress.tryAcquire(address);
+            if (waitNanos == 0) {
+                waitNanos = byUser.tryAcquire(user);
+                if (waitNanos > 0) {
+                    // A concurrent attempt took the last username token since the check
+                    byAddress.release(address);
+                }
+            }
+        }
+        return waitNanos == 0 ? 0 : Math.max(1, TimeUnit.NANOSECONDS.toSeconds(waitNanos + 999_999_999));
+    }
+    
+    /**
+     * Get the address a login attempt is counted against: the last entry of the configured
+     * forwarding header (the one added by the nearest proxy), or the peer address
+     * @param request the login request
+     * @return the client address
+     */
+    public String clientAddress(HttpServletRequest request) {
+        if (clientAddressHeader != null) {
+            String forwarded = request.getHeader(clientAddressHeader);
+            if (forwarded != null) {
+                String last = forwarded.substring(forwarded.lastIndexOf(',') + 1).trim();
+                if (!last.isEmpty()) {
+                    return last;
+                }
+            }
+        }
+        return request.getRemoteAddr();
+    }
+    
+    /**
+     * Snapshot of the throttle counters, suitable for JSON output
+     * @return map of statistic name to value
+     */
+    public Map<String, Object> snapshot() {
+        Map<String, Object> snapshot = new LinkedHashMap<>();
+        snapshot.put("enabled", enabled);
+        snapshot.put("byUser", byUser.snapshot());
+        snapshot.put("byAddress", byAddress.snapshot());
+        return snapshot;
+    }
+}
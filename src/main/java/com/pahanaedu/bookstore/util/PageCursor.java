@@ -0,0 +1,95 @@
+package com.pahanaedu.bookstore.util;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Opaque keyset pagination cursor: the sort key of the row a page starts after (next page)
+ * or ends before (previous page), encoded as a URL-safe token.
+ */
+public final class PageCursor {
+    
+    private static final char FORWARD = 'a';
+    private static final char BACKWARD = 'b';
+    private static final String SEPARATOR = "\u001f";
+    
+    private final boolean backward;
+    private final String[] key;
+    
+    private PageCursor(boolean backward, String[] key) {
+        this.backward = backward;
+        this.key = key;
+    }
+    
+    /**
+     * Token for the page following the row with the given sort key
+     * @param key sort key values of the last row on the current page
+     * @return cursor token
+     */
+    public static String after(String... key) {
+        return encode(FORWARD, key);
+    }
+    
+    /**
+     * Token for the page preceding the row with the given sort key
+     * @param key sort key values of the first row on the current page
+     * @return cursor token
+     */
+    public static String before(String... key) {
+        return encode(BACKWARD, key);
+    }
+    
+    /**
+     * Decode a cursor token
+     * @param token the token, or null/blank for the first page
+     * @param keyLength number of sort key values the caller expects
+     * @return the cursor, or null for the first page
+     * @throws IllegalArgumentException if the token is malformed
+     */
+    public static PageCursor parse(String token, int keyLength) {
+        if (token == null || token.isBlank()) {
+            return null;
+        }
+        String decoded;
+        try {
+            decoded = new String(Base64.getUrlDecoder().decode(token.trim()), StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid page cursor");
+        }
+        if (decoded.length() < 2 || (decoded.charAt(0) != FORWARD && decoded.charAt(0) != BACKWARD)) {
+            throw new IllegalArgumentException("Invalid page cursor");
+        }
+        String[] key = decoded.substring(1).split(SEPARATOR, -1);
+        if (key.length != keyLength) {
+            throw new IllegalArgumentException("Invalid page cursor");
+        }
+        return new PageCursor(decoded.charAt(0) == BACKWARD, key);
+    }
+    
+    public boolean isBackward() {
+        return backward;
+    }
+    
+    public String get(int index) {
+        return key[index];
+    }
+    
+    public int getInt(int index) {
+        try {
+            return Integer.parseInt(key[index]);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid page cursor");
+        }
+    }
+    
+    private static String encode(char direction, String[] key) {
+        StringBuilder raw = new StringBuilder().append(direction);
+        for (int i = 0; i < key.length; i++) {
+            if (i > 0) {
+                raw.append(SEPARATOR);
+            }
+            raw.append(key[i]);
+        }
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.toString().getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,135 @@
+package com.pahanaedu.bookstore.util;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Runs password hashing on a small dedicated pool so a burst of logins uses at most
+ * password.maxConcurrent cores, whatever the number of request threads. At most
+ * password.maxQueued more wait; beyond that, or after password.timeoutMs, the caller gets
+ * an IllegalStateException and should ask the user to try again.
+ */
+public class PasswordHasher {
+    
+    private static volatile PasswordHasher instance;
+    private static final Object lock = new Object();
+    
+    private final ThreadPoolExecutor executor;
+    private final long timeoutMs;
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder timeouts = new LongAdder();
+    
+    private PasswordHasher() {
+        AppConfig appConfig = AppConfig.getInstance();
+        int defaultConcurrency = Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+        int maxConcurrent = Math.max(1, appConfig.getInt("password.maxConcurrent", defaultConcurrency));
+        int maxQueued = Math.max(1, appConfig.getInt("password.maxQueued", 50));
+        this.timeoutMs = Math.max(1, appConfig.getLong("password.timeoutMs", 10000));
+        
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(maxConcurrent, maxConcurrent, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(maxQueued), runnable -> {
+                    Thread thread = new Thread(runnable, "password-hash-" + threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        this.executor.allowCoreThreadTimeOut(true);
+    }
+    
+    public static PasswordHasher getInstance() {
+        if (instance == null) {
+            synchronized (lock) {
+                if (instance == null) {
+                    instance = new PasswordHasher();
+                }
+            }
+        }
+        return instance;
+    }
+    
+    /**
+     * Stop the hashing threads; called when the application shuts down
+     */
+    public static void shutdown() {
+        synchronized (lock) {
+            if (instance != null) {
+                instance.executor.shutdownNow();
+                instance = null;
+            }
+        }
+    }
+    
+    /**
+     * Hash a password at the configured cost
+     * @param password the plain text password
+     * @return the versioned hash string
+     * @throws IllegalStateException if hashing is saturated or times out
+     */
+    public String hash(String password) {
+        return run(() -> PasswordUtil.hashPassword(password));
+    }
+    
+    /**
+     * Verify a password against its stored hash
+     * @param password the plain text password
+     * @param hash the stored hash
+     * @return true if the password matches
+     * @throws IllegalStateException if hashing is saturated or times out
+     */
+    public boolean verify(String password, String hash) {
+        return run(() -> PasswordUtil.verifyPassword(password, hash));
+    }
+    
+    /**
+     * Snapshot of the pool counters, suitable for JSON output
+     * @return map of statistic name to value
+     */
+    public Map<String, Object> snapshot() {
+        Map<String, Object> snapshot = new LinkedHashMap<>();
+        snapshot.put("maxConcurrent", executor.getMaximumPoolSize());
+        snapshot.put("active", executor.getActiveCount());
+        snapshot.put("queued", executor.getQueue().size());
+        snapshot.put("completed", executor.getCompletedTaskCount());
+        snapshot.put("rejected", rejected.sum());
+        snapshot.put("timeouts", timeouts.sum());
+        return snapshot;
+    }
+    
+    private <T> T run(Callable<T> task) {
+        Future<T> future;
+        try {
+            future = executor.submit(task);
+        } catch (RejectedExecutionException e) {
+            rejected.increment();
+            throw new IllegalStateException("Too many sign-ins in progress, please try again", e);
+        }
+        
+        try {
+            return future.get(timeoutMs, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            timeouts.increment();
+            throw new IllegalStateException("Sign-in is taking too long, please try again", e);
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while hashing password", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new RuntimeException("Error hashing password", cause);
+        }
+    }
+}
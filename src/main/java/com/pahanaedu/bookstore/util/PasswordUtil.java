@@ -1,22 +1,132 @@
 package com.pahanaedu.bookstore.util;
 
+import javax.crypto.SecretKeyFactory;
+import javax.crypto.spec.PBEKeySpec;
 import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
 import java.security.SecureRandom;
+import java.util.Base64;
 
+/**
+ * Password hashing. New hashes are salted PBKDF2-HMAC-SHA256 in a versioned format,
+ * pbkdf2-sha256$iterations$salt$hash (salt and hash base64), so the cost can be raised
+ * later without invalidating stored hashes. Unsalted SHA-256 hex hashes from older
+ * releases still verify; needsRehash reports them so they are replaced on the next login.
+ * Hashing is deliberately slow; callers on request threads go through PasswordHasher.
+ */
 public class PasswordUtil {
     
-    private static final String HASH_ALGORITHM = "SHA-256";
+    private static final String LEGACY_ALGORITHM = "SHA-256";
+    private static final String SCHEME = "pbkdf2-sha256";
+    private static final String KEY_ALGORITHM = "PBKDF2WithHmacSHA256";
+    private static final int SALT_BYTES = 16;
+    private static final int HASH_BITS = 256;
+    private static final int DEFAULT_ITERATIONS = 310000;
+    private static final int MIN_ITERATIONS = 1000;
+    
+    private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+    private static final SecureRandom random = new SecureRandom();
     
     /**
-     * Hash a password using SHA-256
+     * Hash a password with a fresh salt at the configured cost (password.iterations)
      * @param password the plain text password
-     * @return the hashed password in hexadecimal format
+     * @return the versioned hash string
      */
     public static String hashPassword(String password) {
+        return hashPassword(password, getIterations());
+    }
+    
+    /**
+     * Hash a password with a fresh salt
+     * @param password the plain text password
+     * @param iterations the PBKDF2 iteration count
+     * @return the versioned hash string
+     */
+    public static String hashPassword(String password, int iterations) {
+        byte[] salt = new byte[SALT_BYTES];
+        random.nextBytes(salt);
+        byte[] hash = pbkdf2(password, salt, iterations);
+        
+        Base64.Encoder encoder = Base64.getEncoder().withoutPadding();
+        return SCHEME + "$" + iterations + "$" + encoder.encodeToString(salt) + "$" + encoder.encodeToString(hash);
+    }
+    
+    /**
+     * Verify a password against its stored hash using constant-time comparison
+     * @param password the plain text password to verify
+     * @param hash the stored hash, versioned or legacy
+     * @return true if the password matches the hash
+     */
+    public static boolean verifyPassword(String password, String hash) {
+        if (password == null || hash == null) {
+            return false;
+        }
+        
+        if (isLegacyHash(hash)) {
+            return constantTimeEquals(legacyHash(password), hash.toLowerCase());
+        }
+        
+        String[] parts = hash.split("\\$");
+        if (parts.length != 4 || !SCHEME.equals(parts[0])) {
+            return false;
+        }
+        
+        try {
+            int iterations = Integer.parseInt(parts[1]);
+            byte[] salt = Base64.getDecoder().decode(parts[2]);
+            byte[] expected = Base64.getDecoder().decode(parts[3]);
+            return MessageDigest.isEqual(pbkdf2(password, salt, iterations), expected);
+        } catch (IllegalArgumentException e) {
+            // Malformed stored hash
+            return false;
+        }
+    }
+    
+    /**
+     * Check whether a stored hash should be replaced: a legacy hash, or one made with
+     * fewer iterations than currently configured
+     * @param hash the stored hash
+     * @return true if the password should be rehashed
+     */
+    public static boolean needsRehash(String hash) {
+        if (hash == null || isLegacyHash(hash)) {
+            return true;
+        }
+        
+        String[] parts = hash.split("\\$");
+        if (parts.length != 4 || !SCHEME.equals(parts[0])) {
+            return true;
+        }
+        try {
+            return Integer.parseInt(parts[1]) < getIterations();
+        } catch (NumberFormatException e) {
+            return true;
+        }
+    }
+    
+    private static int getIterations() {
+        return Math.max(MIN_ITERATIONS, AppConfig.getInstance().getInt("password.iterations", DEFAULT_ITERATIONS));
+    }
+    
+    private static byte[] pbkdf2(String password, byte[] salt, int iterations) {
+        PBEKeySpec spec = new PBEKeySpec(password.toCharArray(), salt, iterations, HASH_BITS);
+        try {
+            return SecretKeyFactory.getInstance(KEY_ALGORITHM).generateSecret(spec).getEncoded();
+        } catch (GeneralSecurityException e) {
+            throw new RuntimeException(KEY_ALGORITHM + " algorithm not available", e);
+        } finally {
+            spec.clearPassword();
+        }
+    }
+    
+    /**
+     * Unsalted single-round SHA-256, as stored by earlier releases
+     */
+    private static String legacyHash(String password) {
         try {
-            MessageDigest digest = MessageDigest.getInstance(HASH_ALGORITHM);
+            MessageDigest digest = MessageDigest.getInstance(LEGACY_ALGORITHM);
             byte[] hash = digest.digest(password.getBytes(StandardCharsets.UTF_8));
             return bytesToHex(hash);
         } catch (NoSuchAlgorithmException e) {
@@ -24,15 +134,16 @@ public class PasswordUtil {
         }
     }
     
-    /**
-     * Verify a password against its hash using constant-time comparison
-     * @param password the plain text password to verify
-     * @param hash the stored hash to compare against
-     * @return true if the password matches the hash
-     */
-    public static boolean verifyPassword(String password, String hash) {
-        String hashedPassword = hashPassword(password);
-        return constantTimeEquals(hashedPassword, hash);
+    private static boolean isLegacyHash(String hash) {
+        if (hash.length() != 64) {
+            return false;
+        }
+        for (int i = 0; i < hash.length(); i++) {
+            if (Character.digit(hash.charAt(i), 16) < 0) {
+                return false;
+            }
+        }
+        return true;
     }
     
     /**
@@ -41,11 +152,13 @@ public class PasswordUtil {
      * @return hexadecimal string representation
      */
     private static String bytesToHex(byte[] bytes) {
-        StringBuilder result = new StringBuilder();
-        for (byte b : bytes) {
-            result.append(String.format("%02x", b));
+        char[] hex = new char[bytes.length * 2];
+        for (int i = 0; i < bytes.length; i++) {
+            int b = bytes[i] & 0xff;
+            hex[i * 2] = HEX_DIGITS[b >>> 4];
+            hex[i * 2 + 1] = HEX_DIGITS[b & 0x0f];
         }
-        return result.toString();
+        return new String(hex);
     }
     
     /**
@@ -78,7 +191,6 @@ public class PasswordUtil {
      */
     public static String generateRandomPassword(int length) {
         String chars = "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789";
-        SecureRandom random = new SecureRandom();
         StringBuilder password = new StringBuilder();
         
         for (int i = 0; i < length; i++) {
@@ -0,0 +1,75 @@
+package com.pahanaedu.bookstore.util;
+
+import com.zaxxer.hikari.metrics.IMetricsTracker;
+import com.zaxxer.hikari.metrics.MetricsTrackerFactory;
+import com.zaxxer.hikari.metrics.PoolStats;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * HikariCP metrics tracker that keeps acquire, usage and creation time histograms
+ * plus the pool's live connection counts, without any external metrics library.
+ */
+public class PoolMetrics implements MetricsTrackerFactory {
+    
+    private final LatencyHistogram acquireTime = new LatencyHistogram();
+    private final LatencyHistogram usageTime = new LatencyHistogram();
+    private final LatencyHistogram creationTime = new LatencyHistogram();
+    private final LongAdder timeouts = new LongAdder();
+    private volatile String poolName;
+    private volatile PoolStats poolStats;
+    
+    @Override
+    public IMetricsTracker create(String poolName, PoolStats poolStats) {
+        this.poolName = poolName;
+        this.poolStats = poolStats;
+        return new IMetricsTracker() {
+            @Override
+            public void recordConnectionCreatedMillis(long connectionCreatedMillis) {
+                creationTime.recordMillis(connectionCreatedMillis);
+            }
+            
+            @Override
+            public void recordConnectionAcquiredNanos(long elapsedAcquiredNanos) {
+                acquireTime.recordNanos(elapsedAcquiredNanos);
+            }
+            
+            @Override
+            public void recordConnectionUsageMillis(long elapsedBorrowedMillis) {
+                usageTime.recordMillis(elapsedBorrowedMillis);
+            }
+            
+            @Override
+            public void recordConnectionTimeout() {
+                timeouts.increment();
+            }
+        };
+    }
+    
+    /**
+     * Snapshot of pool state and timings, suitable for JSON output
+     * @return map of metric name to value
+     */
+    public Map<String, Object> snapshot() {
+        Map<String, Object> snapshot = new LinkedHashMap<>();
+        snapshot.put("pool", poolName);
+        
+        PoolStats stats = poolStats;
+        if (stats != null) {
+            snapshot.put("active", stats.getActiveConnections());
+            snapshot.put("idle", stats.getIdleConnections());
+            snapshot.put("total", stats.getTotalConnections());
+            snapshot.put("pendingThreads", stats.getPendingThreads());
+            snapshot.put("max", stats.getMaxConnections());
+            snapshot.put("min", stats.getMinConnections());
+        }
+        
+        snapshot.put("connectionTimeouts", timeouts.sum());
+        snapshot.put("acquireTime", acquireTime.snapshot());
+        snapshot.put("usageTime", usageTime.snapshot());
+        snapshot.put("creationTime", creationTime.snapshot());
+        return snapshot;
+    }
+}
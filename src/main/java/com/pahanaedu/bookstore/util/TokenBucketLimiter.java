@@ -0,0 +1,134 @@
+package com.pahanaedu.bookstore.util;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Per-key token buckets: each key may take burst requests at once and then one every
+ * 1/ratePerMinute minutes. Each bucket is a single AtomicLong holding the time at which it
+ * will be full again (the generic cell rate algorithm), updated by compare-and-set, so
+ * concurrent requests never block each other.
+ * At most maxKeys buckets are kept: when full, buckets that have refilled completely are
+ * dropped (they behave exactly like a new bucket), then arbitrary ones if still needed.
+ */
+public class TokenBucketLimiter {
+    
+    private final String name;
+    private final long intervalNanos;
+    private final long toleranceNanos;
+    private final int maxKeys;
+    private final ConcurrentHashMap<String, AtomicLong> buckets = new ConcurrentHashMap<>();
+    
+    private final LongAdder allowed = new LongAdder();
+    private final LongAdder throttled = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    
+    /**
+     * Create a limiter
+     * @param name the limiter name used in statistics
+     * @param burst requests allowed at once from a full bucket
+     * @param ratePerMinute sustained requests per minute
+     * @param maxKeys the maximum number of keys tracked
+     */
+    public TokenBucketLimiter(String name, int burst, int ratePerMinute, int maxKeys) {
+        this.name = name;
+        this.intervalNanos = TimeUnit.MINUTES.toNanos(1) / Math.max(1, ratePerMinute);
+        this.toleranceNanos = intervalNanos * (Math.max(1, burst) - 1);
+        this.maxKeys = Math.max(1, maxKeys);
+    }
+    
+    /**
+     * Take a token for a key
+     * @param key the key (username, address, ...)
+     * @return 0 if the request is allowed, otherwise the nanoseconds until it would be
+     */
+    public long tryAcquire(String key) {
+        long now = System.nanoTime();
+        AtomicLong bucket = buckets.get(key);
+        if (bucket == null) {
+            if (buckets.size() >= maxKeys) {
+                evict(now);
+            }
+            bucket = buckets.computeIfAbsent(key, k -> new AtomicLong(now));
+        }
+        
+        while (true) {
+            long fullAt = bucket.get();
+            long start = Math.max(fullAt, now);
+            long wait = start - now - toleranceNanos;
+            if (wait > 0) {
+                throttled.increment();
+                return wait;
+            }
+            if (bucket.compareAndSet(fullAt, start + intervalNanos)) {
+                allowed.increment();
+                return 0;
+            }
+        }
+    }
+    
+    /**
+     * Check whether a key has a token, without taking it. A refusal is counted as throttled.
+     * @param key the key (username, address, ...)
+     * @return 0 if a token is available, otherwise the nanoseconds until one would be
+     */
+    public long check(String key) {
+        AtomicLong bucket = buckets.get(key);
+        if (bucket == null) {
+            return 0;
+        }
+        
+        long now = System.nanoTime();
+        long wait = Math.max(bucket.get(), now) - now - toleranceNanos;
+        if (wait > 0) {
+            throttled.increment();
+            return wait;
+        }
+        return 0;
+    }
+    
+    /**
+     * Give back a token taken by tryAcquire for a request that was refused elsewhere
+     * @param key the key the token was taken for
+     */
+    public void release(String key) {
+        AtomicLong bucket = buckets.get(key);
+        if (bucket != null) {
+            // A full time in the past behaves like a full bucket, so this cannot over-credit
+            bucket.addAndGet(-intervalNanos);
+            allowed.decrement();
+        }
+    }
+    
+    /**
+     * Snapshot of the limiter counters, suitable for JSON output
+     * @return map of statistic name to value
+     */
+    public Map<String, Object> snapshot() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("name", name);
+        stats.put("trackedKeys", buckets.size());
+        stats.put("maxKeys", maxKeys);
+        stats.put("allowed", allowed.sum());
+        stats.put("throttled", throttled.sum());
+        stats.put("evictions", evictions.sum());
+        return stats;
+    }
+    
+    private void evict(long now) {
+        // Full buckets carry no state, so dropping them changes nothing
+        buckets.entrySet().removeIf(entry -> entry.getValue().get() <= now);
+        
+        Iterator<String> keys = buckets.keySet().iterator();
+        while (buckets.size() >= maxKeys && keys.hasNext()) {
+            keys.next();
+            keys.remove();
+            evictions.increment();
+        }
+    }
+}
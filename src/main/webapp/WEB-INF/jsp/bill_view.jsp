@@ -32,7 +32,7 @@
                         <div class="col-md-6 text-md-end">
                             <h4>BILL</h4>
                             <p class="mb-1"><strong>Bill No:</strong> ${bill.billNo}</p>
-                            <p class="mb-1"><strong>Date:</strong> <fmt:formatDate value="${bill.billDate}" pattern="MMM dd, yyyy HH:mm" /></p>
+                            <p class="mb-1"><strong>Date:</strong> ${bill.formattedBillDate}</p>
                         </div>
                     </div>
                     
@@ -41,7 +41,7 @@
                         <div class="col-md-6">
                             <h6>Bill To:</h6>
                             <div class="border-start border-primary ps-3">
-                                <p class="mb-1"><strong>${bill.customer.name}</strong></p>
+                                <p class="mb-1"><strong>${bill.customer.found ? bill.customer.name : 'Customer Not Found'}</strong></p>
                                 <p class="mb-1">Account: ${bill.customer.accountNumber}</p>
                                 <c:if test="${not empty bill.customer.address}">
                                     <p class="mb-1">${bill.customer.address}</p>
@@ -67,13 +67,13 @@
                                     </tr>
                                 </thead>
                                 <tbody>
-                                    <c:forEach items="${bill.billItems}" var="billItem">
+                                    <c:forEach items="${bill.lines}" var="line">
                                         <tr>
-                                            <td><strong>${billItem.item.sku}</strong></td>
-                                            <td>${billItem.item.name}</td>
-                                            <td class="text-center">${billItem.qty}</td>
-                                            <td class="text-end">$<fmt:formatNumber value="${billItem.unitPrice}" pattern="#,##0.00"/></td>
-                                            <td class="text-end">$<fmt:formatNumber value="${billItem.lineTotal}" pattern="#,##0.00"/></td>
+                                            <td><strong>${line.sku}</strong></td>
+                                            <td>${line.name}</td>
+                                            <td class="text-center">${line.qty}</td>
+                                            <td class="text-end">$<fmt:formatNumber value="${line.unitPrice}" pattern="#,##0.00"/></td>
+                                            <td class="text-end">$<fmt:formatNumber value="${line.lineTotal}" pattern="#,##0.00"/></td>
                                         </tr>
                                     </c:forEach>
                                 </tbody>
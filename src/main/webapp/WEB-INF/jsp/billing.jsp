@@ -204,4 +204,4 @@ window.contextPath = '${pageContext.request.contextPath}';
 }
 </style>
 
-<script src="${pageContext.request.contextPath}/assets/js/billing.js?v=2.0"></script>
+<script src="${pageContext.request.contextPath}${asset:url('/assets/js/billing.js')}"></script>
@@ -5,13 +5,56 @@
         <div class="col-12">
             <div class="d-flex justify-content-between align-items-center mb-4">
                 <h2><i class="bi bi-people"></i> Customers</h2>
-                <button type="button" class="btn btn-primary" data-bs-toggle="modal" data-bs-target="#addCustomerModal">
-                    <i class="bi bi-plus"></i> Add Customer
-                </button>
+                <div>
+                    <button type="button" class="btn btn-outline-primary" data-bs-toggle="modal" data-bs-target="#importCustomersModal">
+                        <i class="bi bi-upload"></i> Import CSV
+                    </button>
+                    <button type="button" class="btn btn-primary" data-bs-toggle="modal" data-bs-target="#addCustomerModal">
+                        <i class="bi bi-plus"></i> Add Customer
+                    </button>
+                </div>
             </div>
         </div>
     </div>
     
+    <c:if test="${not empty importResult and importResult.errorCount > 0}">
+    <!-- Rejected import rows -->
+    <div class="row mb-4">
+        <div class="col-12">
+            <div class="card border-warning">
+                <div class="card-header">
+                    <h5 class="mb-0">Rejected Rows</h5>
+                </div>
+                <div class="card-body">
+                    <div class="table-responsive">
+                        <table class="table table-sm">
+                            <thead>
+                                <tr>
+                                    <th>Line</th>
+                                    <th>Name</th>
+                                    <th>Reason</th>
+                                </tr>
+                            </thead>
+                            <tbody>
+                                <c:forEach items="${importResult.errors}" var="rowError">
+                                    <tr>
+                                        <td>${rowError.line}</td>
+                                        <td>${fn:escapeXml(rowError.key)}</td>
+                                        <td>${fn:escapeXml(rowError.message)}</td>
+                                    </tr>
+                                </c:forEach>
+                            </tbody>
+                        </table>
+                    </div>
+                    <c:if test="${importResult.errorsTruncated}">
+                        <p class="text-muted mb-0">Showing the first ${fn:length(importResult.errors)} of ${importResult.errorCount} rejected rows.</p>
+                    </c:if>
+                </div>
+            </div>
+        </div>
+    </div>
+    </c:if>
+    
     <!-- Customers List -->
     <div class="row">
         <div class="col-12">
@@ -56,18 +99,36 @@
                                 </table>
                             </div>
                             
-                            <!-- Pagination (client-side) -->
+                            <!-- Pagination (server-side, keyset cursors) -->
                             <div class="d-flex justify-content-between align-items-center mt-3">
                                 <div>
-                                    <span class="text-muted" id="tableInfo">Showing all customers</span>
+                                    <span class="text-muted">Showing ${fn:length(customers)} customers, up to ${page.pageSize} per page</span>
                                 </div>
                                 <div>
-                                    <button class="btn btn-sm btn-outline-secondary" id="prevPage" disabled>
-                                        <i class="bi bi-chevron-left"></i> Previous
-                                    </button>
-                                    <button class="btn btn-sm btn-outline-secondary" id="nextPage" disabled>
-                                        Next <i class="bi bi-chevron-right"></i>
-                                    </button>
+                                    <c:choose>
+                                        <c:when test="${page.hasPrevious}">
+                                            <a class="btn btn-sm btn-outline-secondary" href="${pageContext.request.contextPath}/app/customers?cursor=${page.previousCursor}&size=${page.pageSize}">
+                                                <i class="bi bi-chevron-left"></i> Previous
+                                            </a>
+                                        </c:when>
+                                        <c:otherwise>
+                                            <button class="btn btn-sm btn-outline-secondary" disabled>
+                                                <i class="bi bi-chevron-left"></i> Previous
+                                            </button>
+                                        </c:otherwise>
+                                    </c:choose>
+                                    <c:choose>
+                                        <c:when test="${page.hasNext}">
+                                            <a class="btn btn-sm btn-outline-secondary" href="${pageContext.request.contextPath}/app/customers?cursor=${page.nextCursor}&size=${page.pageSize}">
+                                                Next <i class="bi bi-chevron-right"></i>
+                                            </a>
+                                        </c:when>
+                                        <c:otherwise>
+                                            <button class="btn btn-sm btn-outline-secondary" disabled>
+                                                Next <i class="bi bi-chevron-right"></i>
+                                            </button>
+                                        </c:otherwise>
+                                    </c:choose>
                                 </div>
                             </div>
                         </c:when>
@@ -85,6 +146,36 @@
     </div>
 </div>
 
+<!-- Import Customers Modal -->
+<div class="modal fade" id="importCustomersModal" tabindex="-1">
+    <div class="modal-dialog">
+        <div class="modal-content">
+            <div class="modal-header">
+                <h5 class="modal-title"><i class="bi bi-upload"></i> Import Customers</h5>
+                <button type="button" class="btn-close" data-bs-dismiss="modal"></button>
+            </div>
+            <form method="post" action="${pageContext.request.contextPath}/app/customers/import" enctype="multipart/form-data">
+                <div class="modal-body">
+                    <div class="mb-3">
+                        <label for="importFile" class="form-label">CSV file <span class="text-danger">*</span></label>
+                        <input type="file" class="form-control" id="importFile" name="file" accept=".csv,text/csv" required>
+                        <div class="form-text">
+                            Columns: name, address, phone (address and phone may be empty).
+                            Each row becomes a new customer with its own account number; a header row is skipped.
+                        </div>
+                    </div>
+                </div>
+                <div class="modal-footer">
+                    <button type="button" class="btn btn-secondary" data-bs-dismiss="modal">Cancel</button>
+                    <button type="submit" class="btn btn-primary">
+                        <i class="bi bi-upload"></i> Import
+                    </button>
+                </div>
+            </form>
+        </div>
+    </div>
+</div>
+
 <!-- Add Customer Modal -->
 <div class="modal fade" id="addCustomerModal" tabindex="-1">
     <div class="modal-dialog">
@@ -127,63 +218,6 @@
 </div>
 
 <script>
-// Simple client-side pagination
-document.addEventListener('DOMContentLoaded', function() {
-    const table = document.getElementById('customersTable');
-    if (!table) return;
-    
-    const rowsPerPage = 10;
-    const tbody = table.querySelector('tbody');
-    const rows = Array.from(tbody.querySelectorAll('tr'));
-    const totalRows = rows.length;
-    const totalPages = Math.ceil(totalRows / rowsPerPage);
-    
-    let currentPage = 1;
-    
-    const prevBtn = document.getElementById('prevPage');
-    const nextBtn = document.getElementById('nextPage');
-    const tableInfo = document.getElementById('tableInfo');
-    
-    function showPage(page) {
-        const start = (page - 1) * rowsPerPage;
-        const end = start + rowsPerPage;
-        
-        rows.forEach((row, index) => {
-            row.style.display = (index >= start && index < end) ? '' : 'none';
-        });
-        
-        const showingStart = Math.min(start + 1, totalRows);
-        const showingEnd = Math.min(end, totalRows);
-        tableInfo.textContent = `Showing ${showingStart}-${showingEnd} of ${totalRows} customers`;
-        
-        prevBtn.disabled = page === 1;
-        nextBtn.disabled = page === totalPages;
-    }
-    
-    if (totalPages > 1) {
-        prevBtn.style.display = 'inline-block';
-        nextBtn.style.display = 'inline-block';
-        
-        prevBtn.addEventListener('click', () => {
-            if (currentPage > 1) {
-                currentPage--;
-                showPage(currentPage);
-            }
-        });
-        
-        nextBtn.addEventListener('click', () => {
-            if (currentPage < totalPages) {
-                currentPage++;
-                showPage(currentPage);
-            }
-        });
-        
-        showPage(currentPage);
-    } else {
-        tableInfo.textContent = `Showing all ${totalRows} customers`;
-    }
-});
-
 // Delete customer function
 function deleteCustomer(customerId, customerName) {
     if (confirm('Are you sure you want to delete customer "' + customerName + '"?\\n\\nThis action cannot be undone.')) {
@@ -5,7 +5,121 @@
         <div class="col-12">
             <div class="d-flex justify-content-between align-items-center mb-4">
                 <h2><i class="bi bi-speedometer2"></i> Dashboard</h2>
-                <span class="text-muted">Welcome back, ${sessionScope.username}!</span>
+                <span class="text-muted">Welcome back, ${username}!</span>
+            </div>
+        </div>
+    </div>
+    
+    <!-- Sales KPIs (served from in-memory totals) -->
+    <c:if test="${not stats.ready}">
+        <div class="alert alert-info">
+            <i class="bi bi-hourglass-split"></i> Sales totals are still loading; figures below only include bills created since startup.
+        </div>
+    </c:if>
+    
+    <div class="row">
+        <div class="col-lg-3 col-md-6 mb-4">
+            <div class="card">
+                <div class="card-body">
+                    <h6 class="card-title text-muted">Today's Revenue</h6>
+                    <h4 class="mb-0">$<fmt:formatNumber value="${stats.today.revenue}" pattern="#,##0.00"/></h4>
+                </div>
+            </div>
+        </div>
+        <div class="col-lg-3 col-md-6 mb-4">
+            <div class="card">
+                <div class="card-body">
+                    <h6 class="card-title text-muted">Bills Today</h6>
+                    <h4 class="mb-0">${stats.today.billCount}</h4>
+                </div>
+            </div>
+        </div>
+        <div class="col-lg-3 col-md-6 mb-4">
+            <div class="card">
+                <div class="card-body">
+                    <h6 class="card-title text-muted">Average Basket</h6>
+                    <h4 class="mb-0">$<fmt:formatNumber value="${stats.today.averageBasket}" pattern="#,##0.00"/></h4>
+                </div>
+            </div>
+        </div>
+        <div class="col-lg-3 col-md-6 mb-4">
+            <div class="card">
+                <div class="card-body">
+                    <h6 class="card-title text-muted">Units Sold Today</h6>
+                    <h4 class="mb-0">${stats.today.unitsSold}</h4>
+                </div>
+            </div>
+        </div>
+    </div>
+    
+    <div class="row">
+        <div class="col-lg-7 mb-4">
+            <div class="card h-100">
+                <div class="card-header">
+                    <h5 class="mb-0"><i class="bi bi-graph-up"></i> Last ${stats.windowDays} Days</h5>
+                </div>
+                <div class="card-body p-0">
+                    <table class="table table-sm mb-0">
+                        <thead>
+                            <tr>
+                                <th>Date</th>
+                                <th class="text-end">Bills</th>
+                                <th class="text-end">Revenue</th>
+                                <th class="text-end">Average Basket</th>
+                            </tr>
+                        </thead>
+                        <tbody>
+                            <c:forEach items="${stats.days}" var="day">
+                                <tr>
+                                    <td>${day.date}</td>
+                                    <td class="text-end">${day.billCount}</td>
+                                    <td class="text-end"><fmt:formatNumber value="${day.revenue}" pattern="#,##0.00"/></td>
+                                    <td class="text-end"><fmt:formatNumber value="${day.averageBasket}" pattern="#,##0.00"/></td>
+                                </tr>
+                            </c:forEach>
+                        </tbody>
+                        <tfoot>
+                            <tr class="fw-bold">
+                                <td>Total</td>
+                                <td class="text-end">${stats.window.billCount}</td>
+                                <td class="text-end"><fmt:formatNumber value="${stats.window.revenue}" pattern="#,##0.00"/></td>
+                                <td class="text-end"><fmt:formatNumber value="${stats.window.averageBasket}" pattern="#,##0.00"/></td>
+                            </tr>
+                        </tfoot>
+                    </table>
+                </div>
+            </div>
+        </div>
+        <div class="col-lg-5 mb-4">
+            <div class="card h-100">
+                <div class="card-header">
+                    <h5 class="mb-0"><i class="bi bi-trophy"></i> Top Items</h5>
+                </div>
+                <div class="card-body p-0">
+                    <table class="table table-sm mb-0">
+                        <thead>
+                            <tr>
+                                <th>Item</th>
+                                <th class="text-end">Qty</th>
+                                <th class="text-end">Revenue</th>
+                            </tr>
+                        </thead>
+                        <tbody>
+                            <c:forEach items="${stats.topItems}" var="topItem">
+                                <tr>
+                                    <td><strong>${topItem.sku}</strong> ${topItem.name}</td>
+                                    <td class="text-end">${topItem.qty}</td>
+                                    <td class="text-end"><fmt:formatNumber value="${topItem.revenue}" pattern="#,##0.00"/></td>
+                                </tr>
+                            </c:forEach>
+                            <c:if test="${empty stats.topItems}">
+                                <tr>
+                                    <td colspan="3" class="text-muted text-center">No sales in the last ${stats.windowDays} days</td>
+                                </tr>
+                            </c:if>
+                        </tbody>
+                    </table>
+                </div>
             </div>
         </div>
     </div>